@@ -0,0 +1,21 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Headers;
+import feign.RequestLine;
+
+@Headers("Accept: application/json")
+public interface BenchmarkAPI {
+    @RequestLine("GET /message")
+    BenchmarkMessage getMessage();
+
+    @RequestLine("POST /message")
+    @Headers("Content-Type: application/json")
+    BenchmarkMessage postMessage(BenchmarkMessage message);
+}
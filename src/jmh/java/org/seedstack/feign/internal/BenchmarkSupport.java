@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import feign.Client;
+import org.seedstack.feign.FeignConfig;
+
+import java.lang.reflect.Field;
+
+/**
+ * Builds the Feign providers and object mappers used by benchmarks outside of a Seed application, injecting by hand
+ * what the kernel would inject.
+ */
+final class BenchmarkSupport {
+    static final String MESSAGE = "{\"body\":\"Hello World !\",\"author\":\"computer\"}";
+    private static final String BASE_URL = "http://localhost:8080/feign";
+
+    private BenchmarkSupport() {
+        // no instantiation
+    }
+
+    static FeignConfig.EndpointConfig endpointConfig(FeignConfig.HystrixWrapperMode hystrixWrapper) {
+        return new FeignConfig.EndpointConfig()
+                .setBaseUrl(BASE_URL)
+                .setHystrixWrapper(hystrixWrapper);
+    }
+
+    static ObjectMapper createObjectMapper() throws ReflectiveOperationException {
+        FeignObjectMapperProvider objectMapperProvider = new FeignObjectMapperProvider();
+        inject(objectMapperProvider, "config", new FeignConfig());
+        inject(objectMapperProvider, "injector", Guice.createInjector());
+        return objectMapperProvider.get();
+    }
+
+    static <T> FeignProvider<T> createProvider(Class<T> feignApi, FeignConfig.EndpointConfig endpointConfig,
+            Client engine) throws ReflectiveOperationException {
+        FeignConfig config = new FeignConfig();
+        config.addEndpoint(feignApi, endpointConfig);
+        Injector injector = Guice.createInjector();
+        EndpointMetricsImpl endpointMetrics = new EndpointMetricsImpl();
+        FeignProvider<T> feignProvider = new FeignProvider<>(feignApi, null, endpointMetrics);
+        inject(feignProvider, "config", config);
+        inject(feignProvider, "injector", injector);
+        inject(feignProvider, "objectMapper", createObjectMapper());
+        // The engine is replaced by the in-process stub but still metered like a real one
+        inject(feignProvider, "httpClient", new MeteredClient(engine, endpointMetrics, null));
+        return feignProvider;
+    }
+
+    private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seedstack.feign.FeignConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of a Feign client by {@link FeignProvider#get()} with the prototype lifecycle, the HTTP client of the
+ * endpoint being shared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ClientConstructionBenchmark {
+    @Param({"DISABLED", "ENABLED"})
+    public FeignConfig.HystrixWrapperMode hystrixWrapper;
+    private FeignProvider<BenchmarkAPI> feignProvider;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        feignProvider = BenchmarkSupport.createProvider(
+                BenchmarkAPI.class,
+                BenchmarkSupport.endpointConfig(hystrixWrapper).setLifecycle(FeignConfig.ClientLifecycle.PROTOTYPE),
+                new StubClient(BenchmarkSupport.MESSAGE)
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        feignProvider.close();
+    }
+
+    @Benchmark
+    public Object buildClient() {
+        return feignProvider.get();
+    }
+}
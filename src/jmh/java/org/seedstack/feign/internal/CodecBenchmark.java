@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.jackson.JacksonDecoder;
+import feign.jackson.JacksonEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the default Jackson encoder and decoder, configured with the object mapper shared by all endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CodecBenchmark {
+    private static final Map<String, Collection<String>> HEADERS = Collections.singletonMap(
+            "Content-Type", Collections.singletonList("application/json"));
+    @Param({"1", "100"})
+    public int size;
+    private JacksonEncoder encoder;
+    private JacksonDecoder decoder;
+    private Type type;
+    private List<BenchmarkMessage> messages;
+    private byte[] body;
+    private Request request;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException, IOException {
+        ObjectMapper objectMapper = BenchmarkSupport.createObjectMapper();
+        encoder = new JacksonEncoder(objectMapper);
+        decoder = new JacksonDecoder(objectMapper);
+        type = objectMapper.getTypeFactory().constructCollectionType(List.class, BenchmarkMessage.class);
+        messages = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            messages.add(new BenchmarkMessage("Hello World " + i + " !", "computer"));
+        }
+        body = objectMapper.writeValueAsString(messages).getBytes(StandardCharsets.UTF_8);
+        request = Request.create(Request.HttpMethod.GET, "http://localhost:8080/feign/messages",
+                Collections.emptyMap(), null, null, null);
+    }
+
+    @Benchmark
+    public RequestTemplate encode() {
+        RequestTemplate requestTemplate = new RequestTemplate();
+        encoder.encode(messages, type, requestTemplate);
+        return requestTemplate;
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return decoder.decode(Response.builder()
+                .status(200)
+                .reason("OK")
+                .headers(HEADERS)
+                .body(body)
+                .request(request)
+                .build(), type);
+    }
+}
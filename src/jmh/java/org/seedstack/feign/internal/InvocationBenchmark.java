@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Request;
+import feign.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seedstack.feign.FeignConfig;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invocation of a Feign client against an in-process stub engine, with and without the Hystrix wrapper. The baseline
+ * calls the stub engine directly, so the difference is the overhead of the proxy, codecs and wrappers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InvocationBenchmark {
+    @Param({"DISABLED", "ENABLED"})
+    public FeignConfig.HystrixWrapperMode hystrixWrapper;
+    private final BenchmarkMessage message = new BenchmarkMessage("Hello World !", "computer");
+    private StubClient stubClient;
+    private Request request;
+    private FeignProvider<BenchmarkAPI> feignProvider;
+    private BenchmarkAPI benchmarkAPI;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        stubClient = new StubClient(BenchmarkSupport.MESSAGE);
+        request = Request.create(Request.HttpMethod.GET, "http://localhost:8080/feign/message",
+                Collections.emptyMap(), null, null, null);
+        feignProvider = BenchmarkSupport.createProvider(
+                BenchmarkAPI.class,
+                BenchmarkSupport.endpointConfig(hystrixWrapper),
+                stubClient
+        );
+        benchmarkAPI = (BenchmarkAPI) feignProvider.get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        feignProvider.close();
+    }
+
+    @Benchmark
+    public Response baseline() throws IOException {
+        return stubClient.execute(request, new Request.Options());
+    }
+
+    @Benchmark
+    public BenchmarkMessage get() {
+        return benchmarkAPI.getMessage();
+    }
+
+    @Benchmark
+    public BenchmarkMessage post() {
+        return benchmarkAPI.postMessage(message);
+    }
+}
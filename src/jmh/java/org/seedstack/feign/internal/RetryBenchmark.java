@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seedstack.feign.FeignConfig;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry paths through {@link FeignConfigurableRetryer}, alone and within a call whose first attempts fail. Retry
+ * periods are zero so only the retry bookkeeping is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RetryBenchmark {
+    @Param({"1", "3"})
+    public int failures;
+    private Retryer retryer;
+    private RetryableException exception;
+    private FeignProvider<BenchmarkAPI> feignProvider;
+    private BenchmarkAPI benchmarkAPI;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        retryer = new FeignConfigurableRetryer(0, 0, failures + 1);
+        Request request = Request.create(Request.HttpMethod.GET, "http://localhost:8080/feign/message",
+                Collections.emptyMap(), null, null, null);
+        exception = new RetryableException(-1, "Simulated connection failure", Request.HttpMethod.GET, null,
+                request);
+        feignProvider = BenchmarkSupport.createProvider(
+                BenchmarkAPI.class,
+                BenchmarkSupport.endpointConfig(FeignConfig.HystrixWrapperMode.DISABLED)
+                        .setRetry(new FeignConfig.RetryConfig()
+                                .setPeriod(0)
+                                .setMaxPeriod(0)
+                                .setMaxAttempts(failures + 1)),
+                new StubClient(BenchmarkSupport.MESSAGE, failures)
+        );
+        benchmarkAPI = (BenchmarkAPI) feignProvider.get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        feignProvider.close();
+    }
+
+    @Benchmark
+    public Retryer retryer() {
+        Retryer attemptRetryer = retryer.clone();
+        for (int i = 0; i < failures; i++) {
+            attemptRetryer.continueOrPropagate(exception);
+        }
+        return attemptRetryer;
+    }
+
+    @Benchmark
+    public BenchmarkMessage retriedCall() {
+        return benchmarkAPI.getMessage();
+    }
+}
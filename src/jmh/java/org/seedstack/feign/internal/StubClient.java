@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process client engine answering every request with the same JSON body, optionally failing a number of attempts
+ * before each successful one.
+ */
+class StubClient implements Client {
+    private static final Map<String, Collection<String>> HEADERS = Collections.singletonMap(
+            "Content-Type", Collections.singletonList("application/json"));
+    private final byte[] body;
+    private final int failures;
+    private final AtomicLong attempts = new AtomicLong();
+
+    StubClient(String body) {
+        this(body, 0);
+    }
+
+    StubClient(String body, int failures) {
+        this.body = body.getBytes(StandardCharsets.UTF_8);
+        this.failures = failures;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (failures > 0 && attempts.getAndIncrement() % (failures + 1) < failures) {
+            throw new IOException("Simulated connection failure");
+        }
+        return Response.builder()
+                .status(200)
+                .reason("OK")
+                .headers(HEADERS)
+                .body(body)
+                .request(request)
+                .build();
+    }
+}
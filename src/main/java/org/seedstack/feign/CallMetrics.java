@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.util.Map;
+
+/**
+ * Metrics of the calls made through a Feign endpoint or through one of its methods. Latencies and in-flight counts
+ * are measured around method invocations, including retries and fallbacks, while status codes and byte counts are
+ * measured for each HTTP exchange.
+ */
+public interface CallMetrics {
+    /**
+     * @return the number of completed calls.
+     */
+    long getCallCount();
+
+    /**
+     * @return the number of calls that completed with an exception.
+     */
+    long getErrorCount();
+
+    /**
+     * @return the mean number of calls completed per second over the last minute.
+     */
+    double getThroughput();
+
+    /**
+     * @return the number of calls currently in progress.
+     */
+    long getInFlightCount();
+
+    /**
+     * @return the latency distribution of completed calls.
+     */
+    LatencyDistribution getLatency();
+
+    /**
+     * @param phase the call phase.
+     * @return the latency distribution of a phase of the HTTP exchanges (empty if phase timing is disabled).
+     */
+    LatencyDistribution getPhaseLatency(CallPhase phase);
+
+    /**
+     * @return an unmodifiable snapshot of the number of HTTP responses received, keyed by status code.
+     */
+    Map<Integer, Long> getStatusCounts();
+
+    /**
+     * @return the number of retried HTTP exchanges.
+     */
+    long getRetryCount();
+
+    /**
+     * @return the number of calls served by a fallback.
+     */
+    long getFallbackCount();
+
+    /**
+     * @return the number of request body bytes sent.
+     */
+    long getBytesSent();
+
+    /**
+     * @return the number of response body bytes received.
+     */
+    long getBytesReceived();
+}
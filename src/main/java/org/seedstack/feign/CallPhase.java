@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+/**
+ * The phases of a Feign call, in the order they occur. Connection phases only occur when a new connection is
+ * established and are only measured with the {@link FeignConfig.ClientEngine#POOLED} engine: with other engines
+ * they are part of the time to first byte.
+ */
+public enum CallPhase {
+    /**
+     * Execution of the request interceptors.
+     */
+    INTERCEPTORS,
+    /**
+     * Encoding of the request body.
+     */
+    ENCODE,
+    /**
+     * Resolution of the target host name.
+     */
+    DNS,
+    /**
+     * Establishment of the TCP connection.
+     */
+    CONNECT,
+    /**
+     * TLS handshake.
+     */
+    TLS,
+    /**
+     * From the start of the HTTP exchange (connection phases excluded) to the reception of the response headers.
+     */
+    TIME_TO_FIRST_BYTE,
+    /**
+     * Time spent waiting for response body bytes.
+     */
+    BODY_READ,
+    /**
+     * Decoding of the response body, body read excluded.
+     */
+    DECODE
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the {@link Deadline} of each call of a {@link FeignApi} method, retries included. The deadline attached to
+ * the calling thread still applies if it is earlier. This annotation overrides the deadline timeout of the endpoint
+ * configuration.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Documented
+public @interface CallTimeout {
+    /**
+     * @return the maximum duration in milliseconds of a call, retries included.
+     */
+    long value();
+}
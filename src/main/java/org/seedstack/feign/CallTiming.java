@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase timing record of a single HTTP exchange made by a Feign endpoint, as published to
+ * {@link CallTimingListener}s when the exchange is sampled.
+ */
+public interface CallTiming {
+    /**
+     * @return the Feign endpoint interface.
+     */
+    Class<?> getEndpoint();
+
+    /**
+     * @return the Feign config key of the called method (like {@code MyAPI#getMessage(String)}) or null if unknown.
+     */
+    String getMethod();
+
+    /**
+     * @return the HTTP method of the request.
+     */
+    String getHttpMethod();
+
+    /**
+     * @return the URL of the request.
+     */
+    String getUrl();
+
+    /**
+     * @return the status code of the response or -1 if no response was received.
+     */
+    int getStatus();
+
+    /**
+     * @return true if the exchange failed with an exception or an unsuccessful status code.
+     */
+    boolean isFailed();
+
+    /**
+     * @return the time at which the exchange started, in milliseconds since the epoch.
+     */
+    long getStartTime();
+
+    /**
+     * Returns the time spent in a phase of the exchange.
+     *
+     * @param phase    the phase.
+     * @param timeUnit the unit of the returned duration.
+     * @return the duration of the phase or 0 if it did not occur.
+     */
+    long getDuration(CallPhase phase, TimeUnit timeUnit);
+
+    /**
+     * @param timeUnit the unit of the returned duration.
+     * @return the duration of the whole exchange, from its first to its last phase.
+     */
+    long getTotalDuration(TimeUnit timeUnit);
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+/**
+ * Receives the per-phase timing records of sampled Feign calls. Implementations are configured per endpoint with
+ * the {@code timing.listener} property, are instantiated by the injector and must be thread-safe.
+ */
+public interface CallTimingListener {
+    /**
+     * Called when a sampled HTTP exchange completes, on the thread that completed it.
+     *
+     * @param callTiming the timing record of the exchange.
+     */
+    void onCallTiming(CallTiming callTiming);
+}
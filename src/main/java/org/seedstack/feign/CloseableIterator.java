@@ -0,0 +1,23 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Iterator over elements streamed from an HTTP response. Endpoint methods declaring this return type have their JSON
+ * array response parsed lazily, one element at a time. The underlying response is released when all elements have
+ * been read or when the iterator is closed, so it must be closed if it is not fully consumed.
+ *
+ * @param <T> the type of the elements.
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+    @Override
+    void close();
+}
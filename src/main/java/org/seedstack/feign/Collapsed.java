@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Collapses the calls of a single-item method of a {@link FeignApi} interface into calls of a bulk method of the
+ * same interface. Calls made within the time window, or until the batch is full, are merged into one bulk call and
+ * the results are split back to the original callers.
+ *
+ * <p>The annotated method must have exactly one parameter, the item key, and may return a
+ * {@link java.util.concurrent.CompletableFuture} to avoid blocking the caller during the window. The bulk method must
+ * have exactly one parameter accepting a {@link java.util.List}, {@link java.util.Set} or
+ * {@link java.util.Collection} of distinct keys and return either a {@link java.util.Map} of results by key or a
+ * {@link java.util.List} of results in the order of the keys. When a batch contains a single key, the annotated
+ * method is called directly.</p>
+ *
+ * <p>Collapsing requires the endpoint not to be wrapped by Hystrix.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Documented
+public @interface Collapsed {
+    /**
+     * @return the name of the bulk method of the interface.
+     */
+    String bulkMethod();
+
+    /**
+     * @return the time in milliseconds during which calls are collected before the bulk call is made.
+     */
+    long window() default 10;
+
+    /**
+     * @return the maximum number of calls merged into one bulk call.
+     */
+    int maxBatchSize() default 100;
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a Feign call must complete. The deadline attached to the current thread applies to all the
+ * Feign calls made by this thread (and to the asynchronous calls it starts): it shrinks the timeouts of each attempt,
+ * stops retries once expired and can be sent downstream as a header. An endpoint or method timeout can only shorten
+ * the deadline of a call.
+ *
+ * <p>A deadline received with an inbound request is typically attached for the duration of its processing:</p>
+ * <pre>
+ * try (Deadline.Scope scope = Deadline.after(remainingMillis, TimeUnit.MILLISECONDS).attach()) {
+ *     // Feign calls made here inherit the remaining time
+ * }
+ * </pre>
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private static final long MAX_DURATION_NANOS = TimeUnit.DAYS.toNanos(365);
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a deadline expiring after the specified duration from now.
+     *
+     * @param duration the duration.
+     * @param timeUnit the unit of the duration.
+     * @return the deadline.
+     */
+    public static Deadline after(long duration, TimeUnit timeUnit) {
+        return new Deadline(System.nanoTime() + Math.min(timeUnit.toNanos(duration), MAX_DURATION_NANOS));
+    }
+
+    /**
+     * @return the deadline attached to the current thread, or null if there is none.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the time remaining before this deadline expires.
+     *
+     * @param timeUnit the unit of the returned value.
+     * @return the remaining time, or 0 if the deadline has expired.
+     */
+    public long remaining(TimeUnit timeUnit) {
+        return timeUnit.convert(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return true if this deadline has expired.
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Returns the earliest of this deadline and the specified one.
+     *
+     * @param other the other deadline, may be null.
+     * @return the earliest deadline.
+     */
+    public Deadline earliest(Deadline other) {
+        return other != null && other.deadlineNanos - deadlineNanos < 0 ? other : this;
+    }
+
+    /**
+     * Attaches this deadline to the current thread until the returned scope is closed, which restores the previously
+     * attached deadline.
+     *
+     * @return the scope of the deadline.
+     */
+    public Scope attach() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline(remaining=" + remaining(TimeUnit.MILLISECONDS) + "ms)";
+    }
+
+    /**
+     * The scope during which a deadline is attached to a thread.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
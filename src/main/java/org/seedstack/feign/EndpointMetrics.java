@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics collected for a particular Feign endpoint.
+ */
+public interface EndpointMetrics extends CallMetrics {
+    /**
+     * @return the number of times a Feign client has been built for this endpoint.
+     */
+    long getClientBuildCount();
+
+    /**
+     * Returns the cumulated time spent building Feign clients for this endpoint.
+     *
+     * @param timeUnit the unit of the returned value.
+     * @return the total build time.
+     */
+    long getClientBuildTime(TimeUnit timeUnit);
+
+    /**
+     * Returns the ratio between the original and compressed sizes of the request bodies compressed for this endpoint.
+     *
+     * @return the request compression ratio, or 0 if no request body has been compressed.
+     */
+    double getRequestCompressionRatio();
+
+    /**
+     * Returns the ratio between the decompressed and received sizes of the compressed responses of this endpoint.
+     *
+     * @return the response compression ratio, or 0 if no compressed response has been received.
+     */
+    double getResponseCompressionRatio();
+
+    /**
+     * @return the number of requests of this endpoint that were served by the HTTP call of an identical concurrent
+     * request instead of their own.
+     */
+    long getCoalescedRequestCount();
+
+    /**
+     * @return the current adaptive concurrency limit of this endpoint, or 0 if the limiter is disabled.
+     */
+    int getConcurrencyLimit();
+
+    /**
+     * @return the number of calls of this endpoint rejected because the concurrency limit was reached.
+     */
+    long getLimitedCallCount();
+
+    /**
+     * @return the number of second copies sent for requests of this endpoint that were slow to answer.
+     */
+    long getHedgedRequestCount();
+
+    /**
+     * @return the number of retries of this endpoint given up because the retry budget was exhausted.
+     */
+    long getRetryBudgetExhaustedCount();
+
+    /**
+     * @return the number of requests of this endpoint rejected because its rate limit or the one of their method was
+     * reached.
+     */
+    long getRateLimitedCallCount();
+
+    /**
+     * Returns the cumulated time requests of this endpoint waited for their rate limit.
+     *
+     * @param timeUnit the unit of the returned value.
+     * @return the total wait time.
+     */
+    long getRateLimitWaitTime(TimeUnit timeUnit);
+
+    /**
+     * Returns the metrics of each method of this endpoint that has been called.
+     *
+     * @return an unmodifiable map of method metrics, keyed by Feign configuration key (e.g. {@code
+     * MyApi#getUser(long)}).
+     */
+    Map<String, CallMetrics> getMethodMetrics();
+}
@@ -7,6 +7,7 @@
  */
 package org.seedstack.feign;
 
+import com.fasterxml.jackson.databind.Module;
 import feign.Contract;
 import feign.Logger;
 import feign.RequestInterceptor;
@@ -24,9 +25,13 @@ import org.seedstack.coffig.SingleValue;
 import org.seedstack.feign.internal.FeignErrorCode;
 import org.seedstack.seed.SeedException;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 @Config("feign")
@@ -45,8 +50,150 @@ public class FeignConfig {
     public enum HystrixWrapperMode {
         AUTO, ENABLED, DISABLED,
     }
+
+    public enum ExecutionMode {
+        /**
+         * Virtual threads are used if the JVM supports them, platform threads otherwise.
+         */
+        AUTO,
+        /**
+         * Calls are executed on platform threads.
+         */
+        PLATFORM,
+        /**
+         * Calls are executed on virtual threads (requires a JVM supporting them). Blocking Hystrix-wrapped calls run
+         * on the caller thread with unbounded semaphore isolation, unless the Hystrix semaphore properties are
+         * configured. The Hystrix timeout cannot interrupt them: they are bounded by the read timeout or the deadline.
+         */
+        VIRTUAL
+    }
+
+    public enum ClientEngine {
+        /**
+         * The default Feign client based on {@link java.net.HttpURLConnection}.
+         */
+        DEFAULT,
+        /**
+         * A client based on Apache HttpClient with a connection pool dedicated to the endpoint (requires the
+         * 'feign-httpclient' dependency).
+         */
+        POOLED,
+        /**
+         * A client based on the JDK {@code java.net.http.HttpClient} supporting HTTP/2 multiplexing (requires Java
+         * 11+). Its read timeout bounds the wait for the response headers, not the reading of the body.
+         */
+        HTTP2
+    }
+
+    public enum HttpVersion {
+        HTTP_1_1, HTTP_2
+    }
+
+    public enum AccessorOptimizer {
+        /**
+         * Jackson uses reflection to access properties.
+         */
+        NONE,
+        /**
+         * Property accessors are generated by the Jackson Afterburner module (requires
+         * 'jackson-module-afterburner').
+         */
+        AFTERBURNER,
+        /**
+         * Property accessors are generated by the Jackson Blackbird module (requires 'jackson-module-blackbird' and
+         * Java 11+).
+         */
+        BLACKBIRD
+    }
+
+    public enum ClientLifecycle {
+        /**
+         * The Feign client is built once and shared by all injection points.
+         */
+        SINGLETON,
+        /**
+         * A new Feign client is built for each injection.
+         */
+        PROTOTYPE
+    }
+
+    public enum LimitAlgorithm {
+        /**
+         * The limit follows the ratio between the long-term and the current latency, growing while the latency is
+         * stable and shrinking as soon as requests queue up in the backend.
+         */
+        GRADIENT,
+        /**
+         * The limit grows by one while calls succeed and is multiplied by the backoff ratio when a call is dropped or
+         * exceeds the timeout (additive increase, multiplicative decrease).
+         */
+        AIMD
+    }
+
+    public enum RateLimitMode {
+        /**
+         * Calls over the rate wait for a permit up to the rate limit timeout and are rejected after it.
+         */
+        BLOCK,
+        /**
+         * Calls over the rate are rejected immediately.
+         */
+        FAIL_FAST
+    }
+
+    public enum RetryStrategy {
+        /**
+         * The interval between attempts grows exponentially (Feign default retryer).
+         */
+        EXPONENTIAL,
+        /**
+         * The interval between attempts is randomized with decorrelated jitter and retries are bounded by a budget
+         * shared by the endpoint, or by a method with its own retry configuration.
+         */
+        DECORRELATED_JITTER
+    }
+
+    public enum LoadBalancingStrategy {
+        /**
+         * Instances are chosen in turn, each one receiving a share of the calls proportional to its weight.
+         */
+        ROUND_ROBIN,
+        /**
+         * The instance with the fewest calls in flight relative to its weight is chosen.
+         */
+        LEAST_OUTSTANDING,
+        /**
+         * Two instances are drawn at random according to their weight and the one with the lowest latency EWMA
+         * multiplied by its calls in flight is chosen.
+         */
+        POWER_OF_TWO_CHOICES
+    }
+
+    public enum ContentEncoding {
+        GZIP("gzip"),
+        DEFLATE("deflate"),
+        /**
+         * Brotli is only supported for responses (requires 'org.brotli:dec').
+         */
+        BROTLI("br");
+
+        private final String token;
+
+        ContentEncoding(String token) {
+            this.token = token;
+        }
+
+        /**
+         * @return the token identifying the encoding in HTTP headers.
+         */
+        public String getToken() {
+            return token;
+        }
+    }
     private Class<?extends Retryer> retryer;
     private RetryConfig retry;
+    @NotNull
+    private JacksonConfig jackson = new JacksonConfig();
 
     public FeignConfig setRetryer(Class<? extends Retryer> retryerClass){
         this.retryer=retryerClass;
@@ -65,10 +212,18 @@ public class FeignConfig {
         return this.retry;
     }
 
+    public JacksonConfig getJackson() {
+        return jackson;
+    }
+
+    public FeignConfig setJackson(JacksonConfig jackson) {
+        this.jackson = jackson;
+        return this;
+    }
+
     @SuppressWarnings("rawtypes")
     public static class EndpointConfig {
         @SingleValue
-        @NotNull
         private String baseUrl;
         private Class<? extends Contract> contract;
         @NotNull
@@ -92,6 +247,40 @@ public class FeignConfig {
         private List<Class<? extends RequestInterceptor>> interceptors = new ArrayList<>();
         @NotNull
         private HystrixWrapperMode hystrixWrapper = HystrixWrapperMode.AUTO;
+        @NotNull
+        private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+        @NotNull
+        private ClientLifecycle lifecycle = ClientLifecycle.SINGLETON;
+        @NotNull
+        private ClientEngine engine = ClientEngine.DEFAULT;
+        @NotNull
+        private PoolConfig pool = new PoolConfig();
+        @NotNull
+        private Http2Config http2 = new Http2Config();
+        @NotNull
+        private AsyncConfig async = new AsyncConfig();
+        @NotNull
+        private CompressionConfig compression = new CompressionConfig();
+        @NotNull
+        private CacheConfig cache = new CacheConfig();
+        @NotNull
+        private CoalescingConfig coalescing = new CoalescingConfig();
+        @NotNull
+        private TimingConfig timing = new TimingConfig();
+        @NotNull
+        private ResilienceConfig resilience = new ResilienceConfig();
+        @NotNull
+        private LimiterConfig limiter = new LimiterConfig();
+        @NotNull
+        private RateLimitConfig rateLimit = new RateLimitConfig();
+        @NotNull
+        private LoadBalancingConfig loadBalancing = new LoadBalancingConfig();
+        @NotNull
+        private HedgingConfig hedging = new HedgingConfig();
+        @NotNull
+        private DeadlineConfig deadline = new DeadlineConfig();
+        @NotNull
+        private Map<String, MethodConfig> methods = new HashMap<>();
         private Class<?> fallback;
         private Class<?extends ErrorDecoder> errorDecoder;
         private Class<? extends Retryer> retryer;
@@ -181,6 +370,163 @@ public class FeignConfig {
             return this;
         }
 
+        public ExecutionMode getExecutionMode() {
+            return executionMode;
+        }
+
+        public EndpointConfig setExecutionMode(ExecutionMode executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+
+        public ClientLifecycle getLifecycle() {
+            return lifecycle;
+        }
+
+        public EndpointConfig setLifecycle(ClientLifecycle lifecycle) {
+            this.lifecycle = lifecycle;
+            return this;
+        }
+
+        public ClientEngine getEngine() {
+            return engine;
+        }
+
+        public EndpointConfig setEngine(ClientEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        public PoolConfig getPool() {
+            return pool;
+        }
+
+        public EndpointConfig setPool(PoolConfig pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        public Http2Config getHttp2() {
+            return http2;
+        }
+
+        public EndpointConfig setHttp2(Http2Config http2) {
+            this.http2 = http2;
+            return this;
+        }
+
+        public AsyncConfig getAsync() {
+            return async;
+        }
+
+        public EndpointConfig setAsync(AsyncConfig async) {
+            this.async = async;
+            return this;
+        }
+
+        public CompressionConfig getCompression() {
+            return compression;
+        }
+
+        public EndpointConfig setCompression(CompressionConfig compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        public CacheConfig getCache() {
+            return cache;
+        }
+
+        public EndpointConfig setCache(CacheConfig cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public CoalescingConfig getCoalescing() {
+            return coalescing;
+        }
+
+        public EndpointConfig setCoalescing(CoalescingConfig coalescing) {
+            this.coalescing = coalescing;
+            return this;
+        }
+
+        public TimingConfig getTiming() {
+            return timing;
+        }
+
+        public EndpointConfig setTiming(TimingConfig timing) {
+            this.timing = timing;
+            return this;
+        }
+
+        public ResilienceConfig getResilience() {
+            return resilience;
+        }
+
+        public EndpointConfig setResilience(ResilienceConfig resilience) {
+            this.resilience = resilience;
+            return this;
+        }
+
+        public LimiterConfig getLimiter() {
+            return limiter;
+        }
+
+        public EndpointConfig setLimiter(LimiterConfig limiter) {
+            this.limiter = limiter;
+            return this;
+        }
+
+        public RateLimitConfig getRateLimit() {
+            return rateLimit;
+        }
+
+        public EndpointConfig setRateLimit(RateLimitConfig rateLimit) {
+            this.rateLimit = rateLimit;
+            return this;
+        }
+
+        public LoadBalancingConfig getLoadBalancing() {
+            return loadBalancing;
+        }
+
+        public EndpointConfig setLoadBalancing(LoadBalancingConfig loadBalancing) {
+            this.loadBalancing = loadBalancing;
+            return this;
+        }
+
+        public HedgingConfig getHedging() {
+            return hedging;
+        }
+
+        public EndpointConfig setHedging(HedgingConfig hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        public DeadlineConfig getDeadline() {
+            return deadline;
+        }
+
+        public EndpointConfig setDeadline(DeadlineConfig deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * @return the overrides of the endpoint options by method, keyed by method name or by signature like
+         * {@code getUser(long)} when the method is overloaded.
+         */
+        public Map<String, MethodConfig> getMethods() {
+            return Collections.unmodifiableMap(methods);
+        }
+
+        public EndpointConfig addMethod(String method, MethodConfig methodConfig) {
+            this.methods.put(method, methodConfig);
+            return this;
+        }
+
         @SuppressWarnings("unchecked")
         public <T> Class<T> getFallback() {
             return (Class<T>) fallback;
@@ -275,6 +621,12 @@ public class FeignConfig {
         private long maxPeriod= DEFAULT_MAX_PERIOD_IN_MILLIS;
         @Min(1)
         private int maxAttempts= DEFAULT_MAX_ATTEMPTS;
+        @NotNull
+        private RetryStrategy strategy = RetryStrategy.EXPONENTIAL;
+        @DecimalMin("0")
+        @DecimalMax("1")
+        private double budget = 0.1;
+        private boolean idempotentOnly = true;
 
         public RetryConfig setActive(boolean retryActive){
             this.active=retryActive;
@@ -311,5 +663,1170 @@ public class FeignConfig {
         public int getMaxAttempts(){
             return this.maxAttempts;
         }
+
+        /**
+         * @return the strategy computing the interval between attempts.
+         */
+        public RetryStrategy getStrategy() {
+            return strategy;
+        }
+
+        public RetryConfig setStrategy(RetryStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * @return the maximum ratio of retries to the calls of the endpoint (DECORRELATED_JITTER only). A method with its
+         * own retry configuration has its own budget, bounding its retries to its calls.
+         */
+        public double getBudget() {
+            return budget;
+        }
+
+        public RetryConfig setBudget(double budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * @return true if only the calls of idempotent HTTP methods are retried (DECORRELATED_JITTER only).
+         */
+        public boolean isIdempotentOnly() {
+            return idempotentOnly;
+        }
+
+        public RetryConfig setIdempotentOnly(boolean idempotentOnly) {
+            this.idempotentOnly = idempotentOnly;
+            return this;
+        }
+    }
+
+    public static class PoolConfig {
+        @Min(1)
+        private int maxConnectionsPerRoute = 50;
+        @Min(1)
+        private int maxConnections = 200;
+        @Min(0)
+        private long idleTimeout = TimeUnit.SECONDS.toMillis(30);
+        @Min(0)
+        private long timeToLive = 0;
+        @Min(0)
+        private int validateAfterInactivity = 2000;
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public PoolConfig setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public PoolConfig setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @return the time in milliseconds after which an idle connection is evicted from the pool (0 to never
+         * evict idle connections).
+         */
+        public long getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public PoolConfig setIdleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * @return the maximum lifetime in milliseconds of a pooled connection (0 for an infinite lifetime).
+         */
+        public long getTimeToLive() {
+            return timeToLive;
+        }
+
+        public PoolConfig setTimeToLive(long timeToLive) {
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * @return the inactivity period in milliseconds after which a pooled connection is checked before being
+         * reused (0 to disable the check).
+         */
+        public int getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        public PoolConfig setValidateAfterInactivity(int validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+    }
+
+    public static class Http2Config {
+        @NotNull
+        private HttpVersion version = HttpVersion.HTTP_2;
+        private Class<? extends Executor> executor;
+
+        /**
+         * @return the preferred HTTP version, HTTP/2 being negotiated with ALPN over TLS.
+         */
+        public HttpVersion getVersion() {
+            return version;
+        }
+
+        public Http2Config setVersion(HttpVersion version) {
+            this.version = version;
+            return this;
+        }
+
+        /**
+         * @return the executor used by the HTTP client for asynchronous tasks, or null to use the JDK default one.
+         */
+        public Class<? extends Executor> getExecutor() {
+            return executor;
+        }
+
+        public Http2Config setExecutor(Class<? extends Executor> executor) {
+            this.executor = executor;
+            return this;
+        }
+    }
+
+    public static class AsyncConfig {
+        private Class<? extends Executor> executor;
+        @Min(0)
+        private int maxInFlight = 200;
+
+        /**
+         * @return the executor running the asynchronous calls of the endpoint, or null to use a dedicated cached
+         * thread pool.
+         */
+        public Class<? extends Executor> getExecutor() {
+            return executor;
+        }
+
+        public AsyncConfig setExecutor(Class<? extends Executor> executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @return the maximum number of concurrent asynchronous calls of the endpoint (0 for no limit).
+         */
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public AsyncConfig setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+    }
+
+    public static class CompressionConfig {
+        private boolean enabled = false;
+        @NotNull
+        private List<ContentEncoding> encodings = new ArrayList<>(
+                Arrays.asList(ContentEncoding.GZIP, ContentEncoding.DEFLATE));
+        private boolean compressRequests = false;
+        @NotNull
+        private ContentEncoding requestEncoding = ContentEncoding.GZIP;
+        @Min(0)
+        private int requestThreshold = 2048;
+
+        /**
+         * @return true if compressed responses are negotiated and transparently decompressed before being decoded.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public CompressionConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * @return the response encodings advertised in the 'Accept-Encoding' header, by order of preference.
+         */
+        public List<ContentEncoding> getEncodings() {
+            return Collections.unmodifiableList(encodings);
+        }
+
+        public CompressionConfig setEncodings(List<ContentEncoding> encodings) {
+            this.encodings = new ArrayList<>(encodings);
+            return this;
+        }
+
+        /**
+         * @return true if request bodies larger than the threshold are compressed (the remote server must support
+         * it).
+         */
+        public boolean isCompressRequests() {
+            return compressRequests;
+        }
+
+        public CompressionConfig setCompressRequests(boolean compressRequests) {
+            this.compressRequests = compressRequests;
+            return this;
+        }
+
+        /**
+         * @return the encoding of compressed request bodies (GZIP or DEFLATE).
+         */
+        public ContentEncoding getRequestEncoding() {
+            return requestEncoding;
+        }
+
+        public CompressionConfig setRequestEncoding(ContentEncoding requestEncoding) {
+            this.requestEncoding = requestEncoding;
+            return this;
+        }
+
+        /**
+         * @return the minimum size in bytes of the request bodies to compress.
+         */
+        public int getRequestThreshold() {
+            return requestThreshold;
+        }
+
+        public CompressionConfig setRequestThreshold(int requestThreshold) {
+            this.requestThreshold = requestThreshold;
+            return this;
+        }
+    }
+
+    public static class CacheConfig {
+        private boolean enabled = false;
+        @Min(1)
+        private long maxSize = 10 * 1024 * 1024;
+        @Min(1)
+        private long maxEntrySize = 1024 * 1024;
+        private String directory;
+        @Min(1)
+        private long maxDiskSize = 100 * 1024 * 1024;
+
+        /**
+         * @return true if GET responses are cached according to their HTTP caching headers.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public CacheConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * @return the maximum size in bytes of the responses kept in memory.
+         */
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public CacheConfig setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * @return the maximum size in bytes of a cacheable response body, larger responses are never cached.
+         */
+        public long getMaxEntrySize() {
+            return maxEntrySize;
+        }
+
+        public CacheConfig setMaxEntrySize(long maxEntrySize) {
+            this.maxEntrySize = maxEntrySize;
+            return this;
+        }
+
+        /**
+         * @return the directory of the disk tier receiving the responses evicted from memory, or null to disable
+         * the disk tier.
+         */
+        public String getDirectory() {
+            return directory;
+        }
+
+        public CacheConfig setDirectory(String directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * @return the maximum size in bytes of the responses kept on disk.
+         */
+        public long getMaxDiskSize() {
+            return maxDiskSize;
+        }
+
+        public CacheConfig setMaxDiskSize(long maxDiskSize) {
+            this.maxDiskSize = maxDiskSize;
+            return this;
+        }
+    }
+
+    public static class HedgingConfig {
+        private boolean enabled = false;
+        @NotNull
+        private Set<String> methods = new HashSet<>();
+        @Min(1)
+        private long delay = 50;
+        @DecimalMin("0")
+        @DecimalMax("100")
+        private double percentile = 0;
+        @DecimalMin("0")
+        @DecimalMax("1")
+        private double budget = 0.05;
+
+        /**
+         * @return true if a second copy of slow GET requests is sent, the first response being used. Methods
+         * annotated with {@link org.seedstack.feign.Hedged} are hedged even when disabled.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public HedgingConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * @return the names of the endpoint interface methods whose requests are hedged (all GET methods if empty).
+         */
+        public Set<String> getMethods() {
+            return Collections.unmodifiableSet(methods);
+        }
+
+        public HedgingConfig setMethods(Set<String> methods) {
+            this.methods = new HashSet<>(methods);
+            return this;
+        }
+
+        /**
+         * @return the time in milliseconds without response after which the request is hedged.
+         */
+        public long getDelay() {
+            return delay;
+        }
+
+        public HedgingConfig setDelay(long delay) {
+            this.delay = delay;
+            return this;
+        }
+
+        /**
+         * @return the percentile of the method latency used as delay once enough calls have been measured (0 to
+         * always use the fixed delay).
+         */
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public HedgingConfig setPercentile(double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * @return the maximum ratio of hedged requests to the requests of the endpoint.
+         */
+        public double getBudget() {
+            return budget;
+        }
+
+        public HedgingConfig setBudget(double budget) {
+            this.budget = budget;
+            return this;
+        }
+    }
+
+    public static class DeadlineConfig {
+        @Min(0)
+        private long timeout = 0;
+        private String header;
+
+        /**
+         * @return the maximum duration in milliseconds of each call of the endpoint, retries included (0 for no
+         * other deadline than the one attached to the calling thread).
+         */
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public DeadlineConfig setTimeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * @return the name of the request header carrying the remaining time of the call deadline in milliseconds to
+         * the server (not sent if null).
+         */
+        public String getHeader() {
+            return header;
+        }
+
+        public DeadlineConfig setHeader(String header) {
+            this.header = header;
+            return this;
+        }
+    }
+
+    public static class MethodConfig {
+        private TimeUnit timeUnit;
+        @Min(0)
+        private Integer connectTimeout;
+        @Min(0)
+        private Integer readTimeout;
+        private Boolean followRedirects;
+        private Logger.Level logLevel;
+        private RetryConfig retry;
+        private RateLimitConfig rateLimit;
+
+        /**
+         * @return the unit of the method timeouts (the endpoint unit if null).
+         */
+        public TimeUnit getTimeUnit() {
+            return timeUnit;
+        }
+
+        public MethodConfig setTimeUnit(TimeUnit timeUnit) {
+            this.timeUnit = timeUnit;
+            return this;
+        }
+
+        /**
+         * @return the connect timeout of the method (the endpoint one if null).
+         */
+        public Integer getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public MethodConfig setConnectTimeout(Integer connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @return the read timeout of the method (the endpoint one if null).
+         */
+        public Integer getReadTimeout() {
+            return readTimeout;
+        }
+
+        public MethodConfig setReadTimeout(Integer readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * @return true if the method follows redirects (as the endpoint if null).
+         */
+        public Boolean getFollowRedirects() {
+            return followRedirects;
+        }
+
+        public MethodConfig setFollowRedirects(Boolean followRedirects) {
+            this.followRedirects = followRedirects;
+            return this;
+        }
+
+        /**
+         * @return the log level of the method calls (the endpoint one if null).
+         */
+        public Logger.Level getLogLevel() {
+            return logLevel;
+        }
+
+        public MethodConfig setLogLevel(Logger.Level logLevel) {
+            this.logLevel = logLevel;
+            return this;
+        }
+
+        /**
+         * @return the retry configuration of the method (the endpoint one if null).
+         */
+        public RetryConfig getRetry() {
+            return retry;
+        }
+
+        public MethodConfig setRetry(RetryConfig retry) {
+            this.retry = retry;
+            return this;
+        }
+
+        /**
+         * @return the rate limit of the method calls, which also count in the endpoint rate limit (none if null).
+         */
+        public RateLimitConfig getRateLimit() {
+            return rateLimit;
+        }
+
+        public MethodConfig setRateLimit(RateLimitConfig rateLimit) {
+            this.rateLimit = rateLimit;
+            return this;
+        }
+    }
+
+    public static class CoalescingConfig {
+        private boolean enabled = false;
+        @NotNull
+        private Set<String> methods = new HashSet<>();
+        @NotNull
+        private List<String> headers = new ArrayList<>();
+        @Min(1)
+        private long maxResponseSize = 1024 * 1024;
+
+        /**
+         * @return true if identical concurrent GET requests share a single HTTP call. The requests of methods
+         * returning a stream are never coalesced.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public CoalescingConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * @return the names of the endpoint interface methods whose requests are coalesced (all GET methods if
+         * empty).
+         */
+        public Set<String> getMethods() {
+            return Collections.unmodifiableSet(methods);
+        }
+
+        public CoalescingConfig setMethods(Set<String> methods) {
+            this.methods = new HashSet<>(methods);
+            return this;
+        }
+
+        public CoalescingConfig addMethod(String method) {
+            this.methods.add(method);
+            return this;
+        }
+
+        /**
+         * @return the names of the request headers which, in addition to the method and URL, distinguish requests
+         * that cannot be coalesced ('Authorization' is always included).
+         */
+        public List<String> getHeaders() {
+            return Collections.unmodifiableList(headers);
+        }
+
+        public CoalescingConfig setHeaders(List<String> headers) {
+            this.headers = new ArrayList<>(headers);
+            return this;
+        }
+
+        public CoalescingConfig addHeader(String header) {
+            this.headers.add(header);
+            return this;
+        }
+
+        /**
+         * @return the maximum size in bytes of a shared response body, the requests waiting for a larger response
+         * execute their own call.
+         */
+        public long getMaxResponseSize() {
+            return maxResponseSize;
+        }
+
+        public CoalescingConfig setMaxResponseSize(long maxResponseSize) {
+            this.maxResponseSize = maxResponseSize;
+            return this;
+        }
+    }
+
+    public static class TimingConfig {
+        private boolean enabled = false;
+        @DecimalMin("0")
+        @DecimalMax("1")
+        private double sampleRate = 0;
+        private Class<? extends CallTimingListener> listener;
+
+        /**
+         * @return true if each call is split into {@link CallPhase}s measured in the endpoint metrics.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public TimingConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * @return the fraction of calls (between 0 and 1) whose timing record is published to the listener.
+         */
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public TimingConfig setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * @return the listener receiving sampled timing records (if null, they are logged).
+         */
+        public Class<? extends CallTimingListener> getListener() {
+            return listener;
+        }
+
+        public TimingConfig setListener(Class<? extends CallTimingListener> listener) {
+            this.listener = listener;
+            return this;
+        }
+    }
+
+    public static class ResilienceConfig {
+        private boolean enabled = false;
+        @NotNull
+        private CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+        @NotNull
+        private BulkheadConfig bulkhead = new BulkheadConfig();
+
+        /**
+         * @return true if calls are protected by the built-in circuit breaker and bulkhead instead of Hystrix.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public ResilienceConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public CircuitBreakerConfig getCircuitBreaker() {
+            return circuitBreaker;
+        }
+
+        public ResilienceConfig setCircuitBreaker(CircuitBreakerConfig circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        public BulkheadConfig getBulkhead() {
+            return bulkhead;
+        }
+
+        public ResilienceConfig setBulkhead(BulkheadConfig bulkhead) {
+            this.bulkhead = bulkhead;
+            return this;
+        }
+    }
+
+    public static class CircuitBreakerConfig {
+        private boolean enabled = true;
+        @Min(1)
+        private int slidingWindowSize = 100;
+        @Min(1)
+        private int minimumNumberOfCalls = 20;
+        @Min(1)
+        @Max(100)
+        private int failureRateThreshold = 50;
+        @Min(1)
+        @Max(100)
+        private int slowCallRateThreshold = 100;
+        @Min(1)
+        private long slowCallDurationThreshold = 60000;
+        @Min(0)
+        private long waitDurationInOpenState = 30000;
+        @Min(1)
+        private int permittedCallsInHalfOpenState = 10;
+
+        /**
+         * @return true if each method of the endpoint has its own circuit breaker.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public CircuitBreakerConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * @return the number of most recent calls whose outcome is considered to compute the failure rates.
+         */
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public CircuitBreakerConfig setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+            return this;
+        }
+
+        /**
+         * @return the number of recorded calls required before the failure rates are evaluated.
+         */
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public CircuitBreakerConfig setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+            return this;
+        }
+
+        /**
+         * @return the percentage of failed calls above which the circuit opens.
+         */
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public CircuitBreakerConfig setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @return the percentage of slow calls above which the circuit opens.
+         */
+        public int getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public CircuitBreakerConfig setSlowCallRateThreshold(int slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * @return the duration in milliseconds above which a call is considered slow.
+         */
+        public long getSlowCallDurationThreshold() {
+            return slowCallDurationThreshold;
+        }
+
+        public CircuitBreakerConfig setSlowCallDurationThreshold(long slowCallDurationThreshold) {
+            this.slowCallDurationThreshold = slowCallDurationThreshold;
+            return this;
+        }
+
+        /**
+         * @return the duration in milliseconds during which an open circuit rejects calls before letting trial calls
+         * through.
+         */
+        public long getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public CircuitBreakerConfig setWaitDurationInOpenState(long waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+            return this;
+        }
+
+        /**
+         * @return the number of trial calls deciding whether a half-open circuit closes or opens again.
+         */
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+
+        public CircuitBreakerConfig setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+            return this;
+        }
+    }
+
+    public static class BulkheadConfig {
+        private boolean enabled = true;
+        @Min(1)
+        private int maxConcurrentCalls = 25;
+        @Min(0)
+        private long maxWaitDuration = 0;
+
+        /**
+         * @return true if the number of concurrent calls to the endpoint is bounded.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public BulkheadConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * @return the maximum number of concurrent calls to the endpoint.
+         */
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public BulkheadConfig setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        /**
+         * @return the duration in milliseconds a call waits for a free slot before being rejected.
+         */
+        public long getMaxWaitDuration() {
+            return maxWaitDuration;
+        }
+
+        public BulkheadConfig setMaxWaitDuration(long maxWaitDuration) {
+            this.maxWaitDuration = maxWaitDuration;
+            return this;
+        }
+    }
+
+    public static class LimiterConfig {
+        private boolean enabled = false;
+        @NotNull
+        private LimitAlgorithm algorithm = LimitAlgorithm.GRADIENT;
+        @Min(1)
+        private int initialLimit = 20;
+        @Min(1)
+        private int minLimit = 1;
+        @Min(1)
+        private int maxLimit = 200;
+        @Min(1)
+        private long timeout = 5000;
+        @DecimalMin("0.1")
+        @DecimalMax("0.99")
+        private double backoffRatio = 0.9;
+        @DecimalMin("1")
+        private double rttTolerance = 1.5;
+        @DecimalMin("0.01")
+        @DecimalMax("1")
+        private double smoothing = 0.2;
+
+        /**
+         * @return true if the number of concurrent calls to the endpoint is bounded by an adaptive limit, surplus
+         * calls being rejected.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public LimiterConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * @return the algorithm adjusting the limit from the observed latencies.
+         */
+        public LimitAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public LimiterConfig setAlgorithm(LimitAlgorithm algorithm) {
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        /**
+         * @return the limit applied before any latency has been observed.
+         */
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public LimiterConfig setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * @return the lowest value the limit can reach.
+         */
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public LimiterConfig setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        /**
+         * @return the highest value the limit can reach.
+         */
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public LimiterConfig setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * @return the duration in milliseconds above which a call is considered dropped by the backend.
+         */
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public LimiterConfig setTimeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * @return the factor applied to the limit when a call is dropped (AIMD only).
+         */
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public LimiterConfig setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * @return how many times the current latency can exceed the long-term latency before the limit shrinks
+         * (GRADIENT only).
+         */
+        public double getRttTolerance() {
+            return rttTolerance;
+        }
+
+        public LimiterConfig setRttTolerance(double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+
+        /**
+         * @return the weight (between 0 and 1) of each new estimation in the limit (GRADIENT only).
+         */
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public LimiterConfig setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+    }
+
+    public static class RateLimitConfig {
+        private boolean enabled = false;
+        @Min(1)
+        private int limit = 100;
+        @Min(1)
+        private long period = 1000;
+        @NotNull
+        private RateLimitMode mode = RateLimitMode.FAIL_FAST;
+        @Min(0)
+        private long timeout = 500;
+
+        /**
+         * @return true if the HTTP requests are limited to a rate, retries included. A hedged request takes a single
+         * permit, whatever the number of copies sent.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public RateLimitConfig setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        /**
+         * @return the number of requests allowed per period, which is also the size of the bursts allowed after an
+         * idle period.
+         */
+        public int getLimit() {
+            return limit;
+        }
+
+        public RateLimitConfig setLimit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * @return the period in milliseconds over which the limit applies.
+         */
+        public long getPeriod() {
+            return period;
+        }
+
+        public RateLimitConfig setPeriod(long period) {
+            this.period = period;
+            return this;
+        }
+
+        /**
+         * @return what happens to the requests over the rate.
+         */
+        public RateLimitMode getMode() {
+            return mode;
+        }
+
+        public RateLimitConfig setMode(RateLimitMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * @return the maximum time in milliseconds a request waits for a permit in BLOCK mode.
+         */
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public RateLimitConfig setTimeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+    }
+
+    public static class LoadBalancingConfig {
+        @NotNull
+        private List<InstanceConfig> instances = new ArrayList<>();
+        @NotNull
+        private LoadBalancingStrategy strategy = LoadBalancingStrategy.ROUND_ROBIN;
+        @Min(1)
+        private long decayTime = 10000;
+
+        /**
+         * @return the instances of the endpoint, replacing its base URL when not empty.
+         */
+        public List<InstanceConfig> getInstances() {
+            return Collections.unmodifiableList(instances);
+        }
+
+        public LoadBalancingConfig setInstances(List<InstanceConfig> instances) {
+            this.instances = new ArrayList<>(instances);
+            return this;
+        }
+
+        public LoadBalancingConfig addInstance(InstanceConfig instance) {
+            this.instances.add(instance);
+            return this;
+        }
+
+        /**
+         * @return the strategy choosing the instance of each call.
+         */
+        public LoadBalancingStrategy getStrategy() {
+            return strategy;
+        }
+
+        public LoadBalancingConfig setStrategy(LoadBalancingStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * @return the duration in milliseconds after which a latency observed on an instance has lost most of its
+         * weight in the latency EWMA of the instance.
+         */
+        public long getDecayTime() {
+            return decayTime;
+        }
+
+        public LoadBalancingConfig setDecayTime(long decayTime) {
+            this.decayTime = decayTime;
+            return this;
+        }
+    }
+
+    public static class InstanceConfig {
+        @SingleValue
+        @NotNull
+        private String url;
+        @Min(1)
+        @Max(100)
+        private int weight = 1;
+
+        /**
+         * @return the base URL of the instance.
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        public InstanceConfig setUrl(String url) {
+            this.url = url;
+            return this;
+        }
+
+        /**
+         * @return the share of the calls sent to the instance, relative to the weights of the other instances.
+         */
+        public int getWeight() {
+            return weight;
+        }
+
+        public InstanceConfig setWeight(int weight) {
+            this.weight = weight;
+            return this;
+        }
+    }
+
+    public static class JacksonConfig {
+        private boolean failOnUnknownProperties = false;
+        private boolean indentOutput = false;
+        @NotNull
+        private AccessorOptimizer accessorOptimizer = AccessorOptimizer.NONE;
+        @NotNull
+        private List<Class<? extends Module>> modules = new ArrayList<>();
+
+        public boolean isFailOnUnknownProperties() {
+            return failOnUnknownProperties;
+        }
+
+        public JacksonConfig setFailOnUnknownProperties(boolean failOnUnknownProperties) {
+            this.failOnUnknownProperties = failOnUnknownProperties;
+            return this;
+        }
+
+        public boolean isIndentOutput() {
+            return indentOutput;
+        }
+
+        public JacksonConfig setIndentOutput(boolean indentOutput) {
+            this.indentOutput = indentOutput;
+            return this;
+        }
+
+        public AccessorOptimizer getAccessorOptimizer() {
+            return accessorOptimizer;
+        }
+
+        public JacksonConfig setAccessorOptimizer(AccessorOptimizer accessorOptimizer) {
+            this.accessorOptimizer = accessorOptimizer;
+            return this;
+        }
+
+        public List<Class<? extends Module>> getModules() {
+            return Collections.unmodifiableList(modules);
+        }
+
+        public void addModule(Class<? extends Module> module) {
+            this.modules.add(module);
+        }
     }
 }
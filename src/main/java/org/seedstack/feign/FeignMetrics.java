@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.util.Map;
+
+/**
+ * Injectable entry point giving access to the metrics collected for each Feign endpoint. The metrics are plain
+ * counters and timers that can be exported to any monitoring system.
+ */
+public interface FeignMetrics {
+    /**
+     * Returns the metrics of the specified endpoint.
+     *
+     * @param feignApi the endpoint interface annotated with {@link FeignApi}.
+     * @return the endpoint metrics or null if the interface is not a known Feign endpoint.
+     */
+    EndpointMetrics getEndpointMetrics(Class<?> feignApi);
+
+    /**
+     * Returns the metrics of all Feign endpoints.
+     *
+     * @return an unmodifiable map of endpoint metrics, keyed by endpoint interface.
+     */
+    Map<Class<?>, EndpointMetrics> getAllEndpointMetrics();
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Hedges the requests of a GET method of a {@link FeignApi} interface: when no response has arrived after the delay,
+ * a second copy of the request is sent, to another instance if the endpoint is load-balanced, and the first response
+ * is used. The other one is closed as soon as it arrives.
+ *
+ * <p>Hedged requests are bounded by the hedging budget of the endpoint. The annotation overrides the delay of the
+ * endpoint hedging configuration and enables hedging for the method even if it is disabled for the endpoint.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Documented
+public @interface Hedged {
+    /**
+     * @return the time in milliseconds without response after which the request is hedged.
+     */
+    long delay() default 50;
+
+    /**
+     * @return the percentile of the method latency used as delay once enough calls have been measured (0 to always use
+     * the fixed delay).
+     */
+    double percentile() default 0;
+}
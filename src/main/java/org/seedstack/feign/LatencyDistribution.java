@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of recorded latencies. Values are kept in logarithmic buckets with a relative precision of about 3%,
+ * so percentiles are accurate whatever the order of magnitude of latencies.
+ */
+public interface LatencyDistribution {
+    /**
+     * @return the number of recorded latencies.
+     */
+    long getCount();
+
+    /**
+     * Returns the latency below which the specified percentage of recorded latencies fall.
+     *
+     * @param percentile the percentile between 0 and 100 (e.g. 50, 99 or 99.9).
+     * @param timeUnit   the unit of the returned value.
+     * @return the latency at the percentile, or 0 if no latency has been recorded.
+     */
+    double getPercentile(double percentile, TimeUnit timeUnit);
+
+    /**
+     * @param timeUnit the unit of the returned value.
+     * @return the mean latency, or 0 if no latency has been recorded.
+     */
+    double getMean(TimeUnit timeUnit);
+
+    /**
+     * @param timeUnit the unit of the returned value.
+     * @return the maximum recorded latency.
+     */
+    double getMax(TimeUnit timeUnit);
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import feign.Logger;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overrides the endpoint timeouts, retry attempts or log level for the calls of a {@link FeignApi} method. Options
+ * left to their default value are those of the endpoint. The method overrides of the endpoint configuration take
+ * precedence over this annotation, and {@link feign.Request.Options} passed as a method argument take precedence over
+ * both.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Documented
+public @interface MethodOptions {
+    /**
+     * @return the connect timeout of the method, negative for the endpoint one.
+     */
+    int connectTimeout() default -1;
+
+    /**
+     * @return the read timeout of the method, negative for the endpoint one.
+     */
+    int readTimeout() default -1;
+
+    /**
+     * @return the unit of the method timeouts.
+     */
+    TimeUnit timeUnit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * @return the maximum number of attempts of a call, capping those of the endpoint retryer (1 to disable retries),
+     * 0 or negative for the endpoint one.
+     */
+    int maxAttempts() default -1;
+
+    /**
+     * @return the log level of the method calls, empty for the endpoint one.
+     */
+    Logger.Level[] logLevel() default {};
+}
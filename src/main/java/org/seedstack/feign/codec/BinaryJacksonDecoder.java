@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import feign.Response;
+import feign.codec.Decoder;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Base decoder deserializing response bodies in a binary format supported by a Jackson data format module.
+ */
+class BinaryJacksonDecoder implements Decoder {
+    private final ObjectMapper objectMapper;
+
+    BinaryJacksonDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.body() == null) {
+            return null;
+        }
+        InputStream inputStream = response.body().asInputStream();
+        if (!inputStream.markSupported()) {
+            inputStream = new BufferedInputStream(inputStream, 1);
+        }
+        try {
+            // Read the first byte to see if we have any data
+            inputStream.mark(1);
+            if (inputStream.read() == -1) {
+                return null;
+            }
+            inputStream.reset();
+            return objectMapper.readValue(inputStream, objectMapper.getTypeFactory().constructType(type));
+        } catch (RuntimeJsonMappingException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+
+/**
+ * Base encoder serializing request bodies in a binary format supported by a Jackson data format module.
+ */
+class BinaryJacksonEncoder implements Encoder {
+    private static final String CONTENT_TYPE = "Content-Type";
+    private final ObjectMapper objectMapper;
+    private final String mediaType;
+
+    BinaryJacksonEncoder(ObjectMapper objectMapper, String mediaType) {
+        this.objectMapper = objectMapper;
+        this.mediaType = mediaType;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) {
+        try {
+            JavaType javaType = objectMapper.getTypeFactory().constructType(bodyType);
+            template.body(objectMapper.writerFor(javaType).writeValueAsBytes(object), null);
+            template.header(CONTENT_TYPE, Collections.emptyList());
+            template.header(CONTENT_TYPE, mediaType);
+        } catch (JsonProcessingException e) {
+            throw new EncodeException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Encoder serializing request bodies in the CBOR binary format. It requires the
+ * {@code com.fasterxml.jackson.dataformat:jackson-dataformat-cbor} dependency and shares the Jackson configuration
+ * of the JSON codecs.
+ */
+public class CborEncoder extends BinaryJacksonEncoder {
+    /**
+     * The media type of the CBOR format.
+     */
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    @Inject
+    public CborEncoder(@Named("feign-cbor") ObjectMapper objectMapper) {
+        super(objectMapper, MEDIA_TYPE);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Injector;
+import feign.MethodMetadata;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.jackson.JacksonDecoder;
+import org.seedstack.shed.reflect.Classes;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Decoder selecting the format of each response from its {@code Content-Type} header among JSON and the binary
+ * formats available in the classpath (Smile, CBOR and Protocol Buffers). As a request interceptor, it advertises these
+ * formats in the {@code Accept} header of requests that don't specify one, preferring binary formats which are more
+ * compact and faster to parse. Responses without a known content type are decoded as JSON.
+ */
+public class NegotiatingDecoder implements Decoder, RequestInterceptor {
+    private static final String ACCEPT = "Accept";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String JSON_MEDIA_TYPE = "application/json";
+    private static final String JSON_SUFFIX = "+json";
+    private static final String PROTOBUF_ALTERNATE_MEDIA_TYPE = "application/protobuf";
+    private static final boolean SMILE_PRESENT = Classes.optional(
+            "com.fasterxml.jackson.dataformat.smile.SmileFactory").isPresent();
+    private static final boolean CBOR_PRESENT = Classes.optional(
+            "com.fasterxml.jackson.dataformat.cbor.CBORFactory").isPresent();
+    private static final Class<?> PUBLISHER_CLASS = Classes.optional("org.reactivestreams.Publisher").orElse(null);
+    private final Map<String, Decoder> decoders = new HashMap<>();
+    private final Decoder jsonDecoder;
+    private final Decoder protobufDecoder;
+    private final String acceptedMediaTypes;
+    private final String protobufMediaTypes;
+
+    @Inject
+    public NegotiatingDecoder(@Named("feign") ObjectMapper objectMapper, Injector injector) {
+        List<String> mediaTypes = new ArrayList<>();
+        if (SMILE_PRESENT) {
+            decoders.put(SmileDecoder.MEDIA_TYPE, injector.getInstance(SmileDecoder.class));
+            mediaTypes.add(SmileDecoder.MEDIA_TYPE);
+        }
+        if (CBOR_PRESENT) {
+            decoders.put(CborDecoder.MEDIA_TYPE, injector.getInstance(CborDecoder.class));
+            mediaTypes.add(CborDecoder.MEDIA_TYPE);
+        }
+        jsonDecoder = new JacksonDecoder(objectMapper);
+        decoders.put(JSON_MEDIA_TYPE, jsonDecoder);
+        mediaTypes.add(JSON_MEDIA_TYPE);
+        acceptedMediaTypes = withDecreasingQuality(mediaTypes);
+
+        if (ProtobufEncoder.PROTOBUF_PRESENT) {
+            protobufDecoder = new ProtobufDecoder();
+            decoders.put(ProtobufDecoder.MEDIA_TYPE, protobufDecoder);
+            decoders.put(PROTOBUF_ALTERNATE_MEDIA_TYPE, protobufDecoder);
+        } else {
+            protobufDecoder = null;
+        }
+        protobufMediaTypes = ProtobufDecoder.MEDIA_TYPE + ", " + PROTOBUF_ALTERNATE_MEDIA_TYPE + ";q=0.9";
+    }
+
+    @Override
+    public void apply(RequestTemplate template) {
+        if (template.headers().containsKey(ACCEPT)) {
+            return;
+        }
+        MethodMetadata methodMetadata = template.methodMetadata();
+        Type returnType = methodMetadata != null ? methodMetadata.returnType() : null;
+        if (isProtobufMessage(returnType)) {
+            template.header(ACCEPT, protobufMediaTypes);
+        } else if (returnType != null && isStreamed(returnType)) {
+            // Streamed responses are always parsed as JSON
+            template.header(ACCEPT, JSON_MEDIA_TYPE);
+        } else {
+            template.header(ACCEPT, acceptedMediaTypes);
+        }
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        return resolveDecoder(response, type).decode(response, type);
+    }
+
+    private Decoder resolveDecoder(Response response, Type type) {
+        String mediaType = mediaType(response);
+        if (mediaType != null) {
+            Decoder decoder = decoders.get(mediaType);
+            if (decoder != null) {
+                return decoder;
+            } else if (mediaType.endsWith(JSON_SUFFIX)) {
+                return jsonDecoder;
+            }
+        }
+        return isProtobufMessage(type) ? protobufDecoder : jsonDecoder;
+    }
+
+    private boolean isProtobufMessage(Type type) {
+        return protobufDecoder != null && ProtobufDecoder.isMessage(type);
+    }
+
+    private static String mediaType(Response response) {
+        Collection<String> contentTypes = response.headers().get(CONTENT_TYPE);
+        if (contentTypes == null || contentTypes.isEmpty()) {
+            return null;
+        }
+        String contentType = contentTypes.iterator().next();
+        int parametersIndex = contentType.indexOf(';');
+        if (parametersIndex >= 0) {
+            contentType = contentType.substring(0, parametersIndex);
+        }
+        return contentType.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static boolean isStreamed(Type type) {
+        Type rawType = type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type;
+        return Stream.class.equals(rawType)
+                || rawType instanceof Class && Iterator.class.isAssignableFrom((Class<?>) rawType)
+                || PUBLISHER_CLASS != null && PUBLISHER_CLASS.equals(rawType);
+    }
+
+    private static String withDecreasingQuality(List<String> mediaTypes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < mediaTypes.size(); i++) {
+            if (i > 0) {
+                sb.append(", ").append(mediaTypes.get(i)).append(";q=0.").append(10 - i);
+            } else {
+                sb.append(mediaTypes.get(i));
+            }
+        }
+        return sb.toString();
+    }
+}
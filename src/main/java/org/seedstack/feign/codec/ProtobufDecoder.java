@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.codec;
+
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+import org.seedstack.feign.internal.FeignErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decoder parsing response bodies as Protocol Buffers messages. The return type of methods must be a generated message
+ * class. It requires the {@code com.google.protobuf:protobuf-java} dependency.
+ */
+public class ProtobufDecoder implements Decoder {
+    /**
+     * The media type of Protocol Buffers messages.
+     */
+    public static final String MEDIA_TYPE = ProtobufEncoder.MEDIA_TYPE;
+    private final Map<Class<?>, Parser<?>> parsers = new ConcurrentHashMap<>();
+
+    public ProtobufDecoder() {
+        if (!ProtobufEncoder.PROTOBUF_PRESENT) {
+            throw SeedException.createNew(FeignErrorCode.PROTOBUF_NOT_PRESENT);
+        }
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (!isMessage(type)) {
+            throw new DecodeException(response.status(),
+                    String.format("%s is not a Protocol Buffers message", type),
+                    response.request());
+        }
+        if (response.body() == null) {
+            return null;
+        }
+        Parser<?> parser = parsers.computeIfAbsent((Class<?>) type, this::resolveParser);
+        try (InputStream inputStream = response.body().asInputStream()) {
+            return parser.parseFrom(inputStream);
+        }
+    }
+
+    static boolean isMessage(Type type) {
+        return type instanceof Class && MessageLite.class.isAssignableFrom((Class<?>) type);
+    }
+
+    private Parser<?> resolveParser(Class<?> messageClass) {
+        try {
+            // Every generated message class exposes its default instance, which gives access to the parser
+            return ((MessageLite) messageClass.getMethod("getDefaultInstance").invoke(null)).getParserForType();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot resolve the parser of Protocol Buffers message "
+                    + messageClass.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.codec;
+
+import com.google.protobuf.MessageLite;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+import org.seedstack.feign.internal.FeignErrorCode;
+import org.seedstack.seed.SeedException;
+import org.seedstack.shed.reflect.Classes;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+
+/**
+ * Encoder serializing Protocol Buffers messages as request bodies. It requires the
+ * {@code com.google.protobuf:protobuf-java} dependency.
+ */
+public class ProtobufEncoder implements Encoder {
+    /**
+     * The media type of Protocol Buffers messages.
+     */
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+    static final boolean PROTOBUF_PRESENT = Classes.optional("com.google.protobuf.MessageLite").isPresent();
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    public ProtobufEncoder() {
+        if (!PROTOBUF_PRESENT) {
+            throw SeedException.createNew(FeignErrorCode.PROTOBUF_NOT_PRESENT);
+        }
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) {
+        if (!(object instanceof MessageLite)) {
+            throw new EncodeException(String.format("%s is not a Protocol Buffers message", bodyType));
+        }
+        template.body(((MessageLite) object).toByteArray(), null);
+        template.header(CONTENT_TYPE, Collections.emptyList());
+        template.header(CONTENT_TYPE, MEDIA_TYPE);
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Decoder deserializing response bodies in the Smile binary format. It requires the
+ * {@code com.fasterxml.jackson.dataformat:jackson-dataformat-smile} dependency and shares the Jackson configuration
+ * of the JSON codecs.
+ */
+public class SmileDecoder extends BinaryJacksonDecoder {
+    /**
+     * The media type of the Smile format.
+     */
+    public static final String MEDIA_TYPE = SmileEncoder.MEDIA_TYPE;
+
+    @Inject
+    public SmileDecoder(@Named("feign-smile") ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+}
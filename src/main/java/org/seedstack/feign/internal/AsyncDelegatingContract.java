@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Contract;
+import feign.MethodMetadata;
+import feign.Util;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This contract delegates to another contract and replaces the {@link CompletableFuture} return type of asynchronous
+ * methods by the type of the future result, so the decoder is invoked with the actual type to decode.
+ */
+class AsyncDelegatingContract implements Contract {
+    private final Contract delegate;
+
+    AsyncDelegatingContract(Contract delegate) {
+        this.delegate = delegate;
+    }
+
+    static boolean isAsync(Method method) {
+        return CompletableFuture.class.equals(method.getReturnType());
+    }
+
+    static boolean hasAsyncMethods(Class<?> feignApi) {
+        for (Method method : feignApi.getMethods()) {
+            if (isAsync(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<MethodMetadata> parseAndValidateMetadata(Class<?> targetType) {
+        List<MethodMetadata> metadataList = delegate.parseAndValidateMetadata(targetType);
+        for (MethodMetadata metadata : metadataList) {
+            if (metadata.method() != null && isAsync(metadata.method())) {
+                metadata.returnType(Util.resolveLastTypeParameter(metadata.returnType(), CompletableFuture.class));
+            }
+        }
+        return metadataList;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.InvocationHandlerFactory;
+import feign.Target;
+import org.seedstack.feign.Deadline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Invocation handler factory that executes methods returning a {@link CompletableFuture} on an executor. The
+ * synchronous Feign method handler is still used underneath so encoding, decoding, error decoding, interceptors and
+ * retries behave exactly as for blocking methods. The number of in-flight asynchronous calls can be bounded, calls
+ * over the limit being rejected with a {@link RejectedExecutionException}.
+ */
+class AsyncInvocationHandlerFactory implements InvocationHandlerFactory {
+    private final InvocationHandlerFactory delegate;
+    private final Executor executor;
+    private final Semaphore inFlightPermits;
+
+    AsyncInvocationHandlerFactory(InvocationHandlerFactory delegate, Executor executor, int maxInFlight) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.inFlightPermits = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+    }
+
+    @Override
+    public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
+        Map<Method, MethodHandler> asyncDispatch = new LinkedHashMap<>(dispatch);
+        for (Map.Entry<Method, MethodHandler> entry : dispatch.entrySet()) {
+            // Collapsed methods complete their futures themselves when their batch is executed
+            if (AsyncDelegatingContract.isAsync(entry.getKey())
+                    && !(entry.getValue() instanceof CollapsingInvocationHandlerFactory.CollapsingMethodHandler)) {
+                asyncDispatch.put(entry.getKey(), new AsyncMethodHandler(entry.getValue()));
+            }
+        }
+        return delegate.create(target, asyncDispatch);
+    }
+
+    private class AsyncMethodHandler implements MethodHandler {
+        private final MethodHandler methodHandler;
+
+        private AsyncMethodHandler(MethodHandler methodHandler) {
+            this.methodHandler = methodHandler;
+        }
+
+        @Override
+        public Object invoke(Object[] argv) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            if (inFlightPermits != null && !inFlightPermits.tryAcquire()) {
+                future.completeExceptionally(
+                        new RejectedExecutionException("Maximum number of in-flight asynchronous calls reached"));
+                return future;
+            }
+            // The deadline of the caller also applies to its asynchronous calls
+            Deadline deadline = Deadline.current();
+            try {
+                executor.execute(() -> {
+                    Deadline.Scope scope = deadline != null ? deadline.attach() : null;
+                    try {
+                        future.complete(methodHandler.invoke(argv));
+                    } catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    } finally {
+                        if (scope != null) {
+                            scope.close();
+                        }
+                        releasePermit();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                releasePermit();
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        private void releasePermit() {
+            if (inFlightPermits != null) {
+                inFlightPermits.release();
+            }
+        }
+    }
+}
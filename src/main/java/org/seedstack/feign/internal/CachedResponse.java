@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Request;
+import feign.Response;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A response stored in the {@link ResponseCache}, with the request header values it was selected with and its
+ * freshness deadline.
+ */
+class CachedResponse {
+    private final String key;
+    private final int status;
+    private final String reason;
+    private final Map<String, Collection<String>> headers;
+    private final byte[] body;
+    private final Map<String, String> varyValues;
+    private final long freshUntil;
+
+    CachedResponse(String key, int status, String reason, Map<String, Collection<String>> headers, byte[] body,
+            Map<String, String> varyValues, long freshUntil) {
+        this.key = key;
+        this.status = status;
+        this.reason = reason;
+        this.headers = headers;
+        this.body = body;
+        this.varyValues = varyValues;
+        this.freshUntil = freshUntil;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    Map<String, Collection<String>> getHeaders() {
+        return headers;
+    }
+
+    Map<String, String> getVaryValues() {
+        return varyValues;
+    }
+
+    boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    /**
+     * @return true if the request selects this response, i.e. it has the same values for the headers the response
+     * varies on.
+     */
+    boolean matches(Request request) {
+        for (Map.Entry<String, String> varyValue : varyValues.entrySet()) {
+            if (!varyValue.getValue().equals(CachingClient.joinedHeaderValues(request.headers(), varyValue.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of this response updated with the headers of a '304 Not Modified' response.
+     */
+    CachedResponse revalidate(Map<String, Collection<String>> notModifiedHeaders, long responseTime) {
+        Map<String, Collection<String>> mergedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        mergedHeaders.putAll(headers);
+        for (Map.Entry<String, Collection<String>> header : notModifiedHeaders.entrySet()) {
+            if (!CachingClient.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+                mergedHeaders.put(header.getKey(), header.getValue());
+            }
+        }
+        return new CachedResponse(key, status, reason, mergedHeaders, body, varyValues,
+                CachingClient.freshUntil(mergedHeaders, responseTime));
+    }
+
+    Response toResponse(Request request) {
+        return Response.builder()
+                .status(status)
+                .reason(reason)
+                .headers(headers)
+                .body(body)
+                .request(request)
+                .build();
+    }
+
+    /**
+     * @return the approximate number of bytes held by this response.
+     */
+    long weight() {
+        long weight = body.length + key.length();
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            weight += header.getKey().length();
+            for (String value : header.getValue()) {
+                weight += value.length();
+            }
+        }
+        return weight;
+    }
+
+    void writeTo(DataOutput output) throws IOException {
+        output.writeUTF(key);
+        output.writeInt(status);
+        output.writeBoolean(reason != null);
+        if (reason != null) {
+            output.writeUTF(reason);
+        }
+        output.writeInt(headers.size());
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            output.writeUTF(header.getKey());
+            output.writeInt(header.getValue().size());
+            for (String value : header.getValue()) {
+                output.writeUTF(value);
+            }
+        }
+        output.writeInt(varyValues.size());
+        for (Map.Entry<String, String> varyValue : varyValues.entrySet()) {
+            output.writeUTF(varyValue.getKey());
+            output.writeUTF(varyValue.getValue());
+        }
+        output.writeLong(freshUntil);
+        output.writeInt(body.length);
+        output.write(body);
+    }
+
+    static CachedResponse readFrom(DataInput input) throws IOException {
+        String key = input.readUTF();
+        int status = input.readInt();
+        String reason = input.readBoolean() ? input.readUTF() : null;
+        int headerCount = input.readInt();
+        Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < headerCount; i++) {
+            String name = input.readUTF();
+            int valueCount = input.readInt();
+            List<String> values = new ArrayList<>(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                values.add(input.readUTF());
+            }
+            headers.put(name, values);
+        }
+        int varyCount = input.readInt();
+        Map<String, String> varyValues = new LinkedHashMap<>();
+        for (int i = 0; i < varyCount; i++) {
+            varyValues.put(input.readUTF(), input.readUTF());
+        }
+        long freshUntil = input.readLong();
+        byte[] body = new byte[input.readInt()];
+        input.readFully(body);
+        return new CachedResponse(key, status, reason, headers, body, varyValues, freshUntil);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client decorator caching GET responses according to HTTP caching semantics: fresh responses (from
+ * {@code Cache-Control: max-age} or {@code Expires}) are served without calling the server, stale responses are
+ * revalidated with {@code If-None-Match}/{@code If-Modified-Since} and served again on a '304 Not Modified'. Responses
+ * are selected by URL and by the values of the request headers listed in their {@code Vary} header.
+ */
+class CachingClient implements Client {
+    static final String CONTENT_LENGTH = "Content-Length";
+    private static final String AGE = "Age";
+    private static final String AUTHORIZATION = "Authorization";
+    private static final String CACHE_CONTROL = "Cache-Control";
+    private static final String DATE = "Date";
+    private static final String ETAG = "ETag";
+    private static final String EXPIRES = "Expires";
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String LAST_MODIFIED = "Last-Modified";
+    private static final String VARY = "Vary";
+    private static final String MAX_AGE = "max-age";
+    private static final String NO_CACHE = "no-cache";
+    private static final String NO_STORE = "no-store";
+    private final Client delegate;
+    private final ResponseCache responseCache;
+    private final long maxEntrySize;
+
+    CachingClient(Client delegate, ResponseCache responseCache, long maxEntrySize) {
+        this.delegate = delegate;
+        this.responseCache = responseCache;
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Map<String, String> requestCacheControl = cacheControl(request.headers());
+        if (request.httpMethod() != Request.HttpMethod.GET
+                || requestCacheControl.containsKey(NO_STORE)
+                || request.headers().containsKey(IF_NONE_MATCH)
+                || request.headers().containsKey(IF_MODIFIED_SINCE)) {
+            // Conditional requests made by the caller expect the raw server response
+            return delegate.execute(request, options);
+        }
+
+        String key = request.url();
+        CachedResponse cachedResponse = responseCache.get(key);
+        if (cachedResponse != null && !cachedResponse.matches(request)) {
+            cachedResponse = null;
+        }
+        if (cachedResponse != null
+                && cachedResponse.isFresh(System.currentTimeMillis())
+                && !requestCacheControl.containsKey(NO_CACHE)) {
+            return cachedResponse.toResponse(request);
+        }
+
+        Response response = delegate.execute(
+                cachedResponse != null ? conditionalRequest(request, cachedResponse) : request,
+                options
+        );
+        long responseTime = System.currentTimeMillis();
+        if (cachedResponse != null && response.status() == 304) {
+            Util.ensureClosed(response);
+            CachedResponse revalidatedResponse = cachedResponse.revalidate(response.headers(), responseTime);
+            responseCache.put(key, revalidatedResponse);
+            return revalidatedResponse.toResponse(request);
+        }
+        return store(key, request, response, responseTime);
+    }
+
+    private Response store(String key, Request request, Response response, long responseTime) throws IOException {
+        Map<String, String> cacheControl = cacheControl(response.headers());
+        String vary = joinedHeaderValues(response.headers(), VARY);
+        boolean hasValidator = response.headers().containsKey(ETAG) || response.headers().containsKey(LAST_MODIFIED);
+        long freshUntil = freshUntil(response.headers(), responseTime);
+        if (response.status() != 200
+                || response.body() == null
+                || cacheControl.containsKey(NO_STORE)
+                || vary.contains("*")
+                || freshUntil <= responseTime && !hasValidator) {
+            responseCache.remove(key);
+            return response;
+        }
+        Integer length = response.body().length();
+        if (length != null && length > maxEntrySize) {
+            responseCache.remove(key);
+            return response;
+        }
+
+        InputStream inputStream = response.body().asInputStream();
+        ByteArrayOutputStream bufferedBody = new ByteArrayOutputStream(length != null ? length : 8192);
+        byte[] buffer = new byte[8192];
+        int count;
+        try {
+            while ((count = inputStream.read(buffer)) != -1) {
+                bufferedBody.write(buffer, 0, count);
+                if (bufferedBody.size() > maxEntrySize) {
+                    // Too large to be cached: hand the already read bytes and the rest of the stream to the decoder
+                    responseCache.remove(key);
+                    return response.toBuilder()
+                            .body(new SequenceInputStream(new ByteArrayInputStream(bufferedBody.toByteArray()),
+                                    inputStream), length)
+                            .build();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The response never reaches Feign, which would otherwise close it
+            Util.ensureClosed(response);
+            throw e;
+        }
+        inputStream.close();
+
+        Map<String, String> varyValues = new LinkedHashMap<>();
+        for (String name : vary.split(",")) {
+            if (!name.trim().isEmpty()) {
+                varyValues.put(name.trim(), joinedHeaderValues(request.headers(), name.trim()));
+            }
+        }
+        // Responses to authorized requests must not be served to other users
+        varyValues.put(AUTHORIZATION, joinedHeaderValues(request.headers(), AUTHORIZATION));
+
+        Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(response.headers());
+        CachedResponse cachedResponse = new CachedResponse(key, response.status(), response.reason(), headers,
+                bufferedBody.toByteArray(), varyValues, freshUntil);
+        responseCache.put(key, cachedResponse);
+        return cachedResponse.toResponse(request);
+    }
+
+    private static Request conditionalRequest(Request request, CachedResponse cachedResponse) {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+        Collection<String> etag = cachedResponse.getHeaders().get(ETAG);
+        if (etag != null && !etag.isEmpty()) {
+            headers.put(IF_NONE_MATCH, etag);
+        }
+        Collection<String> lastModified = cachedResponse.getHeaders().get(LAST_MODIFIED);
+        if (lastModified != null && !lastModified.isEmpty()) {
+            headers.put(IF_MODIFIED_SINCE, lastModified);
+        }
+        return Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(),
+                request.requestTemplate());
+    }
+
+    /**
+     * Computes the time until which a response is fresh from its {@code Cache-Control}, {@code Expires},
+     * {@code Date} and {@code Age} headers.
+     */
+    static long freshUntil(Map<String, Collection<String>> headers, long responseTime) {
+        Map<String, String> cacheControl = cacheControl(headers);
+        if (cacheControl.containsKey(NO_CACHE)) {
+            // Can be stored but must be revalidated each time
+            return 0;
+        }
+        long age = TimeUnit.SECONDS.toMillis(parseLong(joinedHeaderValues(headers, AGE), 0));
+        String maxAge = cacheControl.get(MAX_AGE);
+        if (maxAge != null) {
+            return responseTime + TimeUnit.SECONDS.toMillis(parseLong(maxAge, 0)) - age;
+        }
+        String expires = joinedHeaderValues(headers, EXPIRES);
+        if (!expires.isEmpty()) {
+            long expiresTime = parseDate(expires);
+            long dateTime = parseDate(joinedHeaderValues(headers, DATE));
+            // Invalid dates such as "0" mean already expired
+            return expiresTime > 0 ? responseTime + expiresTime - (dateTime > 0 ? dateTime : responseTime) - age : 0;
+        }
+        return 0;
+    }
+
+    private static Map<String, String> cacheControl(Map<String, Collection<String>> headers) {
+        String value = joinedHeaderValues(headers, CACHE_CONTROL);
+        if (value.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> directives = new HashMap<>();
+        for (String directive : value.split(",")) {
+            int equalsIndex = directive.indexOf('=');
+            if (equalsIndex >= 0) {
+                directives.put(directive.substring(0, equalsIndex).trim().toLowerCase(Locale.ENGLISH),
+                        directive.substring(equalsIndex + 1).trim().replace("\"", ""));
+            } else if (!directive.trim().isEmpty()) {
+                directives.put(directive.trim().toLowerCase(Locale.ENGLISH), "");
+            }
+        }
+        return directives;
+    }
+
+    static String joinedHeaderValues(Map<String, Collection<String>> headers, String name) {
+        Collection<String> values = headers.get(name);
+        if (values == null) {
+            // Not all header maps are case insensitive
+            for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+                if (name.equalsIgnoreCase(header.getKey())) {
+                    values = header.getValue();
+                    break;
+                }
+            }
+        }
+        return values == null ? "" : String.join(",", values);
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static long parseDate(String value) {
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+}
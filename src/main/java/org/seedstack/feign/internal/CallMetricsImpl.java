@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.seedstack.feign.CallMetrics;
+import org.seedstack.feign.CallPhase;
+import org.seedstack.feign.LatencyDistribution;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+class CallMetricsImpl implements CallMetrics {
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder inFlightCount = new LongAdder();
+    private final RateMeter throughput = new RateMeter();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicReferenceArray<LatencyHistogram> phaseLatencies = new AtomicReferenceArray<>(
+            CallPhase.values().length);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder fallbackCount = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    void recordCallStart() {
+        inFlightCount.increment();
+    }
+
+    void recordCallEnd(long nanos, boolean error) {
+        inFlightCount.decrement();
+        callCount.increment();
+        if (error) {
+            errorCount.increment();
+        }
+        throughput.mark();
+        latency.record(nanos);
+    }
+
+    void recordPhase(CallPhase phase, long nanos) {
+        LatencyHistogram histogram = phaseLatencies.get(phase.ordinal());
+        if (histogram == null) {
+            // Histograms are only allocated for the phases that actually occur
+            phaseLatencies.compareAndSet(phase.ordinal(), null, new LatencyHistogram());
+            histogram = phaseLatencies.get(phase.ordinal());
+        }
+        histogram.record(nanos);
+    }
+
+    void recordStatus(int status) {
+        statusCounts.computeIfAbsent(status, k -> new LongAdder()).increment();
+    }
+
+    void recordRetry() {
+        retryCount.increment();
+    }
+
+    void recordFallback() {
+        fallbackCount.increment();
+    }
+
+    void recordBytesSent(long bytes) {
+        bytesSent.add(bytes);
+    }
+
+    void recordBytesReceived(long bytes) {
+        bytesReceived.add(bytes);
+    }
+
+    @Override
+    public long getCallCount() {
+        return callCount.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public double getThroughput() {
+        return throughput.getRate();
+    }
+
+    @Override
+    public long getInFlightCount() {
+        return inFlightCount.sum();
+    }
+
+    @Override
+    public LatencyDistribution getLatency() {
+        return latency;
+    }
+
+    @Override
+    public LatencyDistribution getPhaseLatency(CallPhase phase) {
+        LatencyHistogram histogram = phaseLatencies.get(phase.ordinal());
+        return histogram != null ? histogram : LatencyHistogram.EMPTY;
+    }
+
+    @Override
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> snapshot = new TreeMap<>();
+        statusCounts.forEach((status, count) -> snapshot.put(status, count.sum()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    @Override
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    @Override
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+}
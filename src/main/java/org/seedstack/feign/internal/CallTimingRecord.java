@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Request;
+import feign.RequestTemplate;
+import org.seedstack.feign.CallPhase;
+import org.seedstack.feign.CallTiming;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase timing of an HTTP exchange. As Feign encodes, intercepts, executes and decodes an exchange on a single
+ * thread, the record in progress is held by a thread-local and identified by its request template. Body reads of
+ * streamed responses can happen on other threads, hence the synchronization.
+ */
+class CallTimingRecord implements CallTiming {
+    private static final ThreadLocal<CallTimingRecord> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> UNTIMED = new ThreadLocal<>();
+    private static final CallPhase[] PHASES = CallPhase.values();
+    private final PhaseTimer phaseTimer;
+    private RequestTemplate requestTemplate;
+    private final long startTime = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final long[] durations = new long[PHASES.length];
+    private final boolean[] occurred = new boolean[PHASES.length];
+    private long endNanos;
+    private String httpMethod;
+    private String url;
+    private int status = -1;
+    private boolean failed;
+    private boolean completed;
+
+    private CallTimingRecord(PhaseTimer phaseTimer, RequestTemplate requestTemplate) {
+        this.phaseTimer = phaseTimer;
+        this.requestTemplate = requestTemplate;
+    }
+
+    /**
+     * Starts a new record on the current thread for encoding a request body. Feign resolves the encoded template into
+     * a new one, so the record is bound to a template by the next phase.
+     */
+    static CallTimingRecord forEncoding(PhaseTimer phaseTimer) {
+        CallTimingRecord record = new CallTimingRecord(phaseTimer, null);
+        CURRENT.set(record);
+        return record;
+    }
+
+    /**
+     * Returns the record in progress for the specified request template on the current thread, starting a new one if
+     * there is none (a retried exchange starts a new record).
+     */
+    static CallTimingRecord of(RequestTemplate requestTemplate, PhaseTimer phaseTimer) {
+        CallTimingRecord record = CURRENT.get();
+        if (record != null && !record.isCompleted() && record.bind(requestTemplate)) {
+            return record;
+        }
+        record = new CallTimingRecord(phaseTimer, requestTemplate);
+        CURRENT.set(record);
+        return record;
+    }
+
+    /**
+     * Returns the record in progress on the current thread for the specified request template or null if there is
+     * none.
+     */
+    static CallTimingRecord current(RequestTemplate requestTemplate) {
+        CallTimingRecord record = CURRENT.get();
+        if (record == null || record.getRequestTemplate() != requestTemplate || record.isCompleted()) {
+            return null;
+        }
+        return record;
+    }
+
+    /**
+     * Returns the record in progress on the current thread or null if there is none.
+     */
+    static CallTimingRecord current() {
+        CallTimingRecord record = CURRENT.get();
+        return record == null || record.isCompleted() ? null : record;
+    }
+
+    /**
+     * Runs the specified task without timing the exchanges it executes. Threads executing exchanges on behalf of
+     * another thread never decode them, so their records would never complete.
+     */
+    static void untimed(Runnable task) {
+        UNTIMED.set(Boolean.TRUE);
+        try {
+            task.run();
+        } finally {
+            UNTIMED.remove();
+        }
+    }
+
+    /**
+     * @return false if the current thread executes exchanges on behalf of another thread.
+     */
+    static boolean isTimed() {
+        return UNTIMED.get() == null;
+    }
+
+    private synchronized boolean bind(RequestTemplate requestTemplate) {
+        if (this.requestTemplate == null) {
+            this.requestTemplate = requestTemplate;
+        }
+        return this.requestTemplate == requestTemplate;
+    }
+
+    synchronized void add(CallPhase phase, long nanos) {
+        if (!completed) {
+            durations[phase.ordinal()] += Math.max(0, nanos);
+            occurred[phase.ordinal()] = true;
+        }
+    }
+
+    synchronized long get(CallPhase phase) {
+        return durations[phase.ordinal()];
+    }
+
+    synchronized long getConnectionNanos() {
+        return durations[CallPhase.DNS.ordinal()]
+                + durations[CallPhase.CONNECT.ordinal()]
+                + durations[CallPhase.TLS.ordinal()];
+    }
+
+    synchronized void setRequest(Request request) {
+        httpMethod = request.httpMethod().name();
+        url = request.url();
+    }
+
+    synchronized void setStatus(int status) {
+        this.status = status;
+    }
+
+    void complete(boolean failed) {
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            this.completed = true;
+            this.failed = failed;
+            this.endNanos = System.nanoTime();
+        }
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        phaseTimer.complete(this);
+    }
+
+    synchronized boolean isCompleted() {
+        return completed;
+    }
+
+    synchronized boolean hasOccurred(CallPhase phase) {
+        return occurred[phase.ordinal()];
+    }
+
+    synchronized RequestTemplate getRequestTemplate() {
+        return requestTemplate;
+    }
+
+    @Override
+    public Class<?> getEndpoint() {
+        return phaseTimer.getFeignApi();
+    }
+
+    @Override
+    public synchronized String getMethod() {
+        if (requestTemplate == null || requestTemplate.methodMetadata() == null) {
+            return null;
+        }
+        return requestTemplate.methodMetadata().configKey();
+    }
+
+    @Override
+    public synchronized String getHttpMethod() {
+        return httpMethod != null || requestTemplate == null ? httpMethod : requestTemplate.method();
+    }
+
+    @Override
+    public synchronized String getUrl() {
+        return url != null || requestTemplate == null ? url : requestTemplate.url();
+    }
+
+    @Override
+    public synchronized int getStatus() {
+        return status;
+    }
+
+    @Override
+    public synchronized boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public long getStartTime() {
+        return startTime;
+    }
+
+    @Override
+    public long getDuration(CallPhase phase, TimeUnit timeUnit) {
+        return timeUnit.convert(get(phase), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized long getTotalDuration(TimeUnit timeUnit) {
+        return timeUnit.convert((completed ? endNanos : System.nanoTime()) - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder()
+                .append("endpoint=").append(getEndpoint().getName())
+                .append(" method=").append(getMethod())
+                .append(" request=\"").append(getHttpMethod()).append(' ').append(getUrl()).append('"')
+                .append(" status=").append(getStatus())
+                .append(" failed=").append(isFailed())
+                .append(" totalUs=").append(getTotalDuration(TimeUnit.MICROSECONDS));
+        for (CallPhase phase : PHASES) {
+            if (hasOccurred(phase)) {
+                sb.append(' ').append(toCamelCase(phase.name())).append("Us=")
+                        .append(getDuration(phase, TimeUnit.MICROSECONDS));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String toCamelCase(String name) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : name.toLowerCase().split("_")) {
+            sb.append(sb.length() == 0 ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.seedstack.feign.FeignConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free circuit breaker over a count-based sliding window of call outcomes. It opens when the failure rate or
+ * the slow call rate of the window reaches its threshold, rejects calls until the open wait duration has elapsed and
+ * then lets a limited number of trial calls through, whose outcomes decide to close or to open it again.
+ */
+class CircuitBreaker {
+    private final int slidingWindowSize;
+    private final int minimumNumberOfCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long waitDurationNanos;
+    private final int permittedCallsInHalfOpenState;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<State> state;
+
+    enum Status {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    CircuitBreaker(FeignConfig.CircuitBreakerConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    CircuitBreaker(FeignConfig.CircuitBreakerConfig config, LongSupplier nanoClock) {
+        this.slidingWindowSize = config.getSlidingWindowSize();
+        this.minimumNumberOfCalls = Math.min(config.getMinimumNumberOfCalls(), slidingWindowSize);
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationThreshold());
+        this.waitDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getWaitDurationInOpenState());
+        this.permittedCallsInHalfOpenState = config.getPermittedCallsInHalfOpenState();
+        this.nanoClock = nanoClock;
+        this.state = new AtomicReference<>(closed());
+    }
+
+    Status getStatus() {
+        return state.get().status;
+    }
+
+    /**
+     * Acquires the permission to execute a call. Every permitted call must be followed by a call to
+     * {@link #onResult(long, boolean)} or, if it was not executed, to {@link #releasePermission()}.
+     *
+     * @return true if the call is permitted, false if the circuit is open.
+     */
+    boolean tryAcquirePermission() {
+        while (true) {
+            State current = state.get();
+            switch (current.status) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (nanoClock.getAsLong() - current.openedAt < waitDurationNanos) {
+                        return false;
+                    }
+                    // Only one thread wins the transition, the others retry with the new state
+                    state.compareAndSet(current, halfOpen());
+                    break;
+                case HALF_OPEN:
+                    if (current.permits.getAndDecrement() > 0) {
+                        return true;
+                    }
+                    // Rejected calls give their decrement back so that released permits are not lost
+                    current.permits.incrementAndGet();
+                    return false;
+                default:
+                    throw new IllegalStateException("Unsupported circuit breaker status " + current.status);
+            }
+        }
+    }
+
+    void releasePermission() {
+        State current = state.get();
+        if (current.status == Status.HALF_OPEN) {
+            current.permits.incrementAndGet();
+        }
+    }
+
+    void onResult(long durationNanos, boolean failure) {
+        State current = state.get();
+        if (current.status == Status.OPEN) {
+            // Calls permitted before the circuit opened are ignored
+            return;
+        }
+        Outcomes outcomes = current.window.record(failure, durationNanos >= slowCallDurationNanos);
+        if (current.status == Status.CLOSED) {
+            if (outcomes.calls >= minimumNumberOfCalls && isAboveThresholds(outcomes)) {
+                state.compareAndSet(current, open());
+            }
+        } else if (outcomes.calls >= permittedCallsInHalfOpenState) {
+            state.compareAndSet(current, isAboveThresholds(outcomes) ? open() : closed());
+        }
+    }
+
+    private boolean isAboveThresholds(Outcomes outcomes) {
+        return outcomes.failures * 100L >= (long) failureRateThreshold * outcomes.calls
+                || outcomes.slowCalls * 100L >= (long) slowCallRateThreshold * outcomes.calls;
+    }
+
+    private State closed() {
+        return new State(Status.CLOSED, new SlidingWindow(slidingWindowSize), 0, 0);
+    }
+
+    private State open() {
+        return new State(Status.OPEN, null, nanoClock.getAsLong(), 0);
+    }
+
+    private State halfOpen() {
+        return new State(Status.HALF_OPEN, new SlidingWindow(permittedCallsInHalfOpenState), 0,
+                permittedCallsInHalfOpenState);
+    }
+
+    private static class State {
+        private final Status status;
+        private final SlidingWindow window;
+        private final long openedAt;
+        private final AtomicInteger permits;
+
+        private State(Status status, SlidingWindow window, long openedAt, int permits) {
+            this.status = status;
+            this.window = window;
+            this.openedAt = openedAt;
+            this.permits = new AtomicInteger(permits);
+        }
+    }
+
+    private static class Outcomes {
+        private final int calls;
+        private final int failures;
+        private final int slowCalls;
+
+        private Outcomes(int calls, int failures, int slowCalls) {
+            this.calls = calls;
+            this.failures = failures;
+            this.slowCalls = slowCalls;
+        }
+    }
+
+    /**
+     * Ring of the last call outcomes with running totals. Each slot is swapped atomically and the totals are adjusted
+     * with the difference between the new and the evicted outcome, so no lock is needed.
+     */
+    private static class SlidingWindow {
+        private static final int RECORDED = 1;
+        private static final int FAILURE = 2;
+        private static final int SLOW = 4;
+        private final AtomicIntegerArray slots;
+        private final AtomicLong index = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger slowCalls = new AtomicInteger();
+
+        private SlidingWindow(int size) {
+            this.slots = new AtomicIntegerArray(size);
+        }
+
+        private Outcomes record(boolean failure, boolean slow) {
+            int outcome = RECORDED | (failure ? FAILURE : 0) | (slow ? SLOW : 0);
+            int evicted = slots.getAndSet((int) (index.getAndIncrement() % slots.length()), outcome);
+            return new Outcomes(
+                    calls.addAndGet(1 - (evicted & RECORDED)),
+                    failures.addAndGet(flag(outcome, FAILURE) - flag(evicted, FAILURE)),
+                    slowCalls.addAndGet(flag(outcome, SLOW) - flag(evicted, SLOW))
+            );
+        }
+
+        private static int flag(int outcome, int flag) {
+            return (outcome & flag) != 0 ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.seedstack.feign.Deadline;
+import org.seedstack.feign.FeignConfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Client decorator letting identical concurrent GET requests share a single HTTP call: the first request executes
+ * the call and buffers the response, the others wait for it and receive their own copy, which is decoded separately
+ * so callers never share mutable results. Streamed responses are never coalesced and the requests waiting for a
+ * response larger than the configured maximum execute their own call, so that bodies are only buffered up to it.
+ * Waiting requests are bounded by their own read timeout and deadline, not by those of the request executing the call.
+ */
+class CoalescingClient implements Client {
+    private static final String AUTHORIZATION = "Authorization";
+    private final ConcurrentMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Client delegate;
+    private final FeignConfig.CoalescingConfig coalescingConfig;
+    private final EndpointMetricsImpl endpointMetrics;
+    private final List<String> keyHeaders;
+
+    CoalescingClient(Client delegate, FeignConfig.CoalescingConfig coalescingConfig,
+            EndpointMetricsImpl endpointMetrics) {
+        this.delegate = delegate;
+        this.coalescingConfig = coalescingConfig;
+        this.endpointMetrics = endpointMetrics;
+        this.keyHeaders = new ArrayList<>(coalescingConfig.getHeaders());
+        this.keyHeaders.add(AUTHORIZATION);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!isCoalesced(request)) {
+            return delegate.execute(request, options);
+        }
+
+        String key = key(request);
+        CompletableFuture<CachedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> existingFlight = inFlight.putIfAbsent(key, flight);
+        if (existingFlight != null) {
+            CachedResponse sharedResponse = awaitResponse(existingFlight, options);
+            if (sharedResponse == null) {
+                // Too large to be shared
+                return delegate.execute(request, options);
+            }
+            endpointMetrics.recordCoalescedRequest();
+            return sharedResponse.toResponse(request);
+        }
+
+        try {
+            return share(key, request, delegate.execute(request, options), flight);
+        } catch (IOException | RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private boolean isCoalesced(Request request) {
+        if (request.httpMethod() != Request.HttpMethod.GET) {
+            return false;
+        }
+        MethodMetadata methodMetadata = request.requestTemplate() != null
+                ? request.requestTemplate().methodMetadata()
+                : null;
+        if (methodMetadata != null && StreamingDecoder.isStreaming(methodMetadata.returnType())) {
+            // Streamed responses are consumed as they arrive and cannot be buffered
+            return false;
+        }
+        if (coalescingConfig.getMethods().isEmpty()) {
+            return true;
+        }
+        return methodMetadata != null && coalescingConfig.getMethods().contains(methodMetadata.method().getName());
+    }
+
+    private String key(Request request) {
+        StringBuilder sb = new StringBuilder(request.httpMethod().name()).append(' ').append(request.url());
+        for (String header : keyHeaders) {
+            sb.append('\n').append(header).append(':').append(CachingClient.joinedHeaderValues(request.headers(),
+                    header));
+        }
+        return sb.toString();
+    }
+
+    private Response share(String key, Request request, Response response,
+            CompletableFuture<CachedResponse> flight) throws IOException {
+        try {
+            Integer length = response.body() != null ? response.body().length() : null;
+            if (length != null && length > coalescingConfig.getMaxResponseSize()) {
+                flight.complete(null);
+                return response;
+            }
+            ByteArrayOutputStream bufferedBody = new ByteArrayOutputStream(length != null ? length : 8192);
+            if (response.body() != null) {
+                InputStream inputStream = response.body().asInputStream();
+                byte[] buffer = new byte[8192];
+                int count;
+                while ((count = inputStream.read(buffer)) != -1) {
+                    bufferedBody.write(buffer, 0, count);
+                    if (bufferedBody.size() > coalescingConfig.getMaxResponseSize()) {
+                        // Too large to be shared: hand the already read bytes and the rest of the stream to the caller
+                        flight.complete(null);
+                        return response.toBuilder()
+                                .body(new SequenceInputStream(new ByteArrayInputStream(bufferedBody.toByteArray()),
+                                        inputStream), length)
+                                .build();
+                    }
+                }
+            }
+            Util.ensureClosed(response);
+
+            Map<String, Collection<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(response.headers());
+            CachedResponse sharedResponse = new CachedResponse(key, response.status(), response.reason(), headers,
+                    bufferedBody.toByteArray(), Collections.emptyMap(), 0);
+            flight.complete(sharedResponse);
+            return sharedResponse.toResponse(request);
+        } catch (IOException | RuntimeException | Error e) {
+            Util.ensureClosed(response);
+            throw e;
+        }
+    }
+
+    private static CachedResponse awaitResponse(CompletableFuture<CachedResponse> flight, Request.Options options)
+            throws IOException {
+        long timeout = options.readTimeoutMillis() > 0 ? options.readTimeoutMillis() : Long.MAX_VALUE;
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            timeout = Math.min(timeout, deadline.remaining(TimeUnit.MILLISECONDS));
+        }
+        try {
+            return timeout == Long.MAX_VALUE ? flight.get() : flight.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new SocketTimeoutException("Timed out after " + timeout + " ms waiting for a coalesced request");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a coalesced request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                // Each caller gets its own exception, with its own stack trace
+                throw new IOException(cause.getMessage(), cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IOException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import feign.InvocationHandlerFactory;
+import feign.Target;
+import org.seedstack.feign.Collapsed;
+import org.seedstack.feign.Deadline;
+import org.seedstack.seed.SeedException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invocation handler factory merging the calls of methods annotated with {@link Collapsed} into calls of their bulk
+ * method. Batches are shared by all the clients of an endpoint, bulk calls being made on an executor when the window
+ * of a batch elapses or when it is full. The earliest {@link Deadline} of the callers of a batch applies to its bulk
+ * call, so that it never outlives the caller that waits the least.
+ */
+class CollapsingInvocationHandlerFactory implements InvocationHandlerFactory {
+    private final Map<Method, CollapsingMethodHandler> collapsingMethodHandlers = new ConcurrentHashMap<>();
+    private final InvocationHandlerFactory delegate;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+
+    CollapsingInvocationHandlerFactory(InvocationHandlerFactory delegate, Executor executor, Class<?> feignApi) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("feign-collapser-" + feignApi.getSimpleName() + "-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    static boolean hasCollapsedMethods(Class<?> feignApi) {
+        return Arrays.stream(feignApi.getMethods()).anyMatch(m -> m.isAnnotationPresent(Collapsed.class));
+    }
+
+    @Override
+    public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
+        Map<Method, MethodHandler> collapsingDispatch = new LinkedHashMap<>(dispatch);
+        for (Map.Entry<Method, MethodHandler> entry : dispatch.entrySet()) {
+            Collapsed collapsed = entry.getKey().getAnnotation(Collapsed.class);
+            if (collapsed != null) {
+                collapsingDispatch.put(entry.getKey(), collapsingMethodHandlers.computeIfAbsent(entry.getKey(),
+                        method -> createCollapsingMethodHandler(target.type(), method, collapsed, dispatch)));
+            }
+        }
+        return delegate.create(target, collapsingDispatch);
+    }
+
+    void close() {
+        scheduler.shutdownNow();
+    }
+
+    private CollapsingMethodHandler createCollapsingMethodHandler(Class<?> feignApi, Method method,
+            Collapsed collapsed, Map<Method, MethodHandler> dispatch) {
+        Method bulkMethod = Arrays.stream(feignApi.getMethods())
+                .filter(m -> m.getName().equals(collapsed.bulkMethod()) && m.getParameterCount() == 1)
+                .findFirst()
+                .orElseThrow(() -> SeedException.createNew(FeignErrorCode.BULK_METHOD_NOT_FOUND)
+                        .put("method", method.toGenericString())
+                        .put("bulkMethod", collapsed.bulkMethod()));
+        Class<?> keysType = bulkMethod.getParameterTypes()[0];
+        Class<?> resultsType = AsyncDelegatingContract.isAsync(bulkMethod)
+                ? null
+                : bulkMethod.getReturnType();
+        if (method.getParameterCount() != 1
+                || !(keysType.isAssignableFrom(List.class) || keysType.isAssignableFrom(Set.class))
+                || resultsType != null && !Map.class.isAssignableFrom(resultsType)
+                && !List.class.isAssignableFrom(resultsType)
+                || collapsed.window() < 0
+                || collapsed.maxBatchSize() < 1) {
+            throw SeedException.createNew(FeignErrorCode.INVALID_COLLAPSED_METHOD)
+                    .put("method", method.toGenericString())
+                    .put("bulkMethod", bulkMethod.toGenericString());
+        }
+        return new CollapsingMethodHandler(
+                dispatch.get(method),
+                dispatch.get(bulkMethod),
+                !keysType.isAssignableFrom(List.class),
+                AsyncDelegatingContract.isAsync(method),
+                collapsed
+        );
+    }
+
+    class CollapsingMethodHandler implements MethodHandler {
+        private final Object lock = new Object();
+        private final MethodHandler singleHandler;
+        private final MethodHandler bulkHandler;
+        private final boolean keysAsSet;
+        private final boolean async;
+        private final long window;
+        private final int maxBatchSize;
+        private Batch currentBatch;
+
+        private CollapsingMethodHandler(MethodHandler singleHandler, MethodHandler bulkHandler, boolean keysAsSet,
+                boolean async, Collapsed collapsed) {
+            this.singleHandler = singleHandler;
+            this.bulkHandler = bulkHandler;
+            this.keysAsSet = keysAsSet;
+            this.async = async;
+            this.window = collapsed.window();
+            this.maxBatchSize = collapsed.maxBatchSize();
+        }
+
+        @Override
+        public Object invoke(Object[] argv) throws Throwable {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            Batch fullBatch = null;
+            synchronized (lock) {
+                if (currentBatch == null) {
+                    Batch batch = currentBatch = new Batch();
+                    scheduler.schedule(() -> flush(batch), window, TimeUnit.MILLISECONDS);
+                }
+                currentBatch.add(argv[0], future, Deadline.current());
+                if (currentBatch.size() >= maxBatchSize) {
+                    fullBatch = currentBatch;
+                    currentBatch = null;
+                }
+            }
+            if (fullBatch != null) {
+                execute(fullBatch);
+            }
+            return async ? future : await(future);
+        }
+
+        private void flush(Batch batch) {
+            synchronized (lock) {
+                if (currentBatch != batch) {
+                    // Already flushed because it was full
+                    return;
+                }
+                currentBatch = null;
+            }
+            execute(batch);
+        }
+
+        private void execute(Batch batch) {
+            try {
+                executor.execute(batch::execute);
+            } catch (RejectedExecutionException e) {
+                batch.fail(e);
+            }
+        }
+
+        private Object await(CompletableFuture<Object> future) throws Throwable {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+
+        private class Batch {
+            private final List<Object> keys = new ArrayList<>();
+            private final List<CompletableFuture<Object>> futures = new ArrayList<>();
+            private Deadline deadline;
+
+            private void add(Object key, CompletableFuture<Object> future, Deadline callerDeadline) {
+                keys.add(key);
+                futures.add(future);
+                if (callerDeadline != null) {
+                    deadline = callerDeadline.earliest(deadline);
+                }
+            }
+
+            private int size() {
+                return keys.size();
+            }
+
+            private void execute() {
+                Deadline.Scope scope = deadline != null ? deadline.attach() : null;
+                try {
+                    List<Object> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+                    if (distinctKeys.size() == 1) {
+                        Object result = singleHandler.invoke(new Object[]{distinctKeys.get(0)});
+                        futures.forEach(future -> future.complete(result));
+                    } else {
+                        Object results = bulkHandler.invoke(new Object[]{
+                                keysAsSet ? new LinkedHashSet<>(distinctKeys) : distinctKeys
+                        });
+                        complete(distinctKeys, results);
+                    }
+                } catch (Throwable t) {
+                    fail(t);
+                } finally {
+                    if (scope != null) {
+                        scope.close();
+                    }
+                }
+            }
+
+            private void complete(List<Object> distinctKeys, Object results) {
+                if (results instanceof Map) {
+                    Map<?, ?> resultsByKey = (Map<?, ?>) results;
+                    for (int i = 0; i < keys.size(); i++) {
+                        futures.get(i).complete(resultsByKey.get(keys.get(i)));
+                    }
+                } else if (results instanceof List && ((List<?>) results).size() == distinctKeys.size()) {
+                    Map<Object, Object> resultsByKey = new HashMap<>();
+                    for (int i = 0; i < distinctKeys.size(); i++) {
+                        resultsByKey.put(distinctKeys.get(i), ((List<?>) results).get(i));
+                    }
+                    for (int i = 0; i < keys.size(); i++) {
+                        futures.get(i).complete(resultsByKey.get(keys.get(i)));
+                    }
+                } else {
+                    fail(new IllegalStateException("Bulk call returned "
+                            + (results instanceof Collection ? ((Collection<?>) results).size() + " results" : results)
+                            + " for " + distinctKeys.size() + " keys"));
+                }
+            }
+
+            private void fail(Throwable t) {
+                futures.forEach(future -> future.completeExceptionally(t));
+            }
+        }
+    }
+}
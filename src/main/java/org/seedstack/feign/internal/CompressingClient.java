@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.brotli.dec.BrotliInputStream;
+import org.seedstack.feign.FeignConfig;
+import org.seedstack.seed.SeedException;
+import org.seedstack.shed.reflect.Classes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Client decorator negotiating compressed responses, which are decompressed while being read by the decoder, and
+ * compressing request bodies above a size threshold.
+ */
+class CompressingClient implements Client {
+    private static final boolean BROTLI_PRESENT = Classes.optional("org.brotli.dec.BrotliInputStream").isPresent();
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private final Client delegate;
+    private final FeignConfig.CompressionConfig compressionConfig;
+    private final EndpointMetricsImpl endpointMetrics;
+    private final String acceptedEncodings;
+    private final boolean defaultEngine;
+
+    CompressingClient(Client delegate, FeignConfig.CompressionConfig compressionConfig,
+            EndpointMetricsImpl endpointMetrics, Class<?> feignApi, boolean defaultEngine) {
+        if (compressionConfig.getEncodings().contains(FeignConfig.ContentEncoding.BROTLI) && !BROTLI_PRESENT) {
+            throw SeedException.createNew(FeignErrorCode.BROTLI_NOT_PRESENT)
+                    .put("endpoint", feignApi.getName());
+        }
+        if (compressionConfig.isCompressRequests()
+                && compressionConfig.getRequestEncoding() == FeignConfig.ContentEncoding.BROTLI) {
+            throw SeedException.createNew(FeignErrorCode.UNSUPPORTED_REQUEST_ENCODING)
+                    .put("endpoint", feignApi.getName())
+                    .put("encoding", compressionConfig.getRequestEncoding());
+        }
+        this.delegate = delegate;
+        this.compressionConfig = compressionConfig;
+        this.endpointMetrics = endpointMetrics;
+        this.acceptedEncodings = compressionConfig.getEncodings().stream()
+                .map(FeignConfig.ContentEncoding::getToken)
+                .collect(Collectors.joining(", "));
+        this.defaultEngine = defaultEngine;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Response response = delegate.execute(compressRequest(request), options);
+        return decompressResponse(response);
+    }
+
+    private Request compressRequest(Request request) throws IOException {
+        byte[] body = request.body();
+        boolean compressBody = compressionConfig.isCompressRequests()
+                && body != null
+                && body.length >= compressionConfig.getRequestThreshold()
+                && !hasHeader(request.headers(), CONTENT_ENCODING);
+        boolean addAcceptEncoding = !acceptedEncodings.isEmpty() && !hasHeader(request.headers(), ACCEPT_ENCODING);
+        if (!compressBody && !addAcceptEncoding) {
+            return request;
+        }
+
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+            if (!(compressBody && CONTENT_LENGTH.equalsIgnoreCase(header.getKey()))) {
+                headers.put(header.getKey(), header.getValue());
+            }
+        }
+        if (addAcceptEncoding) {
+            headers.put(ACCEPT_ENCODING, Collections.singletonList(acceptedEncodings));
+        }
+        if (compressBody) {
+            FeignConfig.ContentEncoding encoding = compressionConfig.getRequestEncoding();
+            // Feign's default engine is the only one compressing bodies itself, as soon as it finds a 'Content-Encoding'
+            // header with a gzip or deflate value: the other engines send the body as is, and their underlying
+            // clients (Apache HttpClient with content compression disabled, the JDK client) leave request bodies
+            // alone. The encoding is therefore handed to the default engine under another header (see DefaultClient)
+            headers.put(defaultEngine ? DefaultClient.COMPRESSED_BODY_ENCODING : CONTENT_ENCODING,
+                    Collections.singletonList(encoding.getToken()));
+            byte[] compressedBody = compress(body, encoding);
+            endpointMetrics.recordRequestCompression(body.length, compressedBody.length);
+            body = compressedBody;
+            headers.put(CONTENT_LENGTH, Collections.singletonList(String.valueOf(body.length)));
+        }
+        return Request.create(request.httpMethod(), request.url(), headers, body, request.charset(),
+                request.requestTemplate());
+    }
+
+    private Response decompressResponse(Response response) throws IOException {
+        String encoding = firstHeaderValue(response.headers(), CONTENT_ENCODING);
+        if (encoding == null || acceptedEncodings.isEmpty() || !hasBody(response)) {
+            return response;
+        }
+        encoding = encoding.trim().toLowerCase(Locale.ENGLISH);
+        boolean gzip = FeignConfig.ContentEncoding.GZIP.getToken().equals(encoding);
+        boolean deflate = FeignConfig.ContentEncoding.DEFLATE.getToken().equals(encoding);
+        boolean brotli = FeignConfig.ContentEncoding.BROTLI.getToken().equals(encoding) && BROTLI_PRESENT;
+        if (!gzip && !deflate && !brotli) {
+            // Identity or unknown encoding: the body is left untouched
+            return response;
+        }
+        InputStream decompressedStream;
+        try {
+            InputStream compressedStream = new CountingInputStream(response.body().asInputStream(),
+                    endpointMetrics.getResponseCompressedBytes()::add);
+            if (gzip) {
+                // Reads the gzip header, which fails on truncated or empty bodies
+                decompressedStream = new GZIPInputStream(compressedStream);
+            } else if (deflate) {
+                decompressedStream = new InflaterInputStream(compressedStream);
+            } else {
+                decompressedStream = Brotli.decompress(compressedStream);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The response never reaches Feign, which would otherwise close it
+            Util.ensureClosed(response);
+            throw e;
+        }
+
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, Collection<String>> header : response.headers().entrySet()) {
+            if (!CONTENT_ENCODING.equalsIgnoreCase(header.getKey())
+                    && !CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+                headers.put(header.getKey(), header.getValue());
+            }
+        }
+        return response.toBuilder()
+                .headers(headers)
+                .body(new CountingInputStream(decompressedStream, endpointMetrics.getResponseUncompressedBytes()::add),
+                        null)
+                .build();
+    }
+
+    private static byte[] compress(byte[] body, FeignConfig.ContentEncoding encoding) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(body.length / 2 + 16);
+        try (OutputStream outputStream = encoding == FeignConfig.ContentEncoding.GZIP
+                ? new GZIPOutputStream(byteArrayOutputStream)
+                : new DeflaterOutputStream(byteArrayOutputStream)) {
+            outputStream.write(body);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static boolean hasBody(Response response) {
+        return response.body() != null
+                && !Integer.valueOf(0).equals(response.body().length())
+                && response.status() != 204
+                && response.status() != 304
+                && response.request().httpMethod() != Request.HttpMethod.HEAD;
+    }
+
+    private static boolean hasHeader(Map<String, Collection<String>> headers, String name) {
+        return firstHeaderValue(headers, name) != null;
+    }
+
+    private static String firstHeaderValue(Map<String, Collection<String>> headers, String name) {
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty()) {
+                return header.getValue().iterator().next();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Isolates the optional Brotli decoder so it is only loaded when a Brotli response is received.
+     */
+    private static class Brotli {
+        static InputStream decompress(InputStream inputStream) throws IOException {
+            return new BrotliInputStream(inputStream);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.seedstack.feign.FeignConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Adaptive limit of the concurrent calls of an endpoint. Permits are taken without locking, while the limit is
+ * re-estimated after each call from its latency with the configured {@link FeignConfig.LimitAlgorithm}. Estimates are
+ * doubles updated by compare-and-set on their bits, so releases never lock either.
+ */
+class ConcurrencyLimiter {
+    private static final int LONG_WINDOW = 600;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final FeignConfig.LimiterConfig limiterConfig;
+    private final EndpointMetricsImpl endpointMetrics;
+    private final long timeoutNanos;
+    private final AtomicLong estimatedLimit;
+    private final AtomicLong longRtt = new AtomicLong(Double.doubleToLongBits(0));
+
+    ConcurrencyLimiter(FeignConfig.LimiterConfig limiterConfig, EndpointMetricsImpl endpointMetrics) {
+        this.limiterConfig = limiterConfig;
+        this.endpointMetrics = endpointMetrics;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(limiterConfig.getTimeout());
+        this.estimatedLimit = new AtomicLong(Double.doubleToLongBits(clamp(limiterConfig.getInitialLimit())));
+        endpointMetrics.recordConcurrencyLimit(getLimit());
+    }
+
+    /**
+     * Takes a permit if the limit allows it.
+     *
+     * @return the number of calls in flight including this one, or -1 if the limit is reached.
+     */
+    int tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit and updates the limit with the outcome of the call.
+     *
+     * @param inFlightAtStart the number of calls in flight when the permit was acquired.
+     * @param rttNanos        the call latency.
+     * @param dropped         true if the backend dropped or refused the call.
+     */
+    void release(int inFlightAtStart, long rttNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        boolean failed = dropped || rttNanos > timeoutNanos;
+        int previousLimit = getLimit();
+        switch (limiterConfig.getAlgorithm()) {
+            case AIMD:
+                update(estimatedLimit, estimate -> updateAimd(estimate, inFlightAtStart, failed));
+                break;
+            case GRADIENT:
+                double rtt = Math.max(rttNanos, 1);
+                double currentLongRtt = update(longRtt, value -> updateLongRtt(value, rtt));
+                update(estimatedLimit, estimate -> updateGradient(estimate, inFlightAtStart, rtt, currentLongRtt,
+                        failed));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported limit algorithm " + limiterConfig.getAlgorithm());
+        }
+        int newLimit = getLimit();
+        if (newLimit != previousLimit) {
+            endpointMetrics.recordConcurrencyLimit(newLimit);
+        }
+    }
+
+    int getLimit() {
+        return (int) Double.longBitsToDouble(estimatedLimit.get());
+    }
+
+    private double updateAimd(double estimate, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            return clamp(estimate * limiterConfig.getBackoffRatio());
+        } else if (isLimitUsed(estimate, inFlightAtStart)) {
+            return clamp(estimate + 1);
+        } else {
+            return estimate;
+        }
+    }
+
+    private double updateLongRtt(double longRtt, double rtt) {
+        if (longRtt == 0) {
+            return rtt;
+        }
+        double newLongRtt = longRtt + (rtt - longRtt) / LONG_WINDOW;
+        if (newLongRtt / rtt > 2) {
+            // Forget a degraded past faster when the backend has recovered
+            newLongRtt *= 0.95;
+        }
+        return newLongRtt;
+    }
+
+    private double updateGradient(double estimate, int inFlightAtStart, double rtt, double longRtt, boolean dropped) {
+        if (!dropped && !isLimitUsed(estimate, inFlightAtStart)) {
+            // The limit is not reached so latencies say nothing about what a higher load would do
+            return estimate;
+        }
+        double gradient = dropped ? 0.5
+                : Math.max(0.5, Math.min(1.0, limiterConfig.getRttTolerance() * longRtt / rtt));
+        double newLimit = estimate * gradient + Math.sqrt(estimate);
+        double smoothing = limiterConfig.getSmoothing();
+        return clamp(estimate * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private boolean isLimitUsed(double estimate, int inFlightAtStart) {
+        return inFlightAtStart * 2 >= estimate;
+    }
+
+    private double clamp(double value) {
+        return Math.max(limiterConfig.getMinLimit(), Math.min(limiterConfig.getMaxLimit(), value));
+    }
+
+    private static double update(AtomicLong bits, DoubleUnaryOperator function) {
+        while (true) {
+            long currentBits = bits.get();
+            double current = Double.longBitsToDouble(currentBits);
+            double updated = function.applyAsDouble(current);
+            if (updated == current || bits.compareAndSet(currentBits, Double.doubleToLongBits(updated))) {
+                return updated;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Client decorator bounding the concurrent HTTP calls of an endpoint with an adaptive {@link ConcurrencyLimiter}.
+ * Calls over the limit fail fast with a {@link RejectedExecutionException}, which is not retried and triggers the
+ * endpoint fallback if any.
+ */
+class ConcurrencyLimitingClient implements Client {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private final Client delegate;
+    private final ConcurrencyLimiter limiter;
+    private final EndpointMetricsImpl endpointMetrics;
+    private final Class<?> feignApi;
+
+    ConcurrencyLimitingClient(Client delegate, ConcurrencyLimiter limiter, EndpointMetricsImpl endpointMetrics,
+            Class<?> feignApi) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.endpointMetrics = endpointMetrics;
+        this.feignApi = feignApi;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            endpointMetrics.recordLimitedCall();
+            throw new RejectedExecutionException("Concurrency limit of Feign endpoint " + feignApi.getName()
+                    + " reached (" + limiter.getLimit() + " calls in flight)");
+        }
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            Response response = delegate.execute(request, options);
+            dropped = response.status() == TOO_MANY_REQUESTS || response.status() == SERVICE_UNAVAILABLE;
+            return response;
+        } finally {
+            limiter.release(inFlight, System.nanoTime() - start, dropped);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Capability;
+import feign.InvocationHandlerFactory;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.RetryableException;
+import feign.Retryer;
+import org.seedstack.feign.CallTimeout;
+import org.seedstack.feign.Deadline;
+import org.seedstack.feign.FeignConfig;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign capability attaching the {@link Deadline} of each call, derived from the method {@link CallTimeout} or the
+ * endpoint timeout and from the deadline of the caller thread, and stopping retries once the deadline of the call has
+ * expired or when the server asks to retry after it. The backoff of the built-in retryers is bounded by the deadline
+ * too. Each attempt is bounded by {@link DeadlineClient}.
+ */
+public class DeadlineCapability implements Capability {
+    private final FeignConfig.DeadlineConfig deadlineConfig;
+    private final boolean handlersOnOtherThreads;
+    private final Map<Object[], Deadline> callerDeadlines = Collections.synchronizedMap(new WeakHashMap<>());
+
+    DeadlineCapability(FeignConfig.DeadlineConfig deadlineConfig, boolean handlersOnOtherThreads) {
+        this.deadlineConfig = deadlineConfig;
+        this.handlersOnOtherThreads = handlersOnOtherThreads;
+    }
+
+    @Override
+    public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+        return (target, dispatch) -> {
+            // Method handlers are wrapped so the deadline is also attached when they run on another thread
+            Map<Method, MethodHandler> deadlineDispatch = new LinkedHashMap<>(dispatch);
+            for (Map.Entry<Method, MethodHandler> entry : dispatch.entrySet()) {
+                long timeout = getTimeout(entry.getKey());
+                if (timeout > 0 || handlersOnOtherThreads) {
+                    deadlineDispatch.put(entry.getKey(), new DeadlineMethodHandler(entry.getValue(), timeout));
+                }
+            }
+            InvocationHandler invocationHandler = invocationHandlerFactory.create(target, deadlineDispatch);
+            if (!handlersOnOtherThreads) {
+                return invocationHandler;
+            }
+            return (proxy, method, args) -> {
+                // Runs on the caller thread: its deadline is handed to the method handler through the arguments
+                // array, which is passed as is to the thread running the handler (e.g. a Hystrix thread)
+                Deadline deadline = Deadline.current();
+                if (deadline == null || method.getDeclaringClass() == Object.class) {
+                    return invocationHandler.invoke(proxy, method, args);
+                }
+                Object[] callArgs = args != null ? args : new Object[0];
+                callerDeadlines.put(callArgs, deadline);
+                return invocationHandler.invoke(proxy, method, callArgs);
+            };
+        };
+    }
+
+    @Override
+    public Retryer enrich(Retryer retryer) {
+        return new DeadlineRetryer(retryer);
+    }
+
+    private long getTimeout(Method method) {
+        CallTimeout callTimeout = method.getAnnotation(CallTimeout.class);
+        return callTimeout != null ? callTimeout.value() : deadlineConfig.getTimeout();
+    }
+
+    private class DeadlineMethodHandler implements MethodHandler {
+        private final MethodHandler methodHandler;
+        private final long timeout;
+
+        private DeadlineMethodHandler(MethodHandler methodHandler, long timeout) {
+            this.methodHandler = methodHandler;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public Object invoke(Object[] argv) throws Throwable {
+            Deadline callerDeadline = handlersOnOtherThreads && argv != null ? callerDeadlines.remove(argv) : null;
+            if (callerDeadline == null) {
+                callerDeadline = Deadline.current();
+            }
+            Deadline deadline = timeout > 0
+                    ? Deadline.after(timeout, TimeUnit.MILLISECONDS).earliest(callerDeadline)
+                    : callerDeadline;
+            if (deadline == null) {
+                return methodHandler.invoke(argv);
+            }
+            try (Deadline.Scope ignored = deadline.attach()) {
+                return methodHandler.invoke(argv);
+            }
+        }
+    }
+
+    private static class DeadlineRetryer implements Retryer {
+        private final Retryer delegate;
+
+        private DeadlineRetryer(Retryer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void continueOrPropagate(RetryableException e) {
+            Deadline deadline = Deadline.current();
+            if (deadline != null && (deadline.isExpired() || e.retryAfter() != null
+                    && e.retryAfter().getTime() - System.currentTimeMillis()
+                    >= deadline.remaining(TimeUnit.MILLISECONDS))) {
+                throw e;
+            }
+            delegate.continueOrPropagate(e);
+            if (deadline != null && deadline.isExpired()) {
+                // The backoff consumed the remaining time
+                throw e;
+            }
+        }
+
+        @Override
+        public Retryer clone() {
+            return new DeadlineRetryer(delegate.clone());
+        }
+    }
+}
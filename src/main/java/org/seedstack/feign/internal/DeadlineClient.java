@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.seedstack.feign.Deadline;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client decorator bounding each HTTP exchange by the {@link Deadline} attached to the current thread: the read
+ * timeout is shortened to the remaining time, which is optionally sent to the server in a header, and the exchange
+ * fails with a timeout without being sent if the deadline has already expired.
+ */
+class DeadlineClient implements Client {
+    private final Client delegate;
+    private final String header;
+
+    DeadlineClient(Client delegate, String header) {
+        this.delegate = delegate;
+        this.header = header;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return delegate.execute(request, options);
+        }
+        long remaining = deadline.remaining(TimeUnit.MILLISECONDS);
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("Deadline expired before sending request to " + request.url());
+        }
+        // Engines may keep clients per connect timeout, so only the read timeout follows the remaining time
+        Request.Options deadlineOptions = new Request.Options(
+                options.connectTimeoutMillis(), TimeUnit.MILLISECONDS,
+                Math.min(options.readTimeoutMillis(), remaining), TimeUnit.MILLISECONDS,
+                options.isFollowRedirects());
+        if (header != null) {
+            Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+            headers.put(header, Collections.singletonList(String.valueOf(remaining)));
+            request = Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(),
+                    request.requestTemplate());
+        }
+        return delegate.execute(request, deadlineOptions);
+    }
+}
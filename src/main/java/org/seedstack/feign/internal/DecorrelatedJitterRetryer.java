@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Request;
+import feign.RetryableException;
+import feign.Retryer;
+import org.seedstack.feign.Deadline;
+import org.seedstack.feign.FeignConfig;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retryer spreading retries with decorrelated jitter (each interval is drawn between the initial period and three
+ * times the previous interval, up to the maximum period) so that clients do not retry in lockstep. Retries are
+ * limited to idempotent methods if required, wait at least the delay requested by a 'Retry-After' header (giving up
+ * if it exceeds the maximum period) and consume the retry budget shared by the endpoint. They are abandoned when the
+ * wait would outlast the deadline of the call.
+ */
+class DecorrelatedJitterRetryer implements Retryer {
+    static final int MAX_RETRY_BURST = 10;
+    private static final Set<Request.HttpMethod> IDEMPOTENT_METHODS = EnumSet.of(
+            Request.HttpMethod.GET,
+            Request.HttpMethod.HEAD,
+            Request.HttpMethod.OPTIONS,
+            Request.HttpMethod.PUT,
+            Request.HttpMethod.DELETE,
+            Request.HttpMethod.TRACE
+    );
+    private final FeignConfig.RetryConfig retryConfig;
+    private final TokenBudget budget;
+    private final EndpointMetricsImpl endpointMetrics;
+    private int attempt = 1;
+    private long interval;
+
+    DecorrelatedJitterRetryer(FeignConfig.RetryConfig retryConfig, TokenBudget budget,
+            EndpointMetricsImpl endpointMetrics) {
+        this.retryConfig = retryConfig;
+        this.budget = budget;
+        this.endpointMetrics = endpointMetrics;
+        this.interval = retryConfig.getPeriod();
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        Deadline deadline = Deadline.current();
+        continueOrPropagate(e, deadline != null ? deadline.remaining(TimeUnit.MILLISECONDS) : Long.MAX_VALUE);
+    }
+
+    void continueOrPropagate(RetryableException e, long remainingMillis) {
+        if (attempt++ >= retryConfig.getMaxAttempts()) {
+            throw e;
+        }
+        if (retryConfig.isIdempotentOnly() && (e.method() == null || !IDEMPOTENT_METHODS.contains(e.method()))) {
+            throw e;
+        }
+
+        long period = retryConfig.getPeriod();
+        long maxPeriod = retryConfig.getMaxPeriod();
+        interval = Math.min(maxPeriod, period + (long) (ThreadLocalRandom.current().nextDouble()
+                * Math.max(0, interval * 3 - period)));
+        long sleep = interval;
+        if (e.retryAfter() != null) {
+            long retryAfter = e.retryAfter().getTime() - System.currentTimeMillis();
+            if (retryAfter > maxPeriod) {
+                // Retrying earlier than the server asked would only add load
+                throw e;
+            }
+            sleep = Math.max(sleep, retryAfter);
+        }
+        if (sleep >= remainingMillis) {
+            // The next attempt could not start before the deadline
+            throw e;
+        }
+
+        if (!budget.tryWithdraw()) {
+            endpointMetrics.recordRetryBudgetExhausted();
+            throw e;
+        }
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    @Override
+    public Retryer clone() {
+        // Feign clones the retryer for each call, which is when the call contributes to the budget
+        budget.deposit();
+        return new DecorrelatedJitterRetryer(retryConfig, budget, endpointMetrics);
+    }
+}
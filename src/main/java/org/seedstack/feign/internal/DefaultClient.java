@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The default Feign engine, sending bodies already compressed by {@link CompressingClient} as they are. The encoding
+ * of such bodies is carried by the {@link #COMPRESSED_BODY_ENCODING} request header, which is sent as
+ * {@code Content-Encoding} directly on the connection: {@link Client.Default} would otherwise compress the body again.
+ */
+class DefaultClient extends Client.Default {
+    /**
+     * Request header carrying the encoding of a body compressed before reaching the engine. It is not sent as is.
+     */
+    static final String COMPRESSED_BODY_ENCODING = "X-Seed-Compressed-Body-Encoding";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private final ThreadLocal<String> compressedBodyEncoding = new ThreadLocal<>();
+
+    DefaultClient(SSLSocketFactory sslSocketFactory) {
+        super(sslSocketFactory, null);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Collection<String> encoding = request.headers().get(COMPRESSED_BODY_ENCODING);
+        if (encoding == null || encoding.isEmpty()) {
+            return super.execute(request, options);
+        }
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+        headers.remove(COMPRESSED_BODY_ENCODING);
+        // The connection is opened by the thread executing the request
+        compressedBodyEncoding.set(encoding.iterator().next());
+        try {
+            return super.execute(Request.create(request.httpMethod(), request.url(), headers, request.body(),
+                    request.charset(), request.requestTemplate()), options);
+        } finally {
+            compressedBodyEncoding.remove();
+        }
+    }
+
+    @Override
+    public HttpURLConnection getConnection(URL url) throws IOException {
+        HttpURLConnection connection = super.getConnection(url);
+        String encoding = compressedBodyEncoding.get();
+        if (encoding != null) {
+            connection.setRequestProperty(CONTENT_ENCODING, encoding);
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Capability;
+import feign.InvocationHandlerFactory;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.seedstack.feign.Deadline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Feign capability making the Reactive Streams {@code Publisher}s returned by endpoint methods cold: the call is
+ * executed on the endpoint executor when a subscriber subscribes, and again for each new subscriber, so that no
+ * response is left open by a publisher that is never subscribed. The whole invocation chain, Hystrix or resilience
+ * included, runs at subscription time, with the deadline of the thread that invoked the method.
+ */
+public class DeferredPublisherCapability implements Capability {
+    private final Executor executor;
+
+    DeferredPublisherCapability(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+        return (target, dispatch) -> {
+            InvocationHandler invocationHandler = invocationHandlerFactory.create(target, dispatch);
+            return (proxy, method, args) -> {
+                if (!Publisher.class.equals(method.getReturnType())) {
+                    return invocationHandler.invoke(proxy, method, args);
+                }
+                return new DeferredPublisher<>(invocationHandler, proxy, method, args, Deadline.current());
+            };
+        };
+    }
+
+    private class DeferredPublisher<T> implements Publisher<T> {
+        private final InvocationHandler invocationHandler;
+        private final Object proxy;
+        private final Method method;
+        private final Object[] args;
+        private final Deadline deadline;
+
+        private DeferredPublisher(InvocationHandler invocationHandler, Object proxy, Method method, Object[] args,
+                Deadline deadline) {
+            this.invocationHandler = invocationHandler;
+            this.proxy = proxy;
+            this.method = method;
+            this.args = args;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super T> subscriber) {
+            if (subscriber == null) {
+                throw new NullPointerException("Subscriber cannot be null");
+            }
+            try {
+                executor.execute(() -> {
+                    Publisher<T> publisher;
+                    try {
+                        publisher = invoke();
+                    } catch (Throwable t) {
+                        fail(subscriber, t);
+                        return;
+                    }
+                    publisher.subscribe(subscriber);
+                });
+            } catch (RejectedExecutionException e) {
+                fail(subscriber, e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Publisher<T> invoke() throws Throwable {
+            Deadline.Scope scope = deadline != null ? deadline.attach() : null;
+            try {
+                return (Publisher<T>) invocationHandler.invoke(proxy, method, args);
+            } finally {
+                if (scope != null) {
+                    scope.close();
+                }
+            }
+        }
+
+        private void fail(Subscriber<? super T> subscriber, Throwable t) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    // nothing to emit
+                }
+
+                @Override
+                public void cancel() {
+                    // nothing to cancel
+                }
+            });
+            subscriber.onError(t);
+        }
+    }
+}
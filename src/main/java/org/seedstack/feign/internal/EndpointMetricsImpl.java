@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.seedstack.feign.CallMetrics;
+import org.seedstack.feign.EndpointMetrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call metrics of an endpoint as a whole, also holding the call metrics of each of its methods.
+ */
+class EndpointMetricsImpl extends CallMetricsImpl implements EndpointMetrics {
+    private final Map<String, CallMetricsImpl> methodMetrics = new ConcurrentHashMap<>();
+    private final LongAdder clientBuildCount = new LongAdder();
+    private final LongAdder clientBuildNanos = new LongAdder();
+    private final LongAdder requestUncompressedBytes = new LongAdder();
+    private final LongAdder requestCompressedBytes = new LongAdder();
+    private final LongAdder responseCompressedBytes = new LongAdder();
+    private final LongAdder responseUncompressedBytes = new LongAdder();
+    private final LongAdder coalescedRequestCount = new LongAdder();
+    private final LongAdder limitedCallCount = new LongAdder();
+    private final LongAdder hedgedRequestCount = new LongAdder();
+    private final LongAdder retryBudgetExhaustedCount = new LongAdder();
+    private final LongAdder rateLimitedCallCount = new LongAdder();
+    private final LongAdder rateLimitWaitNanos = new LongAdder();
+    private volatile int concurrencyLimit;
+
+    /**
+     * Returns the metrics of a method of the endpoint.
+     *
+     * @param configKey the Feign configuration key of the method.
+     * @return the method metrics.
+     */
+    CallMetricsImpl getMethodMetrics(String configKey) {
+        return methodMetrics.computeIfAbsent(configKey, k -> new CallMetricsImpl());
+    }
+
+    void recordClientBuild(long nanos) {
+        clientBuildCount.increment();
+        clientBuildNanos.add(nanos);
+    }
+
+    void recordRequestCompression(long uncompressedBytes, long compressedBytes) {
+        requestUncompressedBytes.add(uncompressedBytes);
+        requestCompressedBytes.add(compressedBytes);
+    }
+
+    LongAdder getResponseCompressedBytes() {
+        return responseCompressedBytes;
+    }
+
+    LongAdder getResponseUncompressedBytes() {
+        return responseUncompressedBytes;
+    }
+
+    void recordCoalescedRequest() {
+        coalescedRequestCount.increment();
+    }
+
+    void recordConcurrencyLimit(int limit) {
+        concurrencyLimit = limit;
+    }
+
+    void recordLimitedCall() {
+        limitedCallCount.increment();
+    }
+
+    void recordHedgedRequest() {
+        hedgedRequestCount.increment();
+    }
+
+    void recordRetryBudgetExhausted() {
+        retryBudgetExhaustedCount.increment();
+    }
+
+    void recordRateLimitedCall() {
+        rateLimitedCallCount.increment();
+    }
+
+    void recordRateLimitWait(long nanos) {
+        rateLimitWaitNanos.add(nanos);
+    }
+
+    @Override
+    public long getClientBuildCount() {
+        return clientBuildCount.sum();
+    }
+
+    @Override
+    public long getClientBuildTime(TimeUnit timeUnit) {
+        return timeUnit.convert(clientBuildNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public double getRequestCompressionRatio() {
+        return ratio(requestUncompressedBytes.sum(), requestCompressedBytes.sum());
+    }
+
+    @Override
+    public double getResponseCompressionRatio() {
+        return ratio(responseUncompressedBytes.sum(), responseCompressedBytes.sum());
+    }
+
+    @Override
+    public long getCoalescedRequestCount() {
+        return coalescedRequestCount.sum();
+    }
+
+    @Override
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    @Override
+    public long getLimitedCallCount() {
+        return limitedCallCount.sum();
+    }
+
+    @Override
+    public long getHedgedRequestCount() {
+        return hedgedRequestCount.sum();
+    }
+
+    @Override
+    public long getRetryBudgetExhaustedCount() {
+        return retryBudgetExhaustedCount.sum();
+    }
+
+    @Override
+    public long getRateLimitedCallCount() {
+        return rateLimitedCallCount.sum();
+    }
+
+    @Override
+    public long getRateLimitWaitTime(TimeUnit timeUnit) {
+        return timeUnit.convert(rateLimitWaitNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Map<String, CallMetrics> getMethodMetrics() {
+        return Collections.unmodifiableMap(methodMetrics);
+    }
+
+    private static double ratio(long uncompressedBytes, long compressedBytes) {
+        return compressedBytes == 0 ? 0 : (double) uncompressedBytes / compressedBytes;
+    }
+}
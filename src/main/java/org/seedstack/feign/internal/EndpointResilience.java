@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.seedstack.feign.FeignConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fault tolerance state of an endpoint, shared by all its clients: one circuit breaker per method and a semaphore
+ * bulkhead bounding the concurrent calls of the whole endpoint.
+ */
+class EndpointResilience {
+    private final FeignConfig.CircuitBreakerConfig circuitBreakerConfig;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Semaphore bulkhead;
+    private final long maxWaitDuration;
+
+    EndpointResilience(FeignConfig.ResilienceConfig resilienceConfig) {
+        this.circuitBreakerConfig = resilienceConfig.getCircuitBreaker().isEnabled()
+                ? resilienceConfig.getCircuitBreaker() : null;
+        FeignConfig.BulkheadConfig bulkheadConfig = resilienceConfig.getBulkhead();
+        this.bulkhead = bulkheadConfig.isEnabled() ? new Semaphore(bulkheadConfig.getMaxConcurrentCalls()) : null;
+        this.maxWaitDuration = bulkheadConfig.getMaxWaitDuration();
+    }
+
+    /**
+     * @return the circuit breaker of the method with the specified Feign config key or null if disabled.
+     */
+    CircuitBreaker getCircuitBreaker(String configKey) {
+        if (circuitBreakerConfig == null) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(configKey, k -> new CircuitBreaker(circuitBreakerConfig));
+    }
+
+    boolean tryAcquireBulkhead() {
+        if (bulkhead == null) {
+            return true;
+        }
+        if (maxWaitDuration <= 0) {
+            return bulkhead.tryAcquire();
+        }
+        try {
+            return bulkhead.tryAcquire(maxWaitDuration, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void releaseBulkhead() {
+        if (bulkhead != null) {
+            bulkhead.release();
+        }
+    }
+}
@@ -7,20 +7,64 @@
  */
 package org.seedstack.feign.internal;
 
+import feign.RetryableException;
 import feign.Retryer;
+import org.seedstack.feign.Deadline;
+
+import java.util.concurrent.TimeUnit;
 
 /**
- * This Retryer wraps Feign's default one with the required parameters
+ * This Retryer applies the backoff of Feign's default one with the required parameters, giving up when the wait
+ * would outlast the deadline of the call
  */
-public class FeignConfigurableRetryer extends Retryer.Default {
+public class FeignConfigurableRetryer implements Retryer {
+    private final long period;
+    private final long maxPeriod;
+    private final int maxAttempts;
+    private int attempt = 1;
 
     /**
-     * Invokes default retryer constructor with required parameters
+     * Creates the retryer with required parameters
      * @param period Startng retry period between to retrys
      * @param maxPeriod maximum period between two retrys ( period is increaded by 1.5 between each attempt)
      * @param maxAttempts maximum attempts to perform
      */
     public FeignConfigurableRetryer(long period, long maxPeriod, int maxAttempts){
-        super(period, maxPeriod, maxAttempts);
+        this.period = period;
+        this.maxPeriod = maxPeriod;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        if (attempt++ >= maxAttempts) {
+            throw e;
+        }
+
+        long interval;
+        if (e.retryAfter() != null) {
+            interval = Math.min(maxPeriod, e.retryAfter().getTime() - System.currentTimeMillis());
+            if (interval < 0) {
+                return;
+            }
+        } else {
+            interval = Math.min(maxPeriod, (long) (period * Math.pow(1.5, attempt - 1)));
+        }
+        Deadline deadline = Deadline.current();
+        if (deadline != null && interval >= deadline.remaining(TimeUnit.MILLISECONDS)) {
+            // The next attempt could not start before the deadline
+            throw e;
+        }
+        try {
+            Thread.sleep(interval);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    @Override
+    public Retryer clone() {
+        return new FeignConfigurableRetryer(period, maxPeriod, maxAttempts);
     }
 }
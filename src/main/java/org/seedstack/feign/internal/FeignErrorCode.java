@@ -12,6 +12,7 @@ import org.seedstack.shed.exception.ErrorCode;
 public enum FeignErrorCode implements ErrorCode {
     BAD_TARGET_CLASS,
     BAD_FALLBACK_CLASS,
+    MISSING_BASE_URL,
     ERROR_INSTANTIATING_CONTRACT,
     ERROR_INSTANTIATING_DECODER,
     ERROR_INSTANTIATING_ENCODER,
@@ -21,6 +22,24 @@ public enum FeignErrorCode implements ErrorCode {
     ERROR_INSTANTIATING_ERROR_DECODER,
     ERROR_INSTANTIATING_RETRYER,
     HYSTRIX_NOT_PRESENT,
+    APACHE_HTTP_CLIENT_NOT_PRESENT,
+    JAVA_HTTP_CLIENT_NOT_PRESENT,
+    VIRTUAL_THREADS_NOT_SUPPORTED,
+    ERROR_INSTANTIATING_EXECUTOR,
+    ERROR_INSTANTIATING_JACKSON_MODULE,
+    JACKSON_MODULE_NOT_PRESENT,
+    ERROR_INSTANTIATING_JACKSON_DATAFORMAT,
+    JACKSON_DATAFORMAT_NOT_PRESENT,
+    PROTOBUF_NOT_PRESENT,
+    BROTLI_NOT_PRESENT,
+    UNSUPPORTED_REQUEST_ENCODING,
+    ERROR_CREATING_CACHE_DIRECTORY,
+    BULK_METHOD_NOT_FOUND,
+    INVALID_COLLAPSED_METHOD,
+    ERROR_INSTANTIATING_CALL_TIMING_LISTENER,
+    RESILIENCE_CONFLICTS_WITH_HYSTRIX,
     ERROR_TWO_RETRYER_ENDPOINT_CONFIGURATIONS,
-    ERROR_TWO_RETRYER_GLOBAL_CONFIGURATIONS
+    ERROR_TWO_RETRYER_GLOBAL_CONFIGURATIONS,
+    UNKNOWN_OVERRIDDEN_METHOD,
+    STREAMING_REQUIRES_JSON_DECODER
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.seedstack.feign.EndpointMetrics;
+import org.seedstack.feign.FeignMetrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class FeignMetricsImpl implements FeignMetrics {
+    private final Map<Class<?>, EndpointMetricsImpl> endpointMetrics = new ConcurrentHashMap<>();
+
+    EndpointMetricsImpl register(Class<?> feignApi) {
+        return endpointMetrics.computeIfAbsent(feignApi, k -> new EndpointMetricsImpl());
+    }
+
+    @Override
+    public EndpointMetrics getEndpointMetrics(Class<?> feignApi) {
+        return endpointMetrics.get(feignApi);
+    }
+
+    @Override
+    public Map<Class<?>, EndpointMetrics> getAllEndpointMetrics() {
+        return Collections.unmodifiableMap(endpointMetrics);
+    }
+}
@@ -7,30 +7,51 @@
  */
 package org.seedstack.feign.internal;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.AbstractModule;
+import com.google.inject.Scopes;
+import com.google.inject.name.Names;
 import java.util.Collection;
-import javax.net.ssl.SSLContext;
+import java.util.Map;
+import org.seedstack.feign.FeignMetrics;
 
 class FeignModule extends AbstractModule {
-    private final Collection<Class<?>> feignInterfaces;
+    static final String FEIGN_OBJECT_MAPPER = "feign";
+    static final String FEIGN_SMILE_OBJECT_MAPPER = "feign-smile";
+    static final String FEIGN_CBOR_OBJECT_MAPPER = "feign-cbor";
+    private static final String SMILE_FACTORY = "com.fasterxml.jackson.dataformat.smile.SmileFactory";
+    private static final String CBOR_FACTORY = "com.fasterxml.jackson.dataformat.cbor.CBORFactory";
+    private final Map<Class<?>, FeignProvider<?>> feignProviders;
     private final Collection<Class<?>> bindings;
-    private final SSLContext sslContext;
+    private final FeignMetrics feignMetrics;
 
-    FeignModule(Collection<Class<?>> feignInterfaces, Collection<Class<?>> bindings, SSLContext sslContext) {
-        this.feignInterfaces = feignInterfaces;
+    FeignModule(Map<Class<?>, FeignProvider<?>> feignProviders, Collection<Class<?>> bindings,
+            FeignMetrics feignMetrics) {
+        this.feignProviders = feignProviders;
         this.bindings = bindings;
-        this.sslContext = sslContext;
+        this.feignMetrics = feignMetrics;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
+    @SuppressWarnings({"unchecked", "rawtypes"})
     protected void configure() {
         for (Class<?> binding : bindings) {
             bind(binding);
         }
 
-        for (Class<?> feignApi : feignInterfaces) {
-            bind(feignApi).toProvider(new FeignProvider(feignApi, sslContext));
+        bind(FeignMetrics.class).toInstance(feignMetrics);
+        bind(ObjectMapper.class).annotatedWith(Names.named(FEIGN_OBJECT_MAPPER))
+                .toProvider(new FeignObjectMapperProvider())
+                .in(Scopes.SINGLETON);
+        bind(ObjectMapper.class).annotatedWith(Names.named(FEIGN_SMILE_OBJECT_MAPPER))
+                .toProvider(new FeignObjectMapperProvider(SMILE_FACTORY))
+                .in(Scopes.SINGLETON);
+        bind(ObjectMapper.class).annotatedWith(Names.named(FEIGN_CBOR_OBJECT_MAPPER))
+                .toProvider(new FeignObjectMapperProvider(CBOR_FACTORY))
+                .in(Scopes.SINGLETON);
+
+        for (Map.Entry<Class<?>, FeignProvider<?>> entry : feignProviders.entrySet()) {
+            bind((Class) entry.getKey()).toProvider(entry.getValue());
         }
     }
 
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.inject.Injector;
+import org.seedstack.feign.FeignConfig;
+import org.seedstack.seed.Configuration;
+import org.seedstack.seed.SeedException;
+import org.seedstack.shed.reflect.Classes;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+/**
+ * Provides the Jackson object mapper shared by the codecs of all Feign endpoints for one data format, so serializer
+ * and deserializer caches are warmed up once.
+ */
+class FeignObjectMapperProvider implements Provider<ObjectMapper> {
+    private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+    private final String factoryClassName;
+    @Configuration
+    private FeignConfig config;
+    @Inject
+    private Injector injector;
+
+    /**
+     * Creates a provider of JSON object mappers.
+     */
+    FeignObjectMapperProvider() {
+        this(null);
+    }
+
+    /**
+     * Creates a provider of object mappers for the data format of the specified Jackson factory, which is resolved
+     * lazily as the corresponding Jackson data format module is optional.
+     *
+     * @param factoryClassName the fully qualified name of the {@link JsonFactory} subclass to use.
+     */
+    FeignObjectMapperProvider(String factoryClassName) {
+        this.factoryClassName = factoryClassName;
+    }
+
+    @Override
+    public ObjectMapper get() {
+        FeignConfig.JacksonConfig jacksonConfig = config.getJackson();
+        JsonFactory jsonFactory = createJsonFactory();
+        ObjectMapper objectMapper = new ObjectMapper(jsonFactory)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                // Indentation only makes sense for textual formats
+                .configure(SerializationFeature.INDENT_OUTPUT,
+                        jacksonConfig.isIndentOutput() && !jsonFactory.canHandleBinaryNatively())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES,
+                        jacksonConfig.isFailOnUnknownProperties());
+
+        switch (jacksonConfig.getAccessorOptimizer()) {
+            case AFTERBURNER:
+                objectMapper.registerModule(instantiateOptimizerModule(AFTERBURNER_MODULE));
+                break;
+            case BLACKBIRD:
+                objectMapper.registerModule(instantiateOptimizerModule(BLACKBIRD_MODULE));
+                break;
+            case NONE:
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported accessor optimizer "
+                        + jacksonConfig.getAccessorOptimizer());
+        }
+
+        for (Class<? extends Module> moduleClass : jacksonConfig.getModules()) {
+            try {
+                objectMapper.registerModule(injector.getInstance(moduleClass));
+            } catch (Exception e) {
+                throw SeedException.wrap(e, FeignErrorCode.ERROR_INSTANTIATING_JACKSON_MODULE)
+                        .put("class", moduleClass);
+            }
+        }
+        return objectMapper;
+    }
+
+    private JsonFactory createJsonFactory() {
+        if (factoryClassName == null) {
+            return new JsonFactory();
+        }
+        Class<?> factoryClass = Classes.optional(factoryClassName)
+                .orElseThrow(() -> SeedException.createNew(FeignErrorCode.JACKSON_DATAFORMAT_NOT_PRESENT)
+                        .put("class", factoryClassName));
+        try {
+            return (JsonFactory) factoryClass.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw SeedException.wrap(e, FeignErrorCode.ERROR_INSTANTIATING_JACKSON_DATAFORMAT)
+                    .put("class", factoryClassName);
+        }
+    }
+
+    private Module instantiateOptimizerModule(String moduleClassName) {
+        Class<?> moduleClass = Classes.optional(moduleClassName)
+                .orElseThrow(() -> SeedException.createNew(FeignErrorCode.JACKSON_MODULE_NOT_PRESENT)
+                        .put("class", moduleClassName));
+        try {
+            return (Module) moduleClass.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw SeedException.wrap(e, FeignErrorCode.ERROR_INSTANTIATING_JACKSON_MODULE)
+                    .put("class", moduleClassName);
+        }
+    }
+}
@@ -23,7 +23,9 @@ import java.util.function.Predicate;
 
 public class FeignPlugin extends AbstractSeedPlugin {
     private final Collection<Class<?>> feignInterfaces = new ArrayList<>();
+    private final Map<Class<?>, FeignProvider<?>> feignProviders = new HashMap<>();
     private final Set<Class<?>> bindings = new HashSet<>();
+    private final FeignMetricsImpl feignMetrics = new FeignMetricsImpl();
     private SSLContext sslContext;
 
     @Override
@@ -68,6 +70,15 @@ public class FeignPlugin extends AbstractSeedPlugin {
                 bindings.add(endpointConfig.getRetryer());
             }
             bindings.add(endpointConfig.getLogger());
+            if (endpointConfig.getHttp2().getExecutor() != null) {
+                bindings.add(endpointConfig.getHttp2().getExecutor());
+            }
+            if (endpointConfig.getAsync().getExecutor() != null) {
+                bindings.add(endpointConfig.getAsync().getExecutor());
+            }
+            if (endpointConfig.getTiming().getListener() != null) {
+                bindings.add(endpointConfig.getTiming().getListener());
+            }
             Class<?> fallback = endpointConfig.getFallback();
             if (fallback != null) {
                 bindings.add(fallback);
@@ -80,16 +91,30 @@ public class FeignPlugin extends AbstractSeedPlugin {
         // Retrieve SSL context if any
         initContext.dependency(CryptoPlugin.class).sslContext().ifPresent(sslContext -> this.sslContext = sslContext);
 
+        // Add bindings for Jackson modules
+        bindings.addAll(getConfiguration(FeignConfig.class).getJackson().getModules());
+
         //Adds binding for general retryer
         if(getConfiguration(FeignConfig.class).getRetryer()!=null) {
             bindings.add(getConfiguration(FeignConfig.class).getRetryer());
         }
+
+        // Create a provider for each endpoint
+        for (Class<?> feignInterface : feignInterfaces) {
+            feignProviders.put(feignInterface,
+                    new FeignProvider<>(feignInterface, sslContext, feignMetrics.register(feignInterface)));
+        }
         return InitState.INITIALIZED;
     }
 
     @Override
     public Object nativeUnitModule() {
-        return new FeignModule(feignInterfaces, bindings, sslContext);
+        return new FeignModule(feignProviders, bindings, feignMetrics);
+    }
+
+    @Override
+    public void stop() {
+        feignProviders.values().forEach(FeignProvider::close);
     }
 
 }
@@ -7,6 +7,8 @@
  */
 package org.seedstack.feign.internal;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Injector;
 import feign.*;
 import feign.Target.HardCodedTarget;
@@ -15,43 +17,181 @@ import feign.codec.Encoder;
 import feign.codec.ErrorDecoder;
 import feign.hystrix.FallbackFactory;
 import feign.hystrix.HystrixFeign;
+import feign.jackson.JacksonDecoder;
+import feign.jackson.JacksonEncoder;
+import org.seedstack.feign.CallTimingListener;
 import org.seedstack.feign.FeignConfig;
 import org.seedstack.feign.FeignConfig.EndpointConfig;
 import org.seedstack.seed.Configuration;
 import org.seedstack.seed.SeedException;
 import org.seedstack.shed.reflect.Classes;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import javax.net.ssl.SSLContext;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 class FeignProvider<T> implements Provider<Object> {
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(FeignProvider.class);
     private static final boolean HYSTRIX_PRESENT = Classes.optional("com.netflix.hystrix.Hystrix").isPresent();
+    private static final boolean APACHE_HTTP_CLIENT_PRESENT = Classes.optional("feign.httpclient.ApacheHttpClient")
+            .isPresent();
+    private static final boolean JAVA_HTTP_CLIENT_PRESENT = Classes.optional("java.net.http.HttpClient").isPresent();
     private final Class<T> feignApi;
     private final SSLContext sslContext;
+    private final EndpointMetricsImpl endpointMetrics;
+    private volatile Object client;
+    private Client engine;
+    private Client httpClient;
+    private ResponseCache responseCache;
+    private PhaseTimer phaseTimer;
+    private EndpointResilience endpointResilience;
+    private LoadBalancer loadBalancer;
+    private final Map<FeignConfig.RetryConfig, TokenBudget> retryBudgets = new IdentityHashMap<>();
+    private AsyncInvocationHandlerFactory asyncInvocationHandlerFactory;
+    private CollapsingInvocationHandlerFactory collapsingInvocationHandlerFactory;
+    private Executor executor;
+    private ExecutorService asyncExecutor;
     @Configuration
     private FeignConfig config;
     @Inject
     private Injector injector;
+    @Inject
+    @Named(FeignModule.FEIGN_OBJECT_MAPPER)
+    private ObjectMapper objectMapper;
 
-    FeignProvider(Class<T> feignApi, SSLContext sslContext) {
+    FeignProvider(Class<T> feignApi, SSLContext sslContext, EndpointMetricsImpl endpointMetrics) {
         this.feignApi = feignApi;
         this.sslContext = sslContext;
+        this.endpointMetrics = endpointMetrics;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public Object get() {
         FeignConfig.EndpointConfig endpointConfig = config.getEndpoints().get(feignApi);
+        if (endpointConfig.getLifecycle() == FeignConfig.ClientLifecycle.PROTOTYPE) {
+            return buildClient(endpointConfig);
+        }
+        // Double-checked locking so the shared client is built only once, even under concurrent injections
+        Object result = client;
+        if (result == null) {
+            synchronized (this) {
+                result = client;
+                if (result == null) {
+                    client = result = buildClient(endpointConfig);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Object buildClient(FeignConfig.EndpointConfig endpointConfig) {
+        long startTime = System.nanoTime();
+        try {
+            return createClient(endpointConfig);
+        } finally {
+            endpointMetrics.recordClientBuild(System.nanoTime() - startTime);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object createClient(FeignConfig.EndpointConfig endpointConfig) {
+        Feign.Builder builder = configureBuilder(endpointConfig);
+
+        Class<T> fallback = endpointConfig.getFallback();
+        if (fallback != null && !endpointConfig.getResilience().isEnabled()) {
+            if (builder instanceof HystrixFeign.Builder) {
+                return ((HystrixFeign.Builder) builder).target(
+                        instantiateTarget(endpointConfig),
+                        createFallbackFactory(fallback)
+                );
+            } else {
+                throw SeedException.createNew(FeignErrorCode.HYSTRIX_NOT_PRESENT)
+                        .put("endpoint", feignApi.getName());
+            }
+        } else {
+            return builder.target(instantiateTarget(endpointConfig));
+        }
+    }
+
+    private Feign.Builder configureBuilder(FeignConfig.EndpointConfig endpointConfig) {
         Feign.Builder builder = createBuilder(endpointConfig);
+        boolean virtualThreads = useVirtualThreads(endpointConfig);
+
+        // Keep blocking Hystrix calls on the caller thread when virtual threads are used
+        if (virtualThreads && builder instanceof HystrixFeign.Builder) {
+            ((HystrixFeign.Builder) builder).setterFactory(new SemaphoreIsolationSetterFactory());
+        }
 
         // Encoder and decoder
         builder.encoder(instantiateEncoder(endpointConfig.getEncoder()));
-        builder.decoder(instantiateDecoder(endpointConfig.getDecoder()));
+        Decoder decoder = instantiateDecoder(endpointConfig.getDecoder());
+        if (decoder instanceof RequestInterceptor) {
+            // Negotiating decoders declare the formats they accept on each request
+            builder.requestInterceptor((RequestInterceptor) decoder);
+        }
+        if (StreamingDecoder.hasStreamingMethods(feignApi)) {
+            if (!StreamingDecoder.decodesJson(decoder)) {
+                throw SeedException.createNew(FeignErrorCode.STREAMING_REQUIRES_JSON_DECODER)
+                        .put("endpoint", feignApi.getName())
+                        .put("decoder", endpointConfig.getDecoder().getName());
+            }
+            // Streamed responses are closed by the caller so the decoder closes the others itself
+            builder.decoder(new StreamingDecoder(decoder, objectMapper, getExecutor(endpointConfig, virtualThreads)));
+            builder.doNotCloseAfterDecode();
+        } else {
+            builder.decoder(decoder);
+        }
 
         // Contract
+        Contract contract = null;
         if (endpointConfig.getContract() != null) {
-            builder.contract(instantiateContract(endpointConfig.getContract()));
+            contract = instantiateContract(endpointConfig.getContract());
+        }
+
+        // Asynchronous methods (Hystrix natively supports CompletableFuture return types)
+        InvocationHandlerFactory invocationHandlerFactory = null;
+        if (!(builder instanceof HystrixFeign.Builder) && AsyncDelegatingContract.hasAsyncMethods(feignApi)) {
+            builder.contract(new AsyncDelegatingContract(contract != null ? contract : new Contract.Default()));
+            invocationHandlerFactory = getAsyncInvocationHandlerFactory(endpointConfig, virtualThreads);
+        } else if (contract != null) {
+            builder.contract(contract);
+        }
+
+        // Collapsed methods
+        if (CollapsingInvocationHandlerFactory.hasCollapsedMethods(feignApi)) {
+            if (builder instanceof HystrixFeign.Builder) {
+                LOGGER.warn("Collapsed methods of Feign endpoint {} are called individually as collapsing is not "
+                        + "supported with Hystrix, disable the Hystrix wrapper to enable it", feignApi.getName());
+            } else {
+                invocationHandlerFactory = getCollapsingInvocationHandlerFactory(endpointConfig, virtualThreads,
+                        invocationHandlerFactory != null ? invocationHandlerFactory
+                                : new InvocationHandlerFactory.Default());
+            }
+        }
+        // Circuit breakers and bulkhead (outermost so that rejected calls never reach the other handlers)
+        Class<T> fallback = endpointConfig.getFallback();
+        if (endpointConfig.getResilience().isEnabled()) {
+            invocationHandlerFactory = new ResilientInvocationHandlerFactory(
+                    invocationHandlerFactory != null ? invocationHandlerFactory
+                            : new InvocationHandlerFactory.Default(),
+                    getEndpointResilience(endpointConfig),
+                    fallback != null ? createFallbackFactory(fallback) : null);
+        }
+        if (invocationHandlerFactory != null) {
+            builder.invocationHandlerFactory(invocationHandlerFactory);
         }
 
         if(endpointConfig.getErrorDecoder() != null){
@@ -61,60 +201,269 @@ class FeignProvider<T> implements Provider<Object> {
         //Retry configuration
         setUpRetryOption(builder, endpointConfig);
 
-        // Logger
-        builder.logger(instantiateLogger(endpointConfig.getLogger()));
-        builder.logLevel(endpointConfig.getLogLevel());
-
         // Timeouts and follow redirects
-        builder.options(new Request.Options(
+        Request.Options options = new Request.Options(
                 endpointConfig.getConnectTimeout(), endpointConfig.getTimeUnit(),
                 endpointConfig.getReadTimeout(), endpointConfig.getTimeUnit(),
-                endpointConfig.isFollowRedirects())
-        );
+                endpointConfig.isFollowRedirects());
+        builder.options(options);
+
+        // Methods with their own options
+        Map<Method, MethodSettings> methodSettings = MethodSettings.resolve(feignApi, endpointConfig,
+                this::createRetryer);
+        MethodOverridesCapability methodOverrides = methodSettings.isEmpty() ? null
+                : new MethodOverridesCapability(methodSettings, options, endpointConfig.getLogLevel());
+
+        // Logger
+        builder.logger(instantiateLogger(endpointConfig.getLogger()));
+        builder.logLevel(methodOverrides != null ? methodOverrides.getLogLevel() : endpointConfig.getLogLevel());
 
         // HTTP(s) client
-        if (sslContext != null) {
-            builder.client(new Client.Default(sslContext.getSocketFactory(), null));
-        } else {
-            builder.client(new Client.Default(null, null));
+        builder.client(getHttpClient(endpointConfig));
+
+        // Methods with their own options (before the metrics so that their retries are measured as any other)
+        if (methodOverrides != null) {
+            builder.addCapability(methodOverrides);
+        }
+
+        // Metrics (Feign applies capabilities through reflection, so capability classes must be public)
+        builder.addCapability(new MetricsCapability(endpointMetrics));
+        if (endpointConfig.getTiming().isEnabled()) {
+            builder.addCapability(new PhaseTimingCapability(getPhaseTimer(endpointConfig)));
+        }
+
+        // Deadlines
+        builder.addCapability(new DeadlineCapability(endpointConfig.getDeadline(),
+                builder instanceof HystrixFeign.Builder));
+
+        // Cold publishers (after the deadlines so that the whole invocation runs when subscribed)
+        if (StreamingDecoder.hasPublisherMethods(feignApi)) {
+            builder.addCapability(new DeferredPublisherCapability(getExecutor(endpointConfig, virtualThreads)));
         }
 
         // Interceptors
         endpointConfig.getInterceptors().forEach(i -> builder.requestInterceptor(injector.getInstance(i)));
 
-        Class<T> fallback = endpointConfig.getFallback();
-        if (fallback != null) {
-            if (builder instanceof HystrixFeign.Builder) {
-                if (FallbackFactory.class.isAssignableFrom(fallback)) {
-                    return ((HystrixFeign.Builder) builder).target(
-                            instantiateTarget(endpointConfig),
-                            (FallbackFactory<T>) instantiateFallback(fallback)
-                    );
+        return builder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private FallbackFactory<T> createFallbackFactory(Class<T> fallback) {
+        if (FallbackFactory.class.isAssignableFrom(fallback)) {
+            FallbackFactory<T> fallbackFactory = (FallbackFactory<T>) instantiateFallback(fallback);
+            return cause -> meterFallback(fallbackFactory.create(cause));
+        } else {
+            return new FallbackFactory.Default<>(meterFallback((T) instantiateFallback(fallback)));
+        }
+    }
+
+    synchronized void close() {
+        if (engine instanceof Closeable) {
+            try {
+                ((Closeable) engine).close();
+            } catch (IOException e) {
+                LOGGER.warn("Unable to close HTTP client of Feign endpoint {}", feignApi.getName(), e);
+            }
+        }
+        engine = null;
+        httpClient = null;
+        if (responseCache != null) {
+            responseCache.close();
+            responseCache = null;
+        }
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+            asyncExecutor = null;
+        }
+        executor = null;
+        asyncInvocationHandlerFactory = null;
+        if (collapsingInvocationHandlerFactory != null) {
+            collapsingInvocationHandlerFactory.close();
+            collapsingInvocationHandlerFactory = null;
+        }
+    }
+
+    private synchronized Client getHttpClient(FeignConfig.EndpointConfig endpointConfig) {
+        // The HTTP client holds connections, cached responses and in-flight requests so it is shared by all clients
+        // of the endpoint, whatever their lifecycle
+        if (httpClient == null) {
+            engine = createEngine(endpointConfig);
+            Client client = new MeteredClient(engine, endpointMetrics,
+                    endpointConfig.getTiming().isEnabled() ? getPhaseTimer(endpointConfig) : null);
+            if (!endpointConfig.getLoadBalancing().getInstances().isEmpty()) {
+                client = new LoadBalancingClient(client, getLoadBalancer(endpointConfig));
+            }
+            if (endpointConfig.getLimiter().isEnabled()) {
+                ConcurrencyLimiter limiter = new ConcurrencyLimiter(endpointConfig.getLimiter(), endpointMetrics);
+                client = new ConcurrencyLimitingClient(client, limiter, endpointMetrics, feignApi);
+            }
+            if (HedgingClient.hasHedgedMethods(feignApi, endpointConfig.getHedging())) {
+                client = new HedgingClient(client, endpointConfig.getHedging(), endpointMetrics,
+                        getExecutor(endpointConfig, useVirtualThreads(endpointConfig)),
+                        endpointConfig.getLoadBalancing().getInstances().isEmpty() ? null
+                                : getLoadBalancer(endpointConfig));
+            }
+            client = new DeadlineClient(client, endpointConfig.getDeadline().getHeader());
+            if (RateLimitingClient.hasRateLimits(feignApi, endpointConfig)) {
+                // Above the deadline client so that timeouts account for the wait, and above hedging so that a call
+                // takes a single permit on the caller thread, whatever its attempts
+                client = new RateLimitingClient(client, endpointConfig, endpointMetrics, feignApi);
+            }
+            if (endpointConfig.getCompression().isEnabled()) {
+                // The default engine would compress request bodies again when it finds a 'Content-Encoding' header
+                client = new CompressingClient(client, endpointConfig.getCompression(), endpointMetrics, feignApi,
+                        endpointConfig.getEngine() == FeignConfig.ClientEngine.DEFAULT);
+            }
+            if (endpointConfig.getCache().isEnabled()) {
+                responseCache = createResponseCache(endpointConfig.getCache());
+                client = new CachingClient(client, responseCache, endpointConfig.getCache().getMaxEntrySize());
+            }
+            if (endpointConfig.getCoalescing().isEnabled()) {
+                client = new CoalescingClient(client, endpointConfig.getCoalescing(), endpointMetrics);
+            }
+            httpClient = client;
+        }
+        return httpClient;
+    }
+
+    private ResponseCache createResponseCache(FeignConfig.CacheConfig cacheConfig) {
+        try {
+            return new ResponseCache(
+                    cacheConfig.getMaxSize(),
+                    cacheConfig.getDirectory() != null
+                            ? Paths.get(cacheConfig.getDirectory()).resolve(feignApi.getName())
+                            : null,
+                    cacheConfig.getMaxDiskSize()
+            );
+        } catch (IOException e) {
+            throw SeedException.wrap(e, FeignErrorCode.ERROR_CREATING_CACHE_DIRECTORY)
+                    .put("endpoint", feignApi.getName())
+                    .put("directory", cacheConfig.getDirectory());
+        }
+    }
+
+    private synchronized PhaseTimer getPhaseTimer(FeignConfig.EndpointConfig endpointConfig) {
+        if (phaseTimer == null) {
+            FeignConfig.TimingConfig timingConfig = endpointConfig.getTiming();
+            phaseTimer = new PhaseTimer(
+                    feignApi,
+                    endpointMetrics,
+                    timingConfig.getSampleRate(),
+                    timingConfig.getListener() != null ? instantiateCallTimingListener(timingConfig.getListener())
+                            : null
+            );
+        }
+        return phaseTimer;
+    }
+
+    private synchronized TokenBudget getRetryBudget(FeignConfig.RetryConfig retryConfig) {
+        // Shared by all clients of the endpoint so that retries are bounded whatever the client lifecycle, methods
+        // with their own retry configuration having their own budget
+        return retryBudgets.computeIfAbsent(retryConfig,
+                k -> new TokenBudget(retryConfig.getBudget(), DecorrelatedJitterRetryer.MAX_RETRY_BURST));
+    }
+
+    private synchronized LoadBalancer getLoadBalancer(FeignConfig.EndpointConfig endpointConfig) {
+        // Shared by the targets and the HTTP client so that the instances chosen are those being tracked
+        if (loadBalancer == null) {
+            loadBalancer = new LoadBalancer(endpointConfig.getLoadBalancing());
+        }
+        return loadBalancer;
+    }
+
+    private synchronized EndpointResilience getEndpointResilience(FeignConfig.EndpointConfig endpointConfig) {
+        if (endpointResilience == null) {
+            endpointResilience = new EndpointResilience(endpointConfig.getResilience());
+        }
+        return endpointResilience;
+    }
+
+    private synchronized AsyncInvocationHandlerFactory getAsyncInvocationHandlerFactory(
+            FeignConfig.EndpointConfig endpointConfig, boolean virtualThreads) {
+        // Shared by all clients of the endpoint so the in-flight limit applies to the endpoint as a whole
+        if (asyncInvocationHandlerFactory == null) {
+            asyncInvocationHandlerFactory = new AsyncInvocationHandlerFactory(
+                    new InvocationHandlerFactory.Default(),
+                    getExecutor(endpointConfig, virtualThreads),
+                    endpointConfig.getAsync().getMaxInFlight()
+            );
+        }
+        return asyncInvocationHandlerFactory;
+    }
+
+    private synchronized CollapsingInvocationHandlerFactory getCollapsingInvocationHandlerFactory(
+            FeignConfig.EndpointConfig endpointConfig, boolean virtualThreads, InvocationHandlerFactory delegate) {
+        // Shared by all clients of the endpoint so calls from different clients are collapsed together
+        if (collapsingInvocationHandlerFactory == null) {
+            collapsingInvocationHandlerFactory = new CollapsingInvocationHandlerFactory(
+                    delegate,
+                    getExecutor(endpointConfig, virtualThreads),
+                    feignApi
+            );
+        }
+        return collapsingInvocationHandlerFactory;
+    }
+
+    private synchronized Executor getExecutor(FeignConfig.EndpointConfig endpointConfig, boolean virtualThreads) {
+        if (executor == null) {
+            FeignConfig.AsyncConfig asyncConfig = endpointConfig.getAsync();
+            if (asyncConfig.getExecutor() != null) {
+                executor = instantiateExecutor(asyncConfig.getExecutor());
+            } else if (virtualThreads) {
+                executor = asyncExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            } else {
+                executor = asyncExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                        .setNameFormat("feign-async-" + feignApi.getSimpleName() + "-%d")
+                        .setDaemon(true)
+                        .build());
+            }
+        }
+        return executor;
+    }
+
+    private Client createEngine(FeignConfig.EndpointConfig endpointConfig) {
+        switch (endpointConfig.getEngine()) {
+            case DEFAULT:
+                return new DefaultClient(sslContext != null ? sslContext.getSocketFactory() : null);
+            case POOLED:
+                if (APACHE_HTTP_CLIENT_PRESENT) {
+                    return new PooledClient(endpointConfig.getPool(), sslContext,
+                            endpointConfig.getTiming().isEnabled());
                 } else {
-                    return ((HystrixFeign.Builder) builder).target(
-                            instantiateTarget(endpointConfig),
-                            (T) instantiateFallback(fallback)
+                    throw SeedException.createNew(FeignErrorCode.APACHE_HTTP_CLIENT_NOT_PRESENT)
+                            .put("endpoint", feignApi.getName());
+                }
+            case HTTP2:
+                if (JAVA_HTTP_CLIENT_PRESENT) {
+                    FeignConfig.Http2Config http2Config = endpointConfig.getHttp2();
+                    return new Http2Client(
+                            http2Config.getVersion(),
+                            http2Config.getExecutor() != null ? instantiateExecutor(http2Config.getExecutor()) : null,
+                            sslContext
                     );
+                } else {
+                    throw SeedException.createNew(FeignErrorCode.JAVA_HTTP_CLIENT_NOT_PRESENT)
+                            .put("endpoint", feignApi.getName());
                 }
-            } else {
-                throw SeedException.createNew(FeignErrorCode.HYSTRIX_NOT_PRESENT)
-                        .put("endpoint", feignApi.getName());
-            }
-        } else {
-            return builder.target(instantiateTarget(endpointConfig));
+            default:
+                throw new IllegalArgumentException("Unsupported client engine " + endpointConfig.getEngine());
         }
     }
 
     private Feign.Builder createBuilder(FeignConfig.EndpointConfig endpointConfig) {
+        boolean resilience = endpointConfig.getResilience().isEnabled();
         switch (endpointConfig.getHystrixWrapper()) {
             case AUTO:
-                if (HYSTRIX_PRESENT) {
+                if (HYSTRIX_PRESENT && !resilience) {
                     return HystrixFeign.builder();
                 } else {
                     return Feign.builder();
                 }
             case ENABLED:
-                if (HYSTRIX_PRESENT) {
+                if (resilience) {
+                    throw SeedException.createNew(FeignErrorCode.RESILIENCE_CONFLICTS_WITH_HYSTRIX)
+                            .put("endpoint", feignApi.getName());
+                } else if (HYSTRIX_PRESENT) {
                     return HystrixFeign.builder();
                 } else {
                     throw SeedException.createNew(FeignErrorCode.HYSTRIX_NOT_PRESENT)
@@ -127,6 +476,24 @@ class FeignProvider<T> implements Provider<Object> {
         }
     }
 
+    private boolean useVirtualThreads(FeignConfig.EndpointConfig endpointConfig) {
+        switch (endpointConfig.getExecutionMode()) {
+            case AUTO:
+                return VirtualThreads.isSupported();
+            case VIRTUAL:
+                if (VirtualThreads.isSupported()) {
+                    return true;
+                } else {
+                    throw SeedException.createNew(FeignErrorCode.VIRTUAL_THREADS_NOT_SUPPORTED)
+                            .put("endpoint", feignApi.getName());
+                }
+            case PLATFORM:
+                return false;
+            default:
+                throw new IllegalArgumentException("Unsupported execution mode " + endpointConfig.getExecutionMode());
+        }
+    }
+
     private void setUpRetryOption(Feign.Builder builder, FeignConfig.EndpointConfig endpointConfig){
         //If an endpoint has specific retry configuration, this configuration has priority
         //Else, applying global configuration if found, and finally, the builder will use default Feign configuration
@@ -164,14 +531,36 @@ class FeignProvider<T> implements Provider<Object> {
     }
 
     private void applyRetryConfigurationToBuilder(Feign.Builder builder, FeignConfig.RetryConfig retryConfig){
-        if(retryConfig.isActive()){
-            builder.retryer(new FeignConfigurableRetryer(retryConfig.getPeriod(), retryConfig.getMaxPeriod(), retryConfig.getMaxAttempts()));
+        builder.retryer(createRetryer(retryConfig));
+    }
+
+    private Retryer createRetryer(FeignConfig.RetryConfig retryConfig){
+        if(retryConfig.isActive() && retryConfig.getStrategy() == FeignConfig.RetryStrategy.DECORRELATED_JITTER){
+            return new DecorrelatedJitterRetryer(retryConfig, getRetryBudget(retryConfig), endpointMetrics);
+        }else if(retryConfig.isActive()){
+            return new FeignConfigurableRetryer(retryConfig.getPeriod(), retryConfig.getMaxPeriod(), retryConfig.getMaxAttempts());
         }else{
-            //De-activating retry for this builder
-            builder.retryer(Retryer.NEVER_RETRY);
+            //De-activating retry
+            return Retryer.NEVER_RETRY;
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private T meterFallback(T fallback) {
+        ClassLoader classLoader = feignApi.getClassLoader();
+        return (T) Proxy.newProxyInstance(classLoader, new Class<?>[]{feignApi}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() != Object.class) {
+                endpointMetrics.recordFallback();
+                endpointMetrics.getMethodMetrics(Feign.configKey(feignApi, method)).recordFallback();
+            }
+            try {
+                return method.invoke(fallback, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
     private Object instantiateFallback(Class<?> fallback) {
         try {
             return injector.getInstance(fallback);
@@ -191,6 +580,9 @@ class FeignProvider<T> implements Provider<Object> {
     }
 
     private Encoder instantiateEncoder(Class<? extends Encoder> encoderClass) {
+        if (JacksonEncoder.class.equals(encoderClass)) {
+            return new JacksonEncoder(objectMapper);
+        }
         try {
             return injector.getInstance(encoderClass);
         } catch (Exception e) {
@@ -200,6 +592,9 @@ class FeignProvider<T> implements Provider<Object> {
     }
 
     private Decoder instantiateDecoder(Class<? extends Decoder> decoderClass) {
+        if (JacksonDecoder.class.equals(decoderClass)) {
+            return new JacksonDecoder(objectMapper);
+        }
         try {
             return injector.getInstance(decoderClass);
         } catch (Exception e) {
@@ -230,6 +625,12 @@ class FeignProvider<T> implements Provider<Object> {
     private Target<T> instantiateTarget(EndpointConfig endpointConfig) {
         Class<? extends Target<T>> targetClass = endpointConfig.getTarget(feignApi);
         if (HardCodedTarget.class.equals(targetClass)) {
+            if (!endpointConfig.getLoadBalancing().getInstances().isEmpty()) {
+                return new LoadBalancingTarget<>(feignApi, getLoadBalancer(endpointConfig));
+            } else if (endpointConfig.getBaseUrl() == null) {
+                throw SeedException.createNew(FeignErrorCode.MISSING_BASE_URL)
+                        .put("endpoint", feignApi.getName());
+            }
             return new HardCodedTarget<>(feignApi, endpointConfig.getBaseUrl());
         } else {
             try {
@@ -241,6 +642,26 @@ class FeignProvider<T> implements Provider<Object> {
         }
     }
 
+    private CallTimingListener instantiateCallTimingListener(Class<? extends CallTimingListener> listenerClass) {
+        try {
+            return injector.getInstance(listenerClass);
+        } catch (Exception e) {
+            throw SeedException.wrap(e, FeignErrorCode.ERROR_INSTANTIATING_CALL_TIMING_LISTENER)
+                    .put("class", listenerClass)
+                    .put("endpoint", feignApi.getName());
+        }
+    }
+
+    private Executor instantiateExecutor(Class<? extends Executor> executorClass) {
+        try {
+            return injector.getInstance(executorClass);
+        } catch (Exception e) {
+            throw SeedException.wrap(e, FeignErrorCode.ERROR_INSTANTIATING_EXECUTOR)
+                    .put("class", executorClass)
+                    .put("endpoint", feignApi.getName());
+        }
+    }
+
     private Logger instantiateLogger(Class<? extends Logger> loggerClass) {
         try {
             return injector.getInstance(loggerClass);
@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import org.seedstack.feign.FeignConfig;
+import org.seedstack.feign.Hedged;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client decorator sending a second copy of the GET requests of hedged methods that have not been answered within the
+ * hedging delay. Both attempts run on the endpoint executor and the first response is returned, the other one being
+ * closed as soon as it arrives since blocking HTTP calls cannot be interrupted. A budget caps the hedged requests to a
+ * ratio of the requests of the endpoint.
+ */
+class HedgingClient implements Client {
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int MAX_HEDGE_BURST = 10;
+    private final Map<Method, Optional<Policy>> policies = new ConcurrentHashMap<>();
+    private final Client delegate;
+    private final FeignConfig.HedgingConfig hedgingConfig;
+    private final EndpointMetricsImpl endpointMetrics;
+    private final Executor executor;
+    private final LoadBalancer loadBalancer;
+    private final TokenBudget budget;
+
+    HedgingClient(Client delegate, FeignConfig.HedgingConfig hedgingConfig, EndpointMetricsImpl endpointMetrics,
+            Executor executor, LoadBalancer loadBalancer) {
+        this.delegate = delegate;
+        this.hedgingConfig = hedgingConfig;
+        this.endpointMetrics = endpointMetrics;
+        this.executor = executor;
+        this.loadBalancer = loadBalancer;
+        this.budget = new TokenBudget(hedgingConfig.getBudget(), MAX_HEDGE_BURST);
+    }
+
+    /**
+     * @return true if at least one method of the interface is hedged with the specified configuration.
+     */
+    static boolean hasHedgedMethods(Class<?> feignApi, FeignConfig.HedgingConfig hedgingConfig) {
+        if (hedgingConfig.isEnabled()) {
+            return true;
+        }
+        for (Method method : feignApi.getMethods()) {
+            if (method.isAnnotationPresent(Hedged.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Policy policy = getPolicy(request);
+        if (policy == null) {
+            return delegate.execute(request, options);
+        }
+        budget.deposit();
+
+        Flight flight = new Flight();
+        if (!flight.launch(request, options)) {
+            return delegate.execute(request, options);
+        }
+        try {
+            return flight.result.get(getDelay(policy, request), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (budget.tryWithdraw() && flight.launch(hedgeRequest(request), options)) {
+                endpointMetrics.recordHedgedRequest();
+            }
+            return awaitResponse(flight);
+        } catch (InterruptedException e) {
+            flight.cancel();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a hedged request");
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        }
+    }
+
+    private Policy getPolicy(Request request) {
+        if (request.httpMethod() != Request.HttpMethod.GET || request.requestTemplate() == null) {
+            return null;
+        }
+        MethodMetadata methodMetadata = request.requestTemplate().methodMetadata();
+        if (methodMetadata == null || methodMetadata.method() == null) {
+            return null;
+        }
+        return policies.computeIfAbsent(methodMetadata.method(), this::resolvePolicy).orElse(null);
+    }
+
+    private Optional<Policy> resolvePolicy(Method method) {
+        Hedged hedged = method.getAnnotation(Hedged.class);
+        if (hedged != null) {
+            return Optional.of(new Policy(hedged.delay(), hedged.percentile()));
+        } else if (hedgingConfig.isEnabled()
+                && (hedgingConfig.getMethods().isEmpty() || hedgingConfig.getMethods().contains(method.getName()))) {
+            return Optional.of(new Policy(hedgingConfig.getDelay(), hedgingConfig.getPercentile()));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    private long getDelay(Policy policy, Request request) {
+        if (policy.percentile > 0) {
+            CallMetricsImpl methodMetrics = MetricsCapability.methodMetrics(endpointMetrics,
+                    request.requestTemplate());
+            if (methodMetrics != null && methodMetrics.getLatency().getCount() >= MIN_LATENCY_SAMPLES) {
+                return (long) methodMetrics.getLatency().getPercentile(policy.percentile, TimeUnit.NANOSECONDS);
+            }
+        }
+        return policy.delayNanos;
+    }
+
+    private Request hedgeRequest(Request request) {
+        if (loadBalancer == null) {
+            return request;
+        }
+        String url = request.url();
+        LoadBalancer.Instance instance = loadBalancer.findInstance(url);
+        if (instance == null) {
+            return request;
+        }
+        LoadBalancer.Instance other = loadBalancer.chooseOther(instance);
+        if (other == instance) {
+            return request;
+        }
+        return Request.create(request.httpMethod(), other.getUrl() + url.substring(instance.getUrl().length()),
+                request.headers(), request.body(), request.charset(), request.requestTemplate());
+    }
+
+    private Response awaitResponse(Flight flight) throws IOException {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException e) {
+            flight.cancel();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a hedged request");
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static IOException rethrow(ExecutionException e) throws IOException {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        } else {
+            throw new IOException(cause);
+        }
+    }
+
+    private static void closeQuietly(Response response) {
+        try {
+            response.close();
+        } catch (RuntimeException e) {
+            // Ignore, the response is discarded
+        }
+    }
+
+    private static class Policy {
+        private final long delayNanos;
+        private final double percentile;
+
+        private Policy(long delay, double percentile) {
+            this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delay);
+            this.percentile = percentile;
+        }
+    }
+
+    /**
+     * The attempts of a hedged request, completing its result with the first response or, if all attempts failed,
+     * with the last failure.
+     */
+    private class Flight {
+        private final CompletableFuture<Response> result = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger();
+
+        /**
+         * @return false if the executor rejected the attempt.
+         */
+        private boolean launch(Request request, Request.Options options) {
+            pending.incrementAndGet();
+            try {
+                executor.execute(() -> CallTimingRecord.untimed(() -> attempt(request, options)));
+                return true;
+            } catch (RejectedExecutionException e) {
+                pending.decrementAndGet();
+                return false;
+            }
+        }
+
+        private void attempt(Request request, Request.Options options) {
+            if (result.isDone()) {
+                // Answered or cancelled before this attempt started
+                pending.decrementAndGet();
+                return;
+            }
+            try {
+                Response response = delegate.execute(request, options);
+                if (!result.complete(response)) {
+                    closeQuietly(response);
+                }
+            } catch (Throwable t) {
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(t);
+                }
+                return;
+            }
+            pending.decrementAndGet();
+        }
+
+        private void cancel() {
+            result.cancel(false);
+            result.thenAccept(HedgingClient::closeQuietly);
+        }
+    }
+}
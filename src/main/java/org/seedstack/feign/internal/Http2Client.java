@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.seedstack.feign.FeignConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Feign client based on the JDK {@link HttpClient} (Java 11+). With HTTP/2, concurrent requests to the same host are
+ * multiplexed over a few connections. The JDK client only supports a connect timeout per client, so an additional
+ * client sharing the same executor and SSL context is created for each distinct connect timeout and redirect policy
+ * found in the {@link Request.Options} of requests. These come from the configuration, and at most
+ * {@value #MAX_HTTP_CLIENTS} clients are kept, the least recently used one being shut down beyond that. All of them
+ * are shut down when this client is closed.
+ *
+ * <p>The read timeout bounds the wait for the response headers only: the JDK client has no timeout for reading the
+ * response body.</p>
+ */
+class Http2Client implements Client, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Http2Client.class);
+    private static final int MAX_HTTP_CLIENTS = 8;
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "content-length", "date", "expect", "from", "host", "origin", "referer", "upgrade", "via",
+            "warning"));
+    private final HttpClient.Version version;
+    private final Executor executor;
+    private final SSLContext sslContext;
+    // Guarded by itself
+    private final Map<ClientKey, HttpClient> httpClients = new LinkedHashMap<>(16, 0.75f, true);
+
+    Http2Client(FeignConfig.HttpVersion version, Executor executor, SSLContext sslContext) {
+        this.version = version == FeignConfig.HttpVersion.HTTP_1_1 ? HttpClient.Version.HTTP_1_1
+                : HttpClient.Version.HTTP_2;
+        this.executor = executor;
+        this.sslContext = sslContext;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        HttpClient httpClient = getHttpClient(new ClientKey(options.connectTimeoutMillis(),
+                options.isFollowRedirects()));
+        HttpResponse<InputStream> httpResponse;
+        try {
+            httpResponse = httpClient.send(toHttpRequest(request, options), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+        return toResponse(request, httpResponse);
+    }
+
+    @Override
+    public void close() {
+        List<HttpClient> closed;
+        synchronized (httpClients) {
+            closed = new ArrayList<>(httpClients.values());
+            httpClients.clear();
+        }
+        closed.forEach(Http2Client::shutdown);
+    }
+
+    private HttpClient getHttpClient(ClientKey clientKey) {
+        HttpClient evicted = null;
+        HttpClient httpClient;
+        synchronized (httpClients) {
+            httpClient = httpClients.get(clientKey);
+            if (httpClient == null) {
+                httpClient = createHttpClient(clientKey);
+                httpClients.put(clientKey, httpClient);
+                if (httpClients.size() > MAX_HTTP_CLIENTS) {
+                    Iterator<HttpClient> iterator = httpClients.values().iterator();
+                    evicted = iterator.next();
+                    iterator.remove();
+                }
+            }
+        }
+        if (evicted != null) {
+            shutdown(evicted);
+        }
+        return httpClient;
+    }
+
+    private HttpClient createHttpClient(ClientKey clientKey) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .followRedirects(clientKey.followRedirects ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER);
+        if (clientKey.connectTimeout > 0) {
+            builder.connectTimeout(Duration.ofMillis(clientKey.connectTimeout));
+        }
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        if (sslContext != null) {
+            builder.sslContext(sslContext);
+        }
+        return builder.build();
+    }
+
+    private static void shutdown(HttpClient httpClient) {
+        // Shutting down lets in-flight requests complete but is only available since Java 21, older clients stop
+        // their selector thread once garbage collected
+        try {
+            HttpClient.class.getMethod("shutdown").invoke(httpClient);
+        } catch (ReflectiveOperationException e) {
+            // Not supported by the JVM
+        }
+    }
+
+    private HttpRequest toHttpRequest(Request request, Request.Options options) {
+        byte[] body = request.body();
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(request.url()))
+                .method(request.httpMethod().name(), body != null && body.length > 0
+                        ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (options.readTimeoutMillis() > 0) {
+            builder.timeout(Duration.ofMillis(options.readTimeoutMillis()));
+        }
+        for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+            // The JDK client manages these headers itself and refuses them
+            if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                for (String value : header.getValue()) {
+                    try {
+                        builder.header(header.getKey(), value);
+                    } catch (IllegalArgumentException e) {
+                        // Restricted by this JVM or not a valid header
+                        LOGGER.debug("Skipping header {} refused by the JDK HTTP client", header.getKey(), e);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private Response toResponse(Request request, HttpResponse<InputStream> httpResponse) {
+        OptionalLong length = httpResponse.headers().firstValueAsLong("Content-Length");
+        return Response.builder()
+                .request(request)
+                .status(httpResponse.statusCode())
+                .headers(new HashMap<>(httpResponse.headers().map()))
+                .body(httpResponse.body(), length.isPresent() && length.getAsLong() <= Integer.MAX_VALUE
+                        ? (int) length.getAsLong() : null)
+                .build();
+    }
+
+    private static class ClientKey {
+        private final int connectTimeout;
+        private final boolean followRedirects;
+
+        private ClientKey(int connectTimeout, boolean followRedirects) {
+            this.connectTimeout = connectTimeout;
+            this.followRedirects = followRedirects;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClientKey clientKey = (ClientKey) o;
+            return connectTimeout == clientKey.connectTimeout && followRedirects == clientKey.followRedirects;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(connectTimeout, followRedirects);
+        }
+    }
+}
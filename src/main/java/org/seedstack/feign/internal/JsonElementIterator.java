@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Response;
+import feign.Util;
+import feign.codec.DecodeException;
+import org.seedstack.feign.CloseableIterator;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator lazily parsing the elements of a JSON array directly from the response stream, so only the current
+ * element is held in memory. A response which is not a JSON array is returned as a single element and null elements
+ * are skipped. The response is closed when the last element (or the single value) has been read, when an error occurs
+ * or when the iterator is closed.
+ */
+class JsonElementIterator<T> implements CloseableIterator<T> {
+    private final Response response;
+    private final ObjectMapper objectMapper;
+    private final JavaType elementType;
+    private JsonParser parser;
+    private boolean array;
+    private boolean finished;
+    private T nextElement;
+
+    JsonElementIterator(Response response, ObjectMapper objectMapper, JavaType elementType) {
+        this.response = response;
+        this.objectMapper = objectMapper;
+        this.elementType = elementType;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextElement != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            nextElement = readNext();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw new DecodeException(response.status(), "Unable to decode streamed element: " + e.getMessage(),
+                    response.request(), e);
+        }
+        if (nextElement == null) {
+            close();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T element = nextElement;
+        nextElement = null;
+        return element;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        nextElement = null;
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                // ignore, the response is closed anyway
+            }
+        }
+        Util.ensureClosed(response);
+    }
+
+    private T readNext() throws IOException {
+        JsonToken token;
+        if (parser == null) {
+            if (response.body() == null) {
+                return null;
+            }
+            parser = objectMapper.getFactory().createParser(response.body().asInputStream());
+            token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            array = token == JsonToken.START_ARRAY;
+            if (!array) {
+                // Single value response, nothing follows so the response is released right away
+                T value = objectMapper.readValue(parser, elementType);
+                close();
+                return value;
+            }
+        } else if (!array) {
+            return null;
+        }
+        do {
+            token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+        } while (token == JsonToken.VALUE_NULL);
+        return objectMapper.readValue(parser, elementType);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactive Streams publisher emitting the elements of a streamed JSON response as they are parsed. Elements are only
+ * read from the network when requested by the subscriber, on the endpoint executor so that requesting elements never
+ * blocks the subscriber (§3.4). The publisher supports a single subscriber as the response can only be read once.
+ */
+class JsonElementPublisher<T> implements Publisher<T> {
+    private final JsonElementIterator<T> iterator;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    JsonElementPublisher(JsonElementIterator<T> iterator, Executor executor) {
+        this.iterator = iterator;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        if (subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new ElementSubscription(subscriber));
+        } else {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    // nothing to emit
+                }
+
+                @Override
+                public void cancel() {
+                    // nothing to cancel
+                }
+            });
+            subscriber.onError(new IllegalStateException("A streamed Feign response can only be subscribed once"));
+        }
+    }
+
+    private class ElementSubscription implements Subscription {
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private boolean done;
+
+        private ElementSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Signalled by the drain loop so that signals stay serialized (§1.3)
+                invalidRequest = new IllegalArgumentException("Requested element count must be positive (§3.9)");
+                drain();
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = demand.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!demand.compareAndSet(current, next));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            // Only one task emits at a time, others just signal that there is more work
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                executor.execute(this::emit);
+            } catch (RejectedExecutionException e) {
+                // No task is emitting as this thread holds the work-in-progress counter
+                terminate(e);
+            }
+        }
+
+        private void emit() {
+            int missed = 1;
+            do {
+                if (done) {
+                    return;
+                }
+                long requested = demand.get();
+                long emitted = 0;
+                while (emitted != requested && isActive()) {
+                    boolean hasNext;
+                    T element;
+                    try {
+                        hasNext = iterator.hasNext();
+                        element = hasNext ? iterator.next() : null;
+                    } catch (RuntimeException e) {
+                        terminate(e);
+                        return;
+                    }
+                    if (!hasNext) {
+                        terminate(null);
+                        return;
+                    }
+                    subscriber.onNext(element);
+                    emitted++;
+                }
+                if (cancelled) {
+                    done = true;
+                    iterator.close();
+                    return;
+                }
+                if (invalidRequest != null) {
+                    terminate(invalidRequest);
+                    return;
+                }
+                if (emitted != 0 && emitted == requested && isExhausted()) {
+                    // Complete without waiting for a request that the subscriber has no reason to make
+                    return;
+                }
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private boolean isActive() {
+            return !cancelled && invalidRequest == null;
+        }
+
+        private boolean isExhausted() {
+            try {
+                if (iterator.hasNext()) {
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                terminate(e);
+                return true;
+            }
+            terminate(null);
+            return true;
+        }
+
+        /**
+         * Ends the subscription with an error, or with completion if the error is null. Only called by the thread
+         * holding the work-in-progress counter.
+         */
+        private void terminate(Throwable error) {
+            done = true;
+            iterator.close();
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.seedstack.feign.FeignConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses the instance of each call of a load-balanced endpoint. The calls in flight and the latency EWMA of each
+ * instance are tracked with atomic counters so choosing never blocks.
+ */
+class LoadBalancer {
+    private final FeignConfig.LoadBalancingStrategy strategy;
+    private final Instance[] instances;
+    private final Instance[] roundRobinSchedule;
+    private final int[] cumulativeWeights;
+    private final AtomicLong roundRobinCounter = new AtomicLong();
+
+    LoadBalancer(FeignConfig.LoadBalancingConfig loadBalancingConfig) {
+        this(loadBalancingConfig, System::nanoTime);
+    }
+
+    LoadBalancer(FeignConfig.LoadBalancingConfig loadBalancingConfig, LongSupplier nanoClock) {
+        this.strategy = loadBalancingConfig.getStrategy();
+        long decayNanos = TimeUnit.MILLISECONDS.toNanos(loadBalancingConfig.getDecayTime());
+        List<FeignConfig.InstanceConfig> instanceConfigs = loadBalancingConfig.getInstances();
+        this.instances = new Instance[instanceConfigs.size()];
+        this.cumulativeWeights = new int[instances.length];
+        int totalWeight = 0;
+        for (int i = 0; i < instances.length; i++) {
+            FeignConfig.InstanceConfig instanceConfig = instanceConfigs.get(i);
+            instances[i] = new Instance(instanceConfig.getUrl(), instanceConfig.getWeight(), decayNanos, nanoClock);
+            totalWeight += instanceConfig.getWeight();
+            cumulativeWeights[i] = totalWeight;
+        }
+        this.roundRobinSchedule = buildRoundRobinSchedule(instances);
+    }
+
+    /**
+     * @return the instance that should receive the next call.
+     */
+    Instance choose() {
+        if (instances.length == 1) {
+            return instances[0];
+        }
+        switch (strategy) {
+            case ROUND_ROBIN:
+                return roundRobinSchedule[(int) (roundRobinCounter.getAndIncrement() % roundRobinSchedule.length)];
+            case LEAST_OUTSTANDING:
+                return chooseLeastOutstanding();
+            case POWER_OF_TWO_CHOICES:
+                return choosePowerOfTwo();
+            default:
+                throw new IllegalArgumentException("Unsupported load-balancing strategy " + strategy);
+        }
+    }
+
+    /**
+     * @return an instance other than the specified one if there are several, for a second attempt of a call.
+     */
+    Instance chooseOther(Instance excluded) {
+        for (int i = 0; i < 3; i++) {
+            // Round-robin draws at random so that second attempts do not shift the schedule of first ones
+            Instance candidate = strategy == FeignConfig.LoadBalancingStrategy.ROUND_ROBIN
+                    ? instances[chooseWeightedRandom(ThreadLocalRandom.current())]
+                    : choose();
+            if (candidate != excluded) {
+                return candidate;
+            }
+        }
+        for (Instance instance : instances) {
+            if (instance != excluded) {
+                return instance;
+            }
+        }
+        return excluded;
+    }
+
+    /**
+     * @return the instance whose base URL is the longest prefix of the specified request URL, or null if none.
+     */
+    Instance findInstance(String url) {
+        Instance found = null;
+        for (Instance instance : instances) {
+            if (instance.matches(url) && (found == null || instance.url.length() > found.url.length())) {
+                found = instance;
+            }
+        }
+        return found;
+    }
+
+    String getFirstUrl() {
+        return instances[0].getUrl();
+    }
+
+    String getUrls() {
+        StringBuilder sb = new StringBuilder();
+        for (Instance instance : instances) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(instance.getUrl());
+        }
+        return sb.toString();
+    }
+
+    private Instance chooseLeastOutstanding() {
+        // Start at a random position so ties do not always favor the same instance
+        int offset = ThreadLocalRandom.current().nextInt(instances.length);
+        Instance best = null;
+        int bestInFlight = 0;
+        for (int i = 0; i < instances.length; i++) {
+            Instance candidate = instances[(offset + i) % instances.length];
+            int inFlight = candidate.getInFlight();
+            if (best == null || (long) inFlight * best.weight < (long) bestInFlight * candidate.weight) {
+                best = candidate;
+                bestInFlight = inFlight;
+            }
+        }
+        return best;
+    }
+
+    private Instance choosePowerOfTwo() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = chooseWeightedRandom(random);
+        int second = chooseWeightedRandom(random);
+        if (second == first) {
+            second = (first + 1 + random.nextInt(instances.length - 1)) % instances.length;
+        }
+        Instance a = instances[first];
+        Instance b = instances[second];
+        return a.getCost() <= b.getCost() ? a : b;
+    }
+
+    private int chooseWeightedRandom(ThreadLocalRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Interleaves the instances according to their weight (smooth weighted round-robin) so that the schedule can then
+     * be walked with a single atomic counter.
+     */
+    private static Instance[] buildRoundRobinSchedule(Instance[] instances) {
+        int divisor = 0;
+        int totalWeight = 0;
+        for (Instance instance : instances) {
+            divisor = gcd(divisor, instance.weight);
+        }
+        int[] weights = new int[instances.length];
+        for (int i = 0; i < instances.length; i++) {
+            weights[i] = instances[i].weight / divisor;
+            totalWeight += weights[i];
+        }
+        List<Instance> schedule = new ArrayList<>(totalWeight);
+        int[] current = new int[instances.length];
+        for (int n = 0; n < totalWeight; n++) {
+            int selected = 0;
+            for (int i = 0; i < instances.length; i++) {
+                current[i] += weights[i];
+                if (current[i] > current[selected]) {
+                    selected = i;
+                }
+            }
+            current[selected] -= totalWeight;
+            schedule.add(instances[selected]);
+        }
+        return schedule.toArray(new Instance[0]);
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    static class Instance {
+        private final String url;
+        private final int weight;
+        private final long decayNanos;
+        private final LongSupplier nanoClock;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong latencyEwma = new AtomicLong(Double.doubleToLongBits(0));
+        private volatile long lastUpdate;
+
+        private Instance(String url, int weight, long decayNanos, LongSupplier nanoClock) {
+            this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+            this.weight = weight;
+            this.decayNanos = decayNanos;
+            this.nanoClock = nanoClock;
+            this.lastUpdate = nanoClock.getAsLong();
+        }
+
+        String getUrl() {
+            return url;
+        }
+
+        int getInFlight() {
+            return inFlight.get();
+        }
+
+        void start() {
+            inFlight.incrementAndGet();
+        }
+
+        /**
+         * Ends a call and adds its latency to the EWMA, which jumps to latency peaks immediately and decays
+         * exponentially with time otherwise.
+         */
+        void end(long latencyNanos) {
+            inFlight.decrementAndGet();
+            long now = nanoClock.getAsLong();
+            double decay = Math.exp(-(double) Math.max(now - lastUpdate, 0) / decayNanos);
+            lastUpdate = now;
+            while (true) {
+                long bits = latencyEwma.get();
+                double ewma = Double.longBitsToDouble(bits);
+                double updated = latencyNanos > ewma ? latencyNanos : ewma * decay + latencyNanos * (1 - decay);
+                if (latencyEwma.compareAndSet(bits, Double.doubleToLongBits(updated))) {
+                    return;
+                }
+            }
+        }
+
+        private double getCost() {
+            return Double.longBitsToDouble(latencyEwma.get()) * (inFlight.get() + 1) / weight;
+        }
+
+        private boolean matches(String requestUrl) {
+            if (!requestUrl.startsWith(url)) {
+                return false;
+            }
+            if (requestUrl.length() == url.length()) {
+                return true;
+            }
+            char next = requestUrl.charAt(url.length());
+            return next == '/' || next == '?' || next == '#';
+        }
+    }
+}
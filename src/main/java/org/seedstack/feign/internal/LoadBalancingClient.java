@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * Client decorator tracking the calls in flight and the latency of the instances of a load-balanced endpoint.
+ */
+class LoadBalancingClient implements Client {
+    private final Client delegate;
+    private final LoadBalancer loadBalancer;
+
+    LoadBalancingClient(Client delegate, LoadBalancer loadBalancer) {
+        this.delegate = delegate;
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        LoadBalancer.Instance instance = loadBalancer.findInstance(request.url());
+        if (instance == null) {
+            // Absolute URL of a method not targeting any instance
+            return delegate.execute(request, options);
+        }
+        instance.start();
+        long start = System.nanoTime();
+        try {
+            return delegate.execute(request, options);
+        } finally {
+            instance.end(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Target;
+
+/**
+ * Target spreading the calls of an endpoint over several instances chosen by a {@link LoadBalancer}. Retried calls
+ * choose their instance again.
+ */
+class LoadBalancingTarget<T> implements Target<T> {
+    private final Class<T> type;
+    private final LoadBalancer loadBalancer;
+
+    LoadBalancingTarget(Class<T> type, LoadBalancer loadBalancer) {
+        this.type = type;
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public Class<T> type() {
+        return type;
+    }
+
+    @Override
+    public String name() {
+        return loadBalancer.getUrls();
+    }
+
+    @Override
+    public String url() {
+        return loadBalancer.getFirstUrl();
+    }
+
+    @Override
+    public Request apply(RequestTemplate input) {
+        String url = input.url();
+        // Relative URLs and retried ones targeting a known instance choose their instance again, other absolute
+        // URLs are left untouched
+        if (url.indexOf("http") != 0 || loadBalancer.findInstance(url) != null) {
+            input.target(loadBalancer.choose().getUrl());
+        }
+        return input.request();
+    }
+
+    @Override
+    public String toString() {
+        return "LoadBalancingTarget(type=" + type.getSimpleName() + ", urls=" + loadBalancer.getUrls() + ")";
+    }
+}
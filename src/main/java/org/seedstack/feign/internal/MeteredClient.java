@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import org.seedstack.feign.CallPhase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Client decorator measuring each HTTP exchange of an endpoint: status codes and body bytes sent and received, as
+ * they go over the wire, and the time to first byte and body read phases when phase timing is enabled. Exchanges
+ * executed on behalf of another thread, like hedged attempts, are not timed as they are decoded elsewhere.
+ */
+class MeteredClient implements Client {
+    private final Client delegate;
+    private final EndpointMetricsImpl endpointMetrics;
+    private final PhaseTimer phaseTimer;
+
+    MeteredClient(Client delegate, EndpointMetricsImpl endpointMetrics, PhaseTimer phaseTimer) {
+        this.delegate = delegate;
+        this.endpointMetrics = endpointMetrics;
+        this.phaseTimer = phaseTimer;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        CallMetricsImpl methodMetrics = MetricsCapability.methodMetrics(endpointMetrics, request.requestTemplate());
+        if (request.body() != null) {
+            endpointMetrics.recordBytesSent(request.length());
+            if (methodMetrics != null) {
+                methodMetrics.recordBytesSent(request.length());
+            }
+        }
+
+        CallTimingRecord record = null;
+        if (phaseTimer != null && request.requestTemplate() != null && CallTimingRecord.isTimed()) {
+            record = phaseTimer.start(request.requestTemplate());
+            record.setRequest(request);
+        }
+        Response response = execute(request, options, record);
+        endpointMetrics.recordStatus(response.status());
+        if (methodMetrics != null) {
+            methodMetrics.recordStatus(response.status());
+        }
+
+        if (record != null && !reachesDecoder(request, response)) {
+            record.complete(false);
+        }
+        if (response.body() == null) {
+            return response;
+        }
+        InputStream body = response.body().asInputStream();
+        if (record != null && !record.isCompleted()) {
+            body = new TimedInputStream(body, record);
+        }
+        return response.toBuilder()
+                .body(new CountingInputStream(body, bytes -> {
+                    endpointMetrics.recordBytesReceived(bytes);
+                    if (methodMetrics != null) {
+                        methodMetrics.recordBytesReceived(bytes);
+                    }
+                }), response.body().length())
+                .build();
+    }
+
+    private Response execute(Request request, Request.Options options, CallTimingRecord record) throws IOException {
+        if (record == null) {
+            return delegate.execute(request, options);
+        }
+        long start = System.nanoTime();
+        long connectionStart = record.getConnectionNanos();
+        Response response;
+        try {
+            response = delegate.execute(request, options);
+        } catch (IOException | RuntimeException e) {
+            record.complete(true);
+            throw e;
+        }
+        // Connection phases are measured by the engine when it supports it
+        long connection = record.getConnectionNanos() - connectionStart;
+        record.add(CallPhase.TIME_TO_FIRST_BYTE, System.nanoTime() - start - connection);
+        record.setStatus(response.status());
+        if (response.status() < 200 || response.status() >= 300) {
+            // Unsuccessful responses go to the error decoder and are not timed further
+            record.complete(response.status() >= 400);
+        }
+        return response;
+    }
+
+    private static boolean reachesDecoder(Request request, Response response) {
+        if (response.body() == null) {
+            return false;
+        }
+        MethodMetadata methodMetadata = request.requestTemplate().methodMetadata();
+        if (methodMetadata == null) {
+            return true;
+        }
+        // Feign returns raw responses and discards the body of void methods without decoding them
+        Type returnType = methodMetadata.returnType();
+        return returnType != Response.class && returnType != void.class && returnType != Void.class;
+    }
+}
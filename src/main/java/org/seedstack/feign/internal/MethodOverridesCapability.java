@@ -0,0 +1,274 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Capability;
+import feign.Client;
+import feign.InvocationHandlerFactory;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Logger;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import feign.Retryer;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Feign capability applying the options of the methods overriding those of their endpoint. The settings of each
+ * method are bound to its method handler when the client is built and attached to the thread running the handler for
+ * the duration of the call: the timeouts and follow redirects replace the endpoint ones unless options are passed as
+ * a method argument, the retries go through the retryer of the method or are capped to its maximum attempts, and the
+ * log level of each method is applied by the logger, the client logging at the most verbose level. It has to be added
+ * before the metrics capability so that method retries are measured.
+ */
+public class MethodOverridesCapability implements Capability {
+    private final ThreadLocal<MethodSettings> currentSettings = new ThreadLocal<>();
+    private final Map<Method, MethodSettings> methodSettings;
+    private final Request.Options endpointOptions;
+    private final Logger.Level endpointLogLevel;
+    private final Logger.Level clientLogLevel;
+    private final boolean logLevelOverridden;
+
+    MethodOverridesCapability(Map<Method, MethodSettings> methodSettings, Request.Options endpointOptions,
+            Logger.Level endpointLogLevel) {
+        this.methodSettings = methodSettings;
+        this.endpointOptions = endpointOptions;
+        this.endpointLogLevel = endpointLogLevel;
+        Logger.Level mostVerbose = endpointLogLevel;
+        for (MethodSettings settings : methodSettings.values()) {
+            if (settings.getLogLevel().ordinal() > mostVerbose.ordinal()) {
+                mostVerbose = settings.getLogLevel();
+            }
+        }
+        this.clientLogLevel = mostVerbose;
+        this.logLevelOverridden = methodSettings.values().stream()
+                .anyMatch(settings -> settings.getLogLevel() != endpointLogLevel);
+    }
+
+    @Override
+    public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+        return (target, dispatch) -> {
+            Map<Method, MethodHandler> settingsDispatch = new LinkedHashMap<>(dispatch);
+            for (Map.Entry<Method, MethodHandler> entry : dispatch.entrySet()) {
+                MethodSettings settings = methodSettings.get(entry.getKey());
+                if (settings != null) {
+                    settingsDispatch.put(entry.getKey(), new SettingsMethodHandler(entry.getValue(), settings));
+                }
+            }
+            return invocationHandlerFactory.create(target, settingsDispatch);
+        };
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            MethodSettings settings = currentSettings.get();
+            // Any other options than those of the endpoint were passed as a method argument and take precedence
+            return client.execute(request, settings != null && options == endpointOptions ? settings.getOptions()
+                    : options);
+        };
+    }
+
+    @Override
+    public Retryer enrich(Retryer retryer) {
+        return new MethodRetryer(retryer, 0);
+    }
+
+    /**
+     * @return the log level of the client, which is the most verbose of the endpoint and its methods as Feign only logs
+     * the calls of a client up to its level.
+     */
+    Logger.Level getLogLevel() {
+        return clientLogLevel;
+    }
+
+    @Override
+    public Logger enrich(Logger logger) {
+        return logLevelOverridden ? new MethodLevelLogger(logger) : logger;
+    }
+
+    /**
+     * Method handler attaching the settings of its method to the thread running the call, which is the thread on
+     * which Feign clones the retryer, executes the client and logs.
+     */
+    private class SettingsMethodHandler implements MethodHandler {
+        private final MethodHandler methodHandler;
+        private final MethodSettings settings;
+
+        private SettingsMethodHandler(MethodHandler methodHandler, MethodSettings settings) {
+            this.methodHandler = methodHandler;
+            this.settings = settings;
+        }
+
+        @Override
+        public Object invoke(Object[] argv) throws Throwable {
+            MethodSettings previous = currentSettings.get();
+            currentSettings.set(settings);
+            try {
+                return methodHandler.invoke(argv);
+            } finally {
+                if (previous != null) {
+                    currentSettings.set(previous);
+                } else {
+                    currentSettings.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Retryer delegating to the retryer of the endpoint, capped to the maximum attempts of the method if any. Feign
+     * clones the retryer when each call starts, which is when the retryer of the call is chosen: the one of the method
+     * if it has its own retry configuration, the one of the endpoint otherwise.
+     */
+    private class MethodRetryer implements Retryer {
+        private final Retryer delegate;
+        private final int maxAttempts;
+        private int attempt = 1;
+
+        private MethodRetryer(Retryer delegate, int maxAttempts) {
+            this.delegate = delegate;
+            this.maxAttempts = maxAttempts;
+        }
+
+        @Override
+        public void continueOrPropagate(RetryableException e) {
+            if (maxAttempts > 0 && attempt++ >= maxAttempts) {
+                throw e;
+            }
+            delegate.continueOrPropagate(e);
+        }
+
+        @Override
+        public Retryer clone() {
+            MethodSettings settings = currentSettings.get();
+            if (settings == null) {
+                return new MethodRetryer(delegate.clone(), 0);
+            } else if (settings.getRetryer() != null) {
+                return settings.getRetryer().clone();
+            } else {
+                return new MethodRetryer(delegate.clone(), settings.getMaxAttempts());
+            }
+        }
+    }
+
+    /**
+     * Logger applying the level of the current method before delegating to the configured logger. The logging methods
+     * of Feign loggers are protected, so they are invoked through method handles resolved once.
+     */
+    private class MethodLevelLogger extends Logger {
+        private final Logger delegate;
+
+        private MethodLevelLogger(Logger delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected void log(String configKey, String format, Object... args) {
+            try {
+                LoggerMethods.LOG.invokeExact(delegate, configKey, format, args);
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        @Override
+        protected void logRequest(String configKey, Level logLevel, Request request) {
+            Level level = getLevel();
+            if (level != Level.NONE) {
+                try {
+                    LoggerMethods.LOG_REQUEST.invokeExact(delegate, configKey, level, request);
+                } catch (Throwable t) {
+                    throw propagate(t);
+                }
+            }
+        }
+
+        @Override
+        protected void logRetry(String configKey, Level logLevel) {
+            Level level = getLevel();
+            if (level != Level.NONE) {
+                try {
+                    LoggerMethods.LOG_RETRY.invokeExact(delegate, configKey, level);
+                } catch (Throwable t) {
+                    throw propagate(t);
+                }
+            }
+        }
+
+        @Override
+        protected Response logAndRebufferResponse(String configKey, Level logLevel, Response response,
+                long elapsedTime) throws IOException {
+            Level level = getLevel();
+            if (level == Level.NONE) {
+                return response;
+            }
+            try {
+                return (Response) LoggerMethods.LOG_AND_REBUFFER_RESPONSE.invokeExact(delegate, configKey, level,
+                        response, elapsedTime);
+            } catch (IOException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        @Override
+        protected IOException logIOException(String configKey, Level logLevel, IOException ioe, long elapsedTime) {
+            Level level = getLevel();
+            if (level == Level.NONE) {
+                return ioe;
+            }
+            try {
+                return (IOException) LoggerMethods.LOG_IO_EXCEPTION.invokeExact(delegate, configKey, level, ioe,
+                        elapsedTime);
+            } catch (Throwable t) {
+                throw propagate(t);
+            }
+        }
+
+        private Level getLevel() {
+            MethodSettings settings = currentSettings.get();
+            return settings != null ? settings.getLogLevel() : endpointLogLevel;
+        }
+
+        private RuntimeException propagate(Throwable t) {
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            return t instanceof RuntimeException ? (RuntimeException) t : new IllegalStateException(t);
+        }
+    }
+
+    private static class LoggerMethods {
+        private static final MethodHandle LOG = getLoggerMethod("log", String.class, String.class, Object[].class);
+        private static final MethodHandle LOG_REQUEST = getLoggerMethod("logRequest", String.class,
+                Logger.Level.class, Request.class);
+        private static final MethodHandle LOG_RETRY = getLoggerMethod("logRetry", String.class, Logger.Level.class);
+        private static final MethodHandle LOG_AND_REBUFFER_RESPONSE = getLoggerMethod("logAndRebufferResponse",
+                String.class, Logger.Level.class, Response.class, long.class);
+        private static final MethodHandle LOG_IO_EXCEPTION = getLoggerMethod("logIOException", String.class,
+                Logger.Level.class, IOException.class, long.class);
+
+        private static MethodHandle getLoggerMethod(String name, Class<?>... parameterTypes) {
+            try {
+                Method method = Logger.class.getDeclaredMethod(name, parameterTypes);
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("Feign logger method " + name + " not found", e);
+            }
+        }
+    }
+}
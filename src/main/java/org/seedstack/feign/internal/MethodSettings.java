@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Feign;
+import feign.Logger;
+import feign.Request;
+import feign.Retryer;
+import org.seedstack.feign.FeignConfig;
+import org.seedstack.feign.MethodOptions;
+import org.seedstack.seed.SeedException;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Options of a {@link org.seedstack.feign.FeignApi} method overriding those of its endpoint, resolved once from the
+ * {@link MethodOptions} annotation and the method overrides of the endpoint configuration.
+ */
+final class MethodSettings {
+    private final Request.Options options;
+    private final Retryer retryer;
+    private final int maxAttempts;
+    private final Logger.Level logLevel;
+
+    private MethodSettings(FeignConfig.EndpointConfig endpointConfig, MethodOptions methodOptions,
+            FeignConfig.MethodConfig methodConfig, Function<FeignConfig.RetryConfig, Retryer> retryerFactory) {
+        long connectTimeout = endpointConfig.getTimeUnit().toMillis(endpointConfig.getConnectTimeout());
+        long readTimeout = endpointConfig.getTimeUnit().toMillis(endpointConfig.getReadTimeout());
+        boolean followRedirects = endpointConfig.isFollowRedirects();
+        Logger.Level logLevel = endpointConfig.getLogLevel();
+        Retryer retryer = null;
+        int maxAttempts = 0;
+
+        if (methodOptions != null) {
+            if (methodOptions.connectTimeout() >= 0) {
+                connectTimeout = methodOptions.timeUnit().toMillis(methodOptions.connectTimeout());
+            }
+            if (methodOptions.readTimeout() >= 0) {
+                readTimeout = methodOptions.timeUnit().toMillis(methodOptions.readTimeout());
+            }
+            if (methodOptions.maxAttempts() > 0) {
+                maxAttempts = methodOptions.maxAttempts();
+            }
+            if (methodOptions.logLevel().length > 0) {
+                logLevel = methodOptions.logLevel()[0];
+            }
+        }
+
+        // The configuration can be changed without rebuilding the application so it has the last word
+        if (methodConfig != null) {
+            TimeUnit timeUnit = methodConfig.getTimeUnit() != null ? methodConfig.getTimeUnit()
+                    : endpointConfig.getTimeUnit();
+            if (methodConfig.getConnectTimeout() != null) {
+                connectTimeout = timeUnit.toMillis(methodConfig.getConnectTimeout());
+            }
+            if (methodConfig.getReadTimeout() != null) {
+                readTimeout = timeUnit.toMillis(methodConfig.getReadTimeout());
+            }
+            if (methodConfig.getFollowRedirects() != null) {
+                followRedirects = methodConfig.getFollowRedirects();
+            }
+            if (methodConfig.getRetry() != null) {
+                retryer = retryerFactory.apply(methodConfig.getRetry());
+                maxAttempts = 0;
+            }
+            if (methodConfig.getLogLevel() != null) {
+                logLevel = methodConfig.getLogLevel();
+            }
+        }
+
+        this.options = new Request.Options(connectTimeout, TimeUnit.MILLISECONDS, readTimeout, TimeUnit.MILLISECONDS,
+                followRedirects);
+        this.retryer = retryer;
+        this.maxAttempts = maxAttempts;
+        this.logLevel = logLevel;
+    }
+
+    /**
+     * Resolves the settings of the methods of an endpoint that override its options.
+     *
+     * @param feignApi       the endpoint interface.
+     * @param endpointConfig the endpoint configuration.
+     * @param retryerFactory the factory of the retryers of the methods with their own retry configuration.
+     * @return the settings of the overridden methods only.
+     */
+    static Map<Method, MethodSettings> resolve(Class<?> feignApi, FeignConfig.EndpointConfig endpointConfig,
+            Function<FeignConfig.RetryConfig, Retryer> retryerFactory) {
+        Map<String, FeignConfig.MethodConfig> methodConfigs = endpointConfig.getMethods();
+        Set<String> unknownMethods = new HashSet<>(methodConfigs.keySet());
+        Map<Method, MethodSettings> methodSettings = new HashMap<>();
+        for (Method method : feignApi.getMethods()) {
+            if (method.getDeclaringClass() == Object.class
+                    || Modifier.isStatic(method.getModifiers())
+                    || method.isDefault()) {
+                continue;
+            }
+            unknownMethods.remove(getSignature(feignApi, method));
+            unknownMethods.remove(method.getName());
+
+            FeignConfig.MethodConfig methodConfig = getMethodConfig(feignApi, method, methodConfigs);
+            if (methodConfig != null && !overridesOptions(methodConfig)) {
+                // Not all method configurations override the client options (e.g. rate limits)
+                methodConfig = null;
+            }
+            MethodOptions methodOptions = method.getAnnotation(MethodOptions.class);
+            if (methodConfig != null || methodOptions != null) {
+                methodSettings.put(method, new MethodSettings(endpointConfig, methodOptions, methodConfig,
+                        retryerFactory));
+            }
+        }
+        if (!unknownMethods.isEmpty()) {
+            throw SeedException.createNew(FeignErrorCode.UNKNOWN_OVERRIDDEN_METHOD)
+                    .put("endpoint", feignApi.getName())
+                    .put("method", unknownMethods.iterator().next());
+        }
+        return methodSettings;
+    }
+
+    /**
+     * Finds the configuration of a method among the method configurations of its endpoint.
+     *
+     * @param feignApi      the endpoint interface.
+     * @param method        the method.
+     * @param methodConfigs the method configurations of the endpoint.
+     * @return the method configuration, or null if the method has none.
+     */
+    static FeignConfig.MethodConfig getMethodConfig(Class<?> feignApi, Method method,
+            Map<String, FeignConfig.MethodConfig> methodConfigs) {
+        // A signature is more specific than a name shared by overloaded methods
+        FeignConfig.MethodConfig methodConfig = methodConfigs.get(getSignature(feignApi, method));
+        return methodConfig != null ? methodConfig : methodConfigs.get(method.getName());
+    }
+
+    Request.Options getOptions() {
+        return options;
+    }
+
+    Retryer getRetryer() {
+        return retryer;
+    }
+
+    /**
+     * @return the maximum number of attempts of a call, capping those of the endpoint retryer, or 0 if uncapped.
+     */
+    int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    Logger.Level getLogLevel() {
+        return logLevel;
+    }
+
+    private static String getSignature(Class<?> feignApi, Method method) {
+        String configKey = Feign.configKey(feignApi, method);
+        return configKey.substring(configKey.indexOf('#') + 1);
+    }
+
+    private static boolean overridesOptions(FeignConfig.MethodConfig methodConfig) {
+        return methodConfig.getTimeUnit() != null
+                || methodConfig.getConnectTimeout() != null
+                || methodConfig.getReadTimeout() != null
+                || methodConfig.getFollowRedirects() != null
+                || methodConfig.getLogLevel() != null
+                || methodConfig.getRetry() != null;
+    }
+}
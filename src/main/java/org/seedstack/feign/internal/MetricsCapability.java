@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Capability;
+import feign.Feign;
+import feign.InvocationHandlerFactory;
+import feign.RequestTemplate;
+import feign.RetryableException;
+import feign.Retryer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Feign capability measuring the method invocations of a client (latency, throughput, in-flight calls and errors)
+ * and its retries. As capabilities are applied when the client is built, it also instruments the invocation handlers
+ * created by Hystrix, fallbacks included.
+ */
+public class MetricsCapability implements Capability {
+    private final EndpointMetricsImpl endpointMetrics;
+
+    MetricsCapability(EndpointMetricsImpl endpointMetrics) {
+        this.endpointMetrics = endpointMetrics;
+    }
+
+    static CallMetricsImpl methodMetrics(EndpointMetricsImpl endpointMetrics, RequestTemplate requestTemplate) {
+        if (requestTemplate == null || requestTemplate.methodMetadata() == null) {
+            return null;
+        }
+        return endpointMetrics.getMethodMetrics(requestTemplate.methodMetadata().configKey());
+    }
+
+    @Override
+    public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+        return (target, dispatch) -> {
+            InvocationHandler invocationHandler = invocationHandlerFactory.create(target, dispatch);
+            Map<Method, CallMetricsImpl> methodMetrics = new HashMap<>();
+            for (Method method : dispatch.keySet()) {
+                methodMetrics.put(method, endpointMetrics.getMethodMetrics(Feign.configKey(target.type(), method)));
+            }
+            return (proxy, method, args) -> {
+                CallMetricsImpl metrics = methodMetrics.get(method);
+                if (metrics == null) {
+                    // Object methods
+                    return invocationHandler.invoke(proxy, method, args);
+                }
+                return invoke(invocationHandler, metrics, proxy, method, args);
+            };
+        };
+    }
+
+    @Override
+    public Retryer enrich(Retryer retryer) {
+        return new MeteredRetryer(retryer);
+    }
+
+    private Object invoke(InvocationHandler invocationHandler, CallMetricsImpl metrics, Object proxy, Method method,
+            Object[] args) throws Throwable {
+        long start = System.nanoTime();
+        endpointMetrics.recordCallStart();
+        metrics.recordCallStart();
+        Object result;
+        try {
+            result = invocationHandler.invoke(proxy, method, args);
+        } catch (Throwable t) {
+            recordCallEnd(metrics, start, true);
+            throw t;
+        }
+        if (result instanceof CompletableFuture) {
+            // Asynchronous calls are measured until their completion
+            ((CompletableFuture<?>) result).whenComplete((r, t) -> recordCallEnd(metrics, start, t != null));
+        } else {
+            recordCallEnd(metrics, start, false);
+        }
+        return result;
+    }
+
+    private void recordCallEnd(CallMetricsImpl metrics, long start, boolean error) {
+        long nanos = System.nanoTime() - start;
+        endpointMetrics.recordCallEnd(nanos, error);
+        metrics.recordCallEnd(nanos, error);
+    }
+
+    private class MeteredRetryer implements Retryer {
+        private final Retryer delegate;
+
+        private MeteredRetryer(Retryer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void continueOrPropagate(RetryableException e) {
+            delegate.continueOrPropagate(e);
+            // Not propagated: the exchange will be retried
+            endpointMetrics.recordRetry();
+            CallMetricsImpl metrics = e.request() != null
+                    ? methodMetrics(endpointMetrics, e.request().requestTemplate())
+                    : null;
+            if (metrics != null) {
+                metrics.recordRetry();
+            }
+        }
+
+        @Override
+        public Retryer clone() {
+            return new MeteredRetryer(delegate.clone());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.RequestTemplate;
+import org.seedstack.feign.CallPhase;
+import org.seedstack.feign.CallTimingListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts the per-phase timing records of an endpoint and, once complete, records their phases in the endpoint and
+ * method metrics and publishes the sampled ones.
+ */
+class PhaseTimer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PhaseTimer.class);
+    private static final CallPhase[] PHASES = CallPhase.values();
+    private final Class<?> feignApi;
+    private final EndpointMetricsImpl endpointMetrics;
+    private final double sampleRate;
+    private final CallTimingListener listener;
+
+    PhaseTimer(Class<?> feignApi, EndpointMetricsImpl endpointMetrics, double sampleRate,
+            CallTimingListener listener) {
+        this.feignApi = feignApi;
+        this.endpointMetrics = endpointMetrics;
+        this.sampleRate = sampleRate;
+        this.listener = listener;
+    }
+
+    CallTimingRecord start(RequestTemplate requestTemplate) {
+        return CallTimingRecord.of(requestTemplate, this);
+    }
+
+    Class<?> getFeignApi() {
+        return feignApi;
+    }
+
+    void complete(CallTimingRecord record) {
+        CallMetricsImpl methodMetrics = MetricsCapability.methodMetrics(endpointMetrics, record.getRequestTemplate());
+        for (CallPhase phase : PHASES) {
+            if (record.hasOccurred(phase)) {
+                long nanos = record.get(phase);
+                endpointMetrics.recordPhase(phase, nanos);
+                if (methodMetrics != null) {
+                    methodMetrics.recordPhase(phase, nanos);
+                }
+            }
+        }
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            publish(record);
+        }
+    }
+
+    private void publish(CallTimingRecord record) {
+        if (listener == null) {
+            LOGGER.info("Feign call timing: {}", record);
+        } else {
+            try {
+                listener.onCallTiming(record);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Call timing listener {} of Feign endpoint {} failed", listener.getClass().getName(),
+                        feignApi.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Capability;
+import feign.RequestInterceptor;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import org.seedstack.feign.CallPhase;
+
+/**
+ * Feign capability timing the interceptors, encoder and decoder phases of each HTTP exchange. The exchange itself is
+ * timed by {@link MeteredClient}.
+ */
+public class PhaseTimingCapability implements Capability {
+    private final PhaseTimer phaseTimer;
+
+    PhaseTimingCapability(PhaseTimer phaseTimer) {
+        this.phaseTimer = phaseTimer;
+    }
+
+    @Override
+    public Encoder enrich(Encoder encoder) {
+        return (object, bodyType, template) -> {
+            CallTimingRecord record = CallTimingRecord.forEncoding(phaseTimer);
+            long start = System.nanoTime();
+            try {
+                encoder.encode(object, bodyType, template);
+            } finally {
+                record.add(CallPhase.ENCODE, System.nanoTime() - start);
+            }
+        };
+    }
+
+    @Override
+    public RequestInterceptor enrich(RequestInterceptor requestInterceptor) {
+        return template -> {
+            CallTimingRecord record = phaseTimer.start(template);
+            long start = System.nanoTime();
+            try {
+                requestInterceptor.apply(template);
+            } finally {
+                record.add(CallPhase.INTERCEPTORS, System.nanoTime() - start);
+            }
+        };
+    }
+
+    @Override
+    public Decoder enrich(Decoder decoder) {
+        return (response, type) -> {
+            CallTimingRecord record = currentRecord(response);
+            if (record == null) {
+                return decoder.decode(response, type);
+            }
+            long start = System.nanoTime();
+            long bodyReadStart = record.get(CallPhase.BODY_READ);
+            boolean failed = true;
+            try {
+                Object result = decoder.decode(response, type);
+                failed = false;
+                return result;
+            } finally {
+                // Time spent waiting for the body is accounted separately
+                long bodyRead = record.get(CallPhase.BODY_READ) - bodyReadStart;
+                record.add(CallPhase.DECODE, System.nanoTime() - start - bodyRead);
+                record.complete(failed);
+            }
+        };
+    }
+
+    private CallTimingRecord currentRecord(Response response) {
+        if (response.request() == null || response.request().requestTemplate() == null) {
+            return null;
+        }
+        return CallTimingRecord.current(response.request().requestTemplate());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.httpclient.ApacheHttpClient;
+import org.apache.http.HttpHost;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+import org.seedstack.feign.CallPhase;
+import org.seedstack.feign.FeignConfig;
+
+import javax.net.ssl.SSLContext;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign client backed by an Apache HttpClient with a connection pool. Connect and read timeouts are still taken from
+ * the {@link Request.Options} of each request. When timed, DNS resolution, TCP connect and TLS handshake of new
+ * connections are recorded as phases of the exchange which triggered them.
+ */
+class PooledClient implements Client, Closeable {
+    private final CloseableHttpClient httpClient;
+    private final Client delegate;
+
+    PooledClient(FeignConfig.PoolConfig poolConfig, SSLContext sslContext, boolean timed) {
+        Registry<ConnectionSocketFactory> socketFactoryRegistry;
+        if (timed) {
+            socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", new TimedPlainSocketFactory())
+                    .register("https", new TimedSSLSocketFactory(
+                            sslContext != null ? sslContext : SSLContexts.createDefault()))
+                    .build();
+        } else {
+            socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", sslContext != null ? new SSLConnectionSocketFactory(sslContext)
+                            : SSLConnectionSocketFactory.getSocketFactory())
+                    .build();
+        }
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                socketFactoryRegistry,
+                null,
+                null,
+                timed ? new TimedDnsResolver() : null,
+                poolConfig.getTimeToLive() > 0 ? poolConfig.getTimeToLive() : -1,
+                TimeUnit.MILLISECONDS
+        );
+        connectionManager.setMaxTotal(poolConfig.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(poolConfig.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(poolConfig.getValidateAfterInactivity() > 0
+                ? poolConfig.getValidateAfterInactivity() : -1);
+
+        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                // Retries are handled by Feign retryer and compression is left to the endpoint configuration
+                .disableAutomaticRetries()
+                .disableContentCompression();
+        if (poolConfig.getIdleTimeout() > 0) {
+            httpClientBuilder.evictIdleConnections(poolConfig.getIdleTimeout(), TimeUnit.MILLISECONDS);
+        }
+
+        this.httpClient = httpClientBuilder.build();
+        this.delegate = new ApacheHttpClient(httpClient);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        return delegate.execute(request, options);
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private static void recordPhase(CallPhase phase, long nanos) {
+        // Connections are established on the thread executing the exchange
+        CallTimingRecord record = CallTimingRecord.current();
+        if (record != null) {
+            record.add(phase, nanos);
+        }
+    }
+
+    private static class TimedDnsResolver implements DnsResolver {
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            long start = System.nanoTime();
+            try {
+                return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            } finally {
+                recordPhase(CallPhase.DNS, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static class TimedPlainSocketFactory extends PlainConnectionSocketFactory {
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                recordPhase(CallPhase.CONNECT, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static class TimedSSLSocketFactory extends SSLConnectionSocketFactory {
+        private TimedSSLSocketFactory(SSLContext sslContext) {
+            super(sslContext, SSLConnectionSocketFactory.getDefaultHostnameVerifier());
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                InetSocketAddress localAddress, HttpContext context) throws IOException {
+            CallTimingRecord record = CallTimingRecord.current();
+            if (record == null) {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            }
+            long start = System.nanoTime();
+            long handshakeStart = record.get(CallPhase.TLS);
+            try {
+                return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                // The TLS handshake is timed separately by createLayeredSocket(), called within this method
+                long handshake = record.get(CallPhase.TLS) - handshakeStart;
+                record.add(CallPhase.CONNECT, System.nanoTime() - start - handshake);
+            }
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+                throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.createLayeredSocket(socket, target, port, context);
+            } finally {
+                recordPhase(CallPhase.TLS, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.seedstack.feign.FeignConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket limiting requests to a rate. Instead of counting tokens, it tracks the time at which the
+ * bucket would be full again if no more permit were taken (generic cell rate algorithm), so that taking a permit is a
+ * single compare-and-set. The bucket holds as many permits as the limit and is full when created.
+ */
+class RateLimiter {
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong fullTime;
+
+    RateLimiter(FeignConfig.RateLimitConfig rateLimitConfig) {
+        this(rateLimitConfig, System::nanoTime);
+    }
+
+    RateLimiter(FeignConfig.RateLimitConfig rateLimitConfig, LongSupplier nanoClock) {
+        this.intervalNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(rateLimitConfig.getPeriod())
+                / rateLimitConfig.getLimit());
+        this.capacityNanos = intervalNanos * rateLimitConfig.getLimit();
+        this.maxWaitNanos = rateLimitConfig.getMode() == FeignConfig.RateLimitMode.BLOCK
+                ? TimeUnit.MILLISECONDS.toNanos(rateLimitConfig.getTimeout()) : 0;
+        this.nanoClock = nanoClock;
+        this.fullTime = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Reserves a permit if it is available within the maximum wait of the limiter and the given time.
+     *
+     * @param timeoutNanos the maximum time in nanoseconds the caller can wait.
+     * @return the time in nanoseconds to wait before using the permit, or -1 if no permit has been reserved.
+     */
+    long reserve(long timeoutNanos) {
+        long maxWait = Math.min(maxWaitNanos, timeoutNanos);
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = fullTime.get();
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long wait = next - capacityNanos - now;
+            if (wait > maxWait) {
+                return -1;
+            }
+            if (fullTime.compareAndSet(current, next)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /**
+     * Gives back a reserved permit that will not be used.
+     */
+    void cancel() {
+        fullTime.addAndGet(-intervalNanos);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import org.seedstack.feign.Deadline;
+import org.seedstack.feign.FeignConfig;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client decorator limiting the rate of the HTTP requests of an endpoint and of its methods with {@link RateLimiter}s.
+ * Requests over the rate either wait for a permit or fail fast with a {@link RejectedExecutionException}, which is
+ * not retried and triggers the endpoint fallback if any. A request never waits past the deadline of its call.
+ */
+class RateLimitingClient implements Client {
+    private final Client delegate;
+    private final RateLimiter endpointLimiter;
+    private final Map<Method, RateLimiter> methodLimiters = new HashMap<>();
+    private final EndpointMetricsImpl endpointMetrics;
+    private final Class<?> feignApi;
+
+    RateLimitingClient(Client delegate, FeignConfig.EndpointConfig endpointConfig, EndpointMetricsImpl endpointMetrics,
+            Class<?> feignApi) {
+        this.delegate = delegate;
+        this.endpointLimiter = endpointConfig.getRateLimit().isEnabled()
+                ? new RateLimiter(endpointConfig.getRateLimit()) : null;
+        this.endpointMetrics = endpointMetrics;
+        this.feignApi = feignApi;
+        for (Method method : feignApi.getMethods()) {
+            FeignConfig.MethodConfig methodConfig = MethodSettings.getMethodConfig(feignApi, method,
+                    endpointConfig.getMethods());
+            if (isRateLimited(methodConfig)) {
+                methodLimiters.put(method, new RateLimiter(methodConfig.getRateLimit()));
+            }
+        }
+    }
+
+    /**
+     * Checks if the requests of an endpoint or of one of its methods are rate limited.
+     *
+     * @param feignApi       the endpoint interface.
+     * @param endpointConfig the endpoint configuration.
+     * @return true if a rate limit applies.
+     */
+    static boolean hasRateLimits(Class<?> feignApi, FeignConfig.EndpointConfig endpointConfig) {
+        if (endpointConfig.getRateLimit().isEnabled()) {
+            return true;
+        }
+        for (Method method : feignApi.getMethods()) {
+            if (isRateLimited(MethodSettings.getMethodConfig(feignApi, method, endpointConfig.getMethods()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        long timeout = Long.MAX_VALUE;
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            timeout = Math.max(0, deadline.remaining(TimeUnit.NANOSECONDS));
+        }
+
+        long wait = 0;
+        RateLimiter methodLimiter = getMethodLimiter(request);
+        if (methodLimiter != null) {
+            wait = methodLimiter.reserve(timeout);
+            if (wait < 0) {
+                throw reject("method " + request.requestTemplate().methodMetadata().configKey());
+            }
+        }
+        if (endpointLimiter != null) {
+            long endpointWait = endpointLimiter.reserve(timeout);
+            if (endpointWait < 0) {
+                if (methodLimiter != null) {
+                    methodLimiter.cancel();
+                }
+                throw reject("endpoint " + feignApi.getName());
+            }
+            // Both permits are reserved so the waits overlap
+            wait = Math.max(wait, endpointWait);
+        }
+
+        if (wait > 0) {
+            endpointMetrics.recordRateLimitWait(wait);
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+            }
+        }
+        return delegate.execute(request, options);
+    }
+
+    private RateLimiter getMethodLimiter(Request request) {
+        if (methodLimiters.isEmpty() || request.requestTemplate() == null) {
+            return null;
+        }
+        MethodMetadata methodMetadata = request.requestTemplate().methodMetadata();
+        if (methodMetadata == null || methodMetadata.method() == null) {
+            return null;
+        }
+        return methodLimiters.get(methodMetadata.method());
+    }
+
+    private RejectedExecutionException reject(String limited) {
+        endpointMetrics.recordRateLimitedCall();
+        return new RejectedExecutionException("Rate limit of Feign " + limited + " reached");
+    }
+
+    private static boolean isRateLimited(FeignConfig.MethodConfig methodConfig) {
+        return methodConfig != null && methodConfig.getRateLimit() != null && methodConfig.getRateLimit().isEnabled();
+    }
+}
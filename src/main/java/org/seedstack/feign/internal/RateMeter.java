@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free meter of the rate of events over the last minute, counted in one-second slots.
+ */
+class RateMeter {
+    private static final int SLOT_COUNT = 60;
+    private final AtomicLongArray counts = new AtomicLongArray(SLOT_COUNT);
+    private final AtomicLongArray seconds = new AtomicLongArray(SLOT_COUNT);
+
+    void mark() {
+        long second = currentSecond();
+        int slot = (int) (second % SLOT_COUNT);
+        long slotSecond = seconds.get(slot);
+        if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+            // First event of this second: the slot held the count of a second one minute ago or more
+            counts.set(slot, 0);
+        }
+        counts.incrementAndGet(slot);
+    }
+
+    /**
+     * @return the mean number of events per second over the last minute.
+     */
+    double getRate() {
+        long second = currentSecond();
+        long total = 0;
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            if (second - seconds.get(i) < SLOT_COUNT) {
+                total += counts.get(i);
+            }
+        }
+        return (double) total / SLOT_COUNT;
+    }
+
+    private static long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+}
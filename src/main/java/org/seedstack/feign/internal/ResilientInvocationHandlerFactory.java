@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Feign;
+import feign.FeignException;
+import feign.InvocationHandlerFactory;
+import feign.Target;
+import feign.hystrix.FallbackFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Invocation handler factory protecting the calls of an endpoint with its circuit breakers and bulkhead, as a
+ * lightweight replacement of the Hystrix wrapper. Blocking calls run on the caller thread and asynchronous calls hold
+ * their bulkhead permit until completion. Rejected or failed calls are served by the fallback, if any.
+ */
+class ResilientInvocationHandlerFactory implements InvocationHandlerFactory {
+    private final InvocationHandlerFactory delegate;
+    private final EndpointResilience endpointResilience;
+    private final FallbackFactory<?> fallbackFactory;
+
+    ResilientInvocationHandlerFactory(InvocationHandlerFactory delegate, EndpointResilience endpointResilience,
+            FallbackFactory<?> fallbackFactory) {
+        this.delegate = delegate;
+        this.endpointResilience = endpointResilience;
+        this.fallbackFactory = fallbackFactory;
+    }
+
+    @Override
+    public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
+        InvocationHandler invocationHandler = delegate.create(target, dispatch);
+        Map<Method, String> configKeys = new HashMap<>();
+        for (Method method : dispatch.keySet()) {
+            configKeys.put(method, Feign.configKey(target.type(), method));
+        }
+        return (proxy, method, args) -> {
+            String configKey = configKeys.get(method);
+            if (configKey == null) {
+                // Object methods
+                return invocationHandler.invoke(proxy, method, args);
+            }
+            return invoke(invocationHandler, endpointResilience.getCircuitBreaker(configKey), configKey, proxy,
+                    method, args);
+        };
+    }
+
+    private Object invoke(InvocationHandler invocationHandler, CircuitBreaker circuitBreaker, String configKey,
+            Object proxy, Method method, Object[] args) throws Throwable {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+            return fallbackResult(method, args, new RejectedExecutionException(
+                    "Circuit breaker of Feign method " + configKey + " is open"));
+        }
+        if (!endpointResilience.tryAcquireBulkhead()) {
+            if (circuitBreaker != null) {
+                circuitBreaker.releasePermission();
+            }
+            return fallbackResult(method, args, new RejectedExecutionException(
+                    "Bulkhead of Feign method " + configKey + " is full"));
+        }
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocationHandler.invoke(proxy, method, args);
+        } catch (Throwable t) {
+            onResult(circuitBreaker, start, t);
+            return fallbackResult(method, args, t);
+        }
+        if (result instanceof CompletableFuture) {
+            CompletableFuture<Object> resilientResult = new CompletableFuture<>();
+            ((CompletableFuture<?>) result).whenComplete((value, t) -> {
+                onResult(circuitBreaker, start, t);
+                if (t == null) {
+                    resilientResult.complete(value);
+                } else {
+                    completeWithFallback(resilientResult, method, args, unwrap(t));
+                }
+            });
+            return resilientResult;
+        } else {
+            onResult(circuitBreaker, start, null);
+            return result;
+        }
+    }
+
+    private void onResult(CircuitBreaker circuitBreaker, long start, Throwable t) {
+        endpointResilience.releaseBulkhead();
+        if (circuitBreaker != null) {
+            circuitBreaker.onResult(System.nanoTime() - start, isFailure(t));
+        }
+    }
+
+    private boolean isFailure(Throwable t) {
+        if (t == null) {
+            return false;
+        }
+        // Client errors are caused by the request and local rejections (e.g. by the concurrency limiter) never
+        // reached the server, so neither says anything about its health
+        Throwable cause = unwrap(t);
+        return !(cause instanceof FeignException.FeignClientException || cause instanceof RejectedExecutionException);
+    }
+
+    private Object fallbackResult(Method method, Object[] args, Throwable cause) throws Throwable {
+        if (AsyncDelegatingContract.isAsync(method)) {
+            // Asynchronous callers expect failures in the returned future, not thrown
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            completeWithFallback(future, method, args, unwrap(cause));
+            return future;
+        }
+        return fallback(method, args, cause);
+    }
+
+    private Object fallback(Method method, Object[] args, Throwable cause) throws Throwable {
+        if (fallbackFactory == null) {
+            throw cause;
+        }
+        try {
+            return method.invoke(fallbackFactory.create(cause), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void completeWithFallback(CompletableFuture<Object> future, Method method, Object[] args,
+            Throwable cause) {
+        try {
+            Object result = fallback(method, args, cause);
+            if (result instanceof CompletableFuture) {
+                ((CompletableFuture<?>) result).whenComplete((value, t) -> {
+                    if (t == null) {
+                        future.complete(value);
+                    } else {
+                        future.completeExceptionally(unwrap(t));
+                    }
+                });
+            } else {
+                future.complete(result);
+            }
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+    }
+}
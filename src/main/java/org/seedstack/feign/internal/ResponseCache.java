@@ -0,0 +1,276 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded store of cached responses. Responses are kept in memory until their cumulated weight exceeds the maximum
+ * size, then evicted in insertion order, giving a second chance to those requested since they were last considered
+ * (clock algorithm). Evicted responses are moved to an optional disk tier, bounded in least-recently-used order, and
+ * promoted back to memory when they are requested again. Disk files only live as long as the store.
+ *
+ * <p>Memory hits are lock-free. Locks only guard the memory updates and the disk index, never the disk reads and
+ * writes, and each write goes to a new file so that no two threads ever access the same file.</p>
+ */
+class ResponseCache implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResponseCache.class);
+    private static final String FILE_SUFFIX = ".cache";
+    private final Map<String, Node> memory = new ConcurrentHashMap<>();
+    private final Map<String, DiskEntry> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private final Deque<Node> clock = new ArrayDeque<>();
+    private final Object memoryLock = new Object();
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong fileCounter = new AtomicLong();
+    private final long maxSize;
+    private final Path directory;
+    private final long maxDiskSize;
+    private long diskSize;
+    private int discardedNodes;
+
+    ResponseCache(long maxSize, Path directory, long maxDiskSize) throws IOException {
+        this.maxSize = maxSize;
+        this.directory = directory;
+        this.maxDiskSize = maxDiskSize;
+        if (directory != null) {
+            Files.createDirectories(directory);
+            deleteFiles();
+        }
+    }
+
+    CachedResponse get(String key) {
+        Node node = memory.get(key);
+        if (node != null) {
+            node.referenced = true;
+            return node.cachedResponse;
+        }
+        if (directory == null) {
+            return null;
+        }
+        DiskEntry diskEntry;
+        synchronized (disk) {
+            diskEntry = disk.remove(key);
+            if (diskEntry == null) {
+                return null;
+            }
+            diskSize -= diskEntry.size;
+        }
+        CachedResponse cachedResponse = readFromDisk(key, diskEntry.file);
+        if (cachedResponse != null) {
+            put(key, cachedResponse);
+        }
+        return cachedResponse;
+    }
+
+    void put(String key, CachedResponse cachedResponse) {
+        removeFromDisk(key);
+        Node node = new Node(key, cachedResponse);
+        List<Node> evicted = new ArrayList<>();
+        synchronized (memoryLock) {
+            Node previous = memory.put(key, node);
+            clock.addLast(node);
+            if (previous != null) {
+                size.addAndGet(-previous.weight);
+                discard();
+            }
+            size.addAndGet(node.weight);
+            evict(evicted);
+        }
+        if (directory != null) {
+            evicted.forEach(this::writeToDisk);
+        }
+    }
+
+    void remove(String key) {
+        synchronized (memoryLock) {
+            Node node = memory.remove(key);
+            if (node != null) {
+                size.addAndGet(-node.weight);
+                discard();
+            }
+        }
+        removeFromDisk(key);
+    }
+
+    @Override
+    public void close() {
+        synchronized (memoryLock) {
+            memory.clear();
+            clock.clear();
+            size.set(0);
+            discardedNodes = 0;
+        }
+        if (directory != null) {
+            List<DiskEntry> diskEntries;
+            synchronized (disk) {
+                diskEntries = new ArrayList<>(disk.values());
+                disk.clear();
+                diskSize = 0;
+            }
+            diskEntries.forEach(diskEntry -> deleteFile(diskEntry.file));
+        }
+    }
+
+    private void evict(List<Node> evicted) {
+        while (size.get() > maxSize && !clock.isEmpty()) {
+            Node node = clock.pollFirst();
+            if (memory.get(node.key) != node) {
+                // Replaced or removed since it was queued
+                discardedNodes--;
+            } else if (node.referenced) {
+                node.referenced = false;
+                clock.addLast(node);
+            } else {
+                memory.remove(node.key);
+                size.addAndGet(-node.weight);
+                evicted.add(node);
+            }
+        }
+    }
+
+    private void discard() {
+        // Replaced and removed nodes stay queued until reached by the clock, unless they outnumber the live ones
+        if (++discardedNodes > clock.size() / 2) {
+            clock.removeIf(node -> memory.get(node.key) != node);
+            discardedNodes = 0;
+        }
+    }
+
+    private void writeToDisk(Node node) {
+        String key = node.key;
+        Path file = file(key);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            node.cachedResponse.writeTo(output);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write cached response to {}", file, e);
+            deleteFile(file);
+            return;
+        }
+        List<DiskEntry> obsolete = new ArrayList<>();
+        synchronized (disk) {
+            DiskEntry previous = disk.put(key, new DiskEntry(file, node.weight));
+            if (previous != null) {
+                diskSize -= previous.size;
+                obsolete.add(previous);
+            }
+            diskSize += node.weight;
+            Iterator<DiskEntry> iterator = disk.values().iterator();
+            while (diskSize > maxDiskSize && iterator.hasNext()) {
+                DiskEntry eldest = iterator.next();
+                iterator.remove();
+                diskSize -= eldest.size;
+                obsolete.add(eldest);
+            }
+        }
+        obsolete.forEach(diskEntry -> deleteFile(diskEntry.file));
+    }
+
+    private CachedResponse readFromDisk(String key, Path file) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CachedResponse cachedResponse = CachedResponse.readFrom(input);
+            // Guard against hash collisions
+            return key.equals(cachedResponse.getKey()) ? cachedResponse : null;
+        } catch (IOException e) {
+            LOGGER.warn("Unable to read cached response from {}", file, e);
+            return null;
+        } finally {
+            deleteFile(file);
+        }
+    }
+
+    private void removeFromDisk(String key) {
+        if (directory == null) {
+            return;
+        }
+        DiskEntry diskEntry;
+        synchronized (disk) {
+            diskEntry = disk.remove(key);
+            if (diskEntry == null) {
+                return;
+            }
+            diskSize -= diskEntry.size;
+        }
+        deleteFile(diskEntry.file);
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete cached response file {}", file, e);
+        }
+    }
+
+    private void deleteFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Path file(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2 + 21 + FILE_SUFFIX.length());
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            sb.append('-').append(fileCounter.incrementAndGet());
+            return directory.resolve(sb.append(FILE_SUFFIX).toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    private static class Node {
+        private final String key;
+        private final CachedResponse cachedResponse;
+        private final long weight;
+        private volatile boolean referenced;
+
+        private Node(String key, CachedResponse cachedResponse) {
+            this.key = key;
+            this.cachedResponse = cachedResponse;
+            this.weight = cachedResponse.weight();
+        }
+    }
+
+    private static class DiskEntry {
+        private final Path file;
+        private final long size;
+
+        private DiskEntry(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandProperties;
+import feign.Target;
+import feign.hystrix.SetterFactory;
+
+import java.lang.reflect.Method;
+
+/**
+ * Hystrix setter factory that switches blocking methods to semaphore isolation, so the call and its fallback run on
+ * the caller thread (possibly a virtual thread) instead of being handed off to a Hystrix thread pool. The semaphores
+ * do not limit concurrent calls, unless the Hystrix semaphore properties of the command are configured: the
+ * concurrency of an endpoint is then bounded by its bulkhead or limiter if any. As the call runs on the caller
+ * thread, the Hystrix timeout cannot interrupt it: the caller gets the fallback once the call ends, bounded by the
+ * read timeout or the deadline. Asynchronous methods keep thread isolation as it is what makes them non-blocking for
+ * the caller.
+ */
+class SemaphoreIsolationSetterFactory implements SetterFactory {
+    private final SetterFactory delegate = new SetterFactory.Default();
+
+    @Override
+    public HystrixCommand.Setter create(Target<?> target, Method method) {
+        HystrixCommand.Setter setter = delegate.create(target, method);
+        if (AsyncDelegatingContract.isAsync(method)) {
+            return setter;
+        }
+        return setter.andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
+                .withExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE)
+                .withExecutionIsolationSemaphoreMaxConcurrentRequests(Integer.MAX_VALUE)
+                .withFallbackIsolationSemaphoreMaxConcurrentRequests(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+import feign.jackson.JacksonDecoder;
+import org.reactivestreams.Publisher;
+import org.seedstack.feign.CloseableIterator;
+import org.seedstack.feign.codec.NegotiatingDecoder;
+import org.seedstack.shed.reflect.Classes;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Decoder lazily decoding the JSON elements of responses for methods declaring a streaming return type
+ * ({@link Stream}, {@link Iterator}, {@link CloseableIterator} or Reactive Streams {@code Publisher}), and delegating
+ * to the configured decoder for other methods, which must decode JSON too. As the response must stay open while
+ * elements are streamed, Feign is configured to leave responses open after decoding and this decoder closes them
+ * itself for non-streaming return types.
+ */
+class StreamingDecoder implements Decoder {
+    private static final boolean REACTIVE_STREAMS_PRESENT = Classes.optional("org.reactivestreams.Publisher")
+            .isPresent();
+    private final Decoder delegate;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+
+    StreamingDecoder(Decoder delegate, ObjectMapper objectMapper, Executor executor) {
+        this.delegate = delegate;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+    }
+
+    static boolean hasStreamingMethods(Class<?> feignApi) {
+        for (Method method : feignApi.getMethods()) {
+            if (isStreaming(method.getGenericReturnType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the specified decoder agrees with the JSON parsing of streamed responses. Negotiating decoders only
+     * accept JSON for streamed methods.
+     *
+     * @param decoder the decoder configured for the endpoint.
+     * @return true if the decoder decodes JSON.
+     */
+    static boolean decodesJson(Decoder decoder) {
+        return decoder instanceof JacksonDecoder || decoder instanceof NegotiatingDecoder;
+    }
+
+    static boolean hasPublisherMethods(Class<?> feignApi) {
+        if (REACTIVE_STREAMS_PRESENT) {
+            for (Method method : feignApi.getMethods()) {
+                if (Publisher.class.equals(method.getReturnType())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean isStreaming(Type type) {
+        Class<?> rawType = rawType(type);
+        return Stream.class.equals(rawType)
+                || Iterator.class.equals(rawType)
+                || CloseableIterator.class.equals(rawType)
+                || REACTIVE_STREAMS_PRESENT && Publisher.class.equals(rawType);
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (isStreaming(type)) {
+            Class<?> rawType = rawType(type);
+            JsonElementIterator<Object> iterator = iterate(response, Util.resolveLastTypeParameter(type, rawType));
+            if (Stream.class.equals(rawType)) {
+                return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+            } else if (Iterator.class.equals(rawType) || CloseableIterator.class.equals(rawType)) {
+                return iterator;
+            } else {
+                return new JsonElementPublisher<>(iterator, executor);
+            }
+        }
+        try {
+            return delegate.decode(response, type);
+        } finally {
+            Util.ensureClosed(response);
+        }
+    }
+
+    private JsonElementIterator<Object> iterate(Response response, Type elementType) {
+        return new JsonElementIterator<>(response, objectMapper, objectMapper.constructType(elementType));
+    }
+
+    private static Class<?> rawType(Type type) {
+        Type rawType = type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type;
+        return rawType instanceof Class ? (Class<?>) rawType : null;
+    }
+}
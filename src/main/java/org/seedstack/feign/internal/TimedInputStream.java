@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.seedstack.feign.CallPhase;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream accounting the time spent waiting for response body bytes in a timing record.
+ */
+class TimedInputStream extends FilterInputStream {
+    private final CallTimingRecord record;
+
+    TimedInputStream(InputStream in, CallTimingRecord record) {
+        super(in);
+        this.record = record;
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.read();
+        } finally {
+            record.add(CallPhase.BODY_READ, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.read(b, off, len);
+        } finally {
+            record.add(CallPhase.BODY_READ, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.skip(n);
+        } finally {
+            record.add(CallPhase.BODY_READ, System.nanoTime() - start);
+        }
+    }
+}
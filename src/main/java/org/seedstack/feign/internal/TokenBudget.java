@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket bounding extra requests (retries, hedges) to a ratio of the requests of an endpoint: each
+ * request deposits a fraction of a token and each extra request withdraws a whole one. The bucket starts full so that
+ * a burst of extra requests is allowed before any request has been made.
+ */
+class TokenBudget {
+    private static final long TOKEN = 1000;
+    private final AtomicLong balance;
+    private final long deposit;
+    private final long capacity;
+
+    TokenBudget(double ratio, int maxTokens) {
+        this.deposit = Math.round(ratio * TOKEN);
+        this.capacity = maxTokens * TOKEN;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    void deposit() {
+        while (true) {
+            long current = balance.get();
+            if (current >= capacity || balance.compareAndSet(current, Math.min(capacity, current + deposit))) {
+                return;
+            }
+        }
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+}
@@ -7,15 +7,23 @@
  */
 package org.seedstack.feign;
 
+import com.google.protobuf.StringValue;
 import feign.FeignException;
+import feign.RetryableException;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import org.seedstack.feign.fixtures.FeignTestException;
 import org.seedstack.feign.fixtures.Message;
 import org.seedstack.feign.fixtures.RetryErrorDecoder;
+import org.seedstack.feign.fixtures.TestCallTimingListener;
 import org.seedstack.feign.fixtures.TestContract;
 import org.seedstack.feign.fixtures.TestInterceptor;
+import org.seedstack.feign.fixtures.TestResource;
 import org.seedstack.feign.fixtures.TestRetryer;
+import org.seedstack.feign.fixtures.ThreadRecordingInterceptor;
+import org.seedstack.feign.fixtures.VirtualHystrixFallback;
 import org.seedstack.feign.fixtures.apis.*;
 import org.seedstack.seed.Configuration;
 import org.seedstack.seed.Logging;
@@ -24,9 +32,26 @@ import org.seedstack.seed.undertow.LaunchWithUndertow;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.Assume.assumeTrue;
 
 @RunWith(SeedITRunner.class)
 @LaunchWithUndertow
@@ -40,6 +65,12 @@ public abstract class AbstractFeignIT {
     @Inject
     private TestAPI testAPI;
 
+    @Inject
+    private Provider<TestAPI> testAPIProvider;
+
+    @Inject
+    private FeignMetrics feignMetrics;
+
     @Inject
     private TimeoutAPI timeoutAPI;
 
@@ -67,6 +98,87 @@ public abstract class AbstractFeignIT {
     @Inject
     private RetryGlobalConfTestAPI retryGlobalConfTestAPI;
 
+    @Inject
+    private PooledClientAPI pooledClientAPI;
+
+    @Inject
+    private Http2ClientAPI http2ClientAPI;
+
+    @Inject
+    private AsyncAPI asyncAPI;
+
+    @Inject
+    private StreamingAPI streamingAPI;
+
+    @Inject
+    private PooledStreamingAPI pooledStreamingAPI;
+
+    @Inject
+    private NegotiatingAPI negotiatingAPI;
+
+    @Inject
+    private CompressionAPI compressionAPI;
+
+    @Inject
+    private DefaultCompressionAPI defaultCompressionAPI;
+
+    @Inject
+    private CachingAPI cachingAPI;
+
+    @Inject
+    private CoalescingAPI coalescingAPI;
+
+    @Inject
+    private CollapsingAPI collapsingAPI;
+
+    @Inject
+    private ResilienceAPI resilienceAPI;
+
+    @Inject
+    private LimiterAPI limiterAPI;
+
+    @Inject
+    private AsyncResilienceAPI asyncResilienceAPI;
+
+    @Inject
+    private LoadBalancedAPI loadBalancedAPI;
+
+    @Inject
+    private HedgingAPI hedgingAPI;
+
+    @Inject
+    private RetryBudgetAPI retryBudgetAPI;
+
+    @Inject
+    private DeadlineAPI deadlineAPI;
+
+    @Inject
+    private HystrixDeadlineAPI hystrixDeadlineAPI;
+
+    @Inject
+    private MethodOptionsAPI methodOptionsAPI;
+
+    @Inject
+    private RateLimitedAPI rateLimitedAPI;
+
+    @Inject
+    private BinaryNegotiatingAPI binaryNegotiatingAPI;
+
+    @Inject
+    private SmileAPI smileAPI;
+
+    @Inject
+    private CborAPI cborAPI;
+
+    @Inject
+    private ProtobufAPI protobufAPI;
+
+    @Inject
+    private Provider<VirtualThreadAPI> virtualThreadAPIProvider;
+
+    @Inject
+    private Provider<VirtualHystrixAPI> virtualHystrixAPIProvider;
+
     @Test
     public void feignClientIsInjectable() throws Exception {
         assertThat(testAPI).isNotNull();
@@ -92,6 +204,28 @@ public abstract class AbstractFeignIT {
         assertThat(targetableAPI).isNotNull();
     }
 
+    @Test
+    public void feignClientIsBuiltOnce() throws Exception {
+        assertThat(testAPIProvider.get()).isSameAs(testAPI);
+        assertThat(feignMetrics.getEndpointMetrics(TestAPI.class).getClientBuildCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void callsAreMeasured() {
+        EndpointMetrics endpointMetrics = feignMetrics.getEndpointMetrics(TestAPI.class);
+        long callCount = endpointMetrics.getCallCount();
+        testAPI.getMessage();
+        assertThat(endpointMetrics.getCallCount()).isEqualTo(callCount + 1);
+        assertThat(endpointMetrics.getInFlightCount()).isEqualTo(0);
+        assertThat(endpointMetrics.getStatusCounts().get(200)).isGreaterThan(0);
+        assertThat(endpointMetrics.getBytesReceived()).isGreaterThan(0);
+        assertThat(endpointMetrics.getLatency().getPercentile(99, TimeUnit.NANOSECONDS)).isGreaterThan(0);
+        CallMetrics methodMetrics = endpointMetrics.getMethodMetrics().get("TestAPI#getMessage()");
+        assertThat(methodMetrics).isNotNull();
+        assertThat(methodMetrics.getCallCount()).isGreaterThan(0);
+        assertThat(methodMetrics.getErrorCount()).isEqualTo(0);
+    }
+
     @Test
     public void testNominalCall() {
         Message message = testAPI.getMessage();
@@ -152,6 +286,366 @@ public abstract class AbstractFeignIT {
         assertThat(message.getAuthor()).isEqualTo("computer");
     }
 
+    @Test
+    public void circuitBreakerOpensOnFailures() {
+        for (int i = 0; i < 5; i++) {
+            Message message = resilienceAPI.getFailure();
+            assertThat(message.getBody()).isEqualTo("Fallback failure response");
+            assertThat(message.getAuthor()).isEqualTo("RetryableException");
+        }
+        // The circuit is now open and rejects calls without reaching the server
+        Message rejected = resilienceAPI.getFailure();
+        assertThat(rejected.getAuthor()).isEqualTo("RejectedExecutionException");
+        assertThat(feignMetrics.getEndpointMetrics(ResilienceAPI.class).getFallbackCount()).isEqualTo(6);
+
+        // Each method has its own circuit
+        Message message = resilienceAPI.getMessage();
+        assertThat(message.getBody()).isEqualTo("Hello World !");
+        assertThat(message.getAuthor()).isEqualTo("computer");
+    }
+
+    @Test
+    public void asyncCallsRejectedByTheCircuitBreakerFailTheirFuture() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            // Without fallback, failures and rejections alike complete the future exceptionally
+            CompletableFuture<Message> future = asyncResilienceAPI.getFailure();
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("should have failed");
+            } catch (ExecutionException e) {
+                if (i == 5) {
+                    assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+                } else {
+                    assertThat(e.getCause()).isInstanceOf(FeignException.class);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void callsOverTheConcurrencyLimitAreRejected() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(5);
+        int rejected = 0;
+        try {
+            List<Future<Message>> futures = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                futures.add(executorService.submit(limiterAPI::getSlowMessage));
+            }
+            for (Future<Message> future : futures) {
+                try {
+                    assertThat(future.get().getBody()).isEqualTo("Hello World !");
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+                    rejected++;
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        EndpointMetrics endpointMetrics = feignMetrics.getEndpointMetrics(LimiterAPI.class);
+        assertThat(rejected).isGreaterThan(0);
+        assertThat(endpointMetrics.getLimitedCallCount()).isEqualTo(rejected);
+        assertThat(endpointMetrics.getConcurrencyLimit()).isEqualTo(1);
+    }
+
+    @Test
+    public void callsAreBalancedAcrossInstancesByWeight() {
+        int defaultInstanceCalls = 0;
+        for (int i = 0; i < 30; i++) {
+            Message message = loadBalancedAPI.getMessage();
+            if ("computer".equals(message.getAuthor())) {
+                defaultInstanceCalls++;
+            } else {
+                assertThat(message.getBody()).isEqualTo("I was routed trough a custom target");
+            }
+        }
+        assertThat(defaultInstanceCalls).isEqualTo(20);
+    }
+
+    @Test
+    public void slowRequestsAreHedgedToAnotherInstance() {
+        for (int i = 0; i < 4; i++) {
+            Message message = hedgingAPI.getMessage();
+            assertThat(message.getBody()).isEqualTo("Hello World !");
+        }
+        EndpointMetrics endpointMetrics = feignMetrics.getEndpointMetrics(HedgingAPI.class);
+        // Requests to the slow instance are always hedged, a slow answer from the other one may be too
+        assertThat(endpointMetrics.getHedgedRequestCount()).isGreaterThanOrEqualTo(2);
+        // No call waited for the slow instance, which takes 2 seconds to answer
+        assertThat(endpointMetrics.getLatency().getMax(TimeUnit.MILLISECONDS)).isLessThan(2000);
+    }
+
+    @Test
+    public void testPooledClientNominalCall() {
+        for (int i = 0; i < 20; i++) {
+            Message message = pooledClientAPI.getMessage();
+            assertThat(message.getBody()).isEqualTo("Hello World !");
+            assertThat(message.getAuthor()).isEqualTo("computer");
+        }
+    }
+
+    @Test
+    public void callPhasesAreTimed() {
+        pooledClientAPI.getMessage();
+        EndpointMetrics endpointMetrics = feignMetrics.getEndpointMetrics(PooledClientAPI.class);
+        assertThat(endpointMetrics.getPhaseLatency(CallPhase.CONNECT).getCount()).isGreaterThan(0);
+        assertThat(endpointMetrics.getPhaseLatency(CallPhase.TIME_TO_FIRST_BYTE).getCount()).isGreaterThan(0);
+        assertThat(endpointMetrics.getPhaseLatency(CallPhase.DECODE).getCount()).isGreaterThan(0);
+        CallTiming callTiming = TestCallTimingListener.lastCallTiming;
+        assertThat(callTiming).isNotNull();
+        assertThat(callTiming.getEndpoint()).isEqualTo(PooledClientAPI.class);
+        assertThat(callTiming.getMethod()).isEqualTo("PooledClientAPI#getMessage()");
+        assertThat(callTiming.getStatus()).isEqualTo(200);
+        assertThat(callTiming.getDuration(CallPhase.TIME_TO_FIRST_BYTE, TimeUnit.NANOSECONDS)).isGreaterThan(0);
+        assertThat(callTiming.getTotalDuration(TimeUnit.NANOSECONDS)).isGreaterThan(0);
+    }
+
+    @Test
+    public void testHttp2ClientNominalCall() {
+        Message message = http2ClientAPI.getMessage();
+        assertThat(message.getBody()).isEqualTo("Hello World !");
+        assertThat(message.getAuthor()).isEqualTo("computer");
+    }
+
+    @Test
+    public void testAsyncNominalCall() throws Exception {
+        Message message = asyncAPI.getMessage().get(10, TimeUnit.SECONDS);
+        assertThat(message.getBody()).isEqualTo("Hello World !");
+        assertThat(message.getAuthor()).isEqualTo("computer");
+    }
+
+    @Test
+    public void testAsyncErrorDecoder() throws Exception {
+        try {
+            asyncAPI.getError().get(10, TimeUnit.SECONDS);
+            fail("should have failed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(FeignTestException.class);
+        }
+    }
+
+    @Test
+    public void asyncCallsRunOnVirtualThreadsInVirtualMode() throws Exception {
+        assumeTrue("Virtual threads are not supported by the JVM", supportsVirtualThreads());
+        ThreadRecordingInterceptor.lastThread = null;
+        Message message = virtualThreadAPIProvider.get().getMessage().get(10, TimeUnit.SECONDS);
+        assertThat(message.getBody()).isEqualTo("Hello World !");
+        assertThat(isVirtual(ThreadRecordingInterceptor.lastThread)).isTrue();
+    }
+
+    @Test
+    public void hystrixCallsAndFallbacksStayOnTheCallerThreadInVirtualMode() throws Exception {
+        assumeTrue("Virtual threads are not supported by the JVM", supportsVirtualThreads());
+        VirtualHystrixAPI virtualHystrixAPI = virtualHystrixAPIProvider.get();
+
+        ThreadRecordingInterceptor.lastThread = null;
+        assertThat(virtualHystrixAPI.getMessage().getBody()).isEqualTo("Hello World !");
+        assertThat(ThreadRecordingInterceptor.lastThread).isSameAs(Thread.currentThread());
+
+        VirtualHystrixFallback.lastThread = null;
+        assertThat(virtualHystrixAPI.getError().getBody()).isEqualTo("Fallback response");
+        assertThat(VirtualHystrixFallback.lastThread).isSameAs(Thread.currentThread());
+    }
+
+    private static boolean supportsVirtualThreads() {
+        try {
+            ((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null)).shutdown();
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    @Test
+    public void testPublisherStreaming() throws Exception {
+        List<Message> messages = new ArrayList<>();
+        Set<Thread> emittingThreads = ConcurrentHashMap.newKeySet();
+        CountDownLatch completed = new CountDownLatch(1);
+        streamingAPI.publishMessages(100).subscribe(new Subscriber<Message>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Message message) {
+                messages.add(message);
+                emittingThreads.add(Thread.currentThread());
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        assertThat(completed.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(messages).hasSize(100);
+        assertThat(messages.get(99).getBody()).isEqualTo("Message 99");
+        // Elements are read on the endpoint executor, not on the thread requesting them
+        assertThat(emittingThreads).doesNotContain(Thread.currentThread());
+        assertThat(streamingAPI.getMessage().getBody()).isEqualTo("Hello World !");
+    }
+
+    @Test
+    public void testNegotiatingDecoderFallsBackToJson() {
+        Message message = negotiatingAPI.getMessage();
+        assertThat(message.getBody()).isEqualTo("Hello World !");
+        assertThat(message.getAuthor()).isEqualTo("computer");
+    }
+
+    @Test
+    public void testNegotiatingDecoderSelectsBinaryFormats() {
+        // The echoed Smile body comes back with its binary Content-Type
+        Message echo = binaryNegotiatingAPI.echo(new Message("Hello Smile World !", "computer"));
+        assertThat(echo.getBody()).isEqualTo("Hello Smile World !");
+        assertThat(echo.getAuthor()).isEqualTo("computer");
+    }
+
+    @Test
+    public void testSmileRoundTrip() {
+        Message echo = smileAPI.echo(new Message("Hello Smile World !", "computer"));
+        assertThat(echo.getBody()).isEqualTo("Hello Smile World !");
+        assertThat(echo.getAuthor()).isEqualTo("computer");
+    }
+
+    @Test
+    public void testCborRoundTrip() {
+        Message echo = cborAPI.echo(new Message("Hello CBOR World !", "computer"));
+        assertThat(echo.getBody()).isEqualTo("Hello CBOR World !");
+        assertThat(echo.getAuthor()).isEqualTo("computer");
+    }
+
+    @Test
+    public void testProtobufRoundTrip() {
+        StringValue echo = protobufAPI.echo(StringValue.of("Hello Protobuf World !"));
+        assertThat(echo.getValue()).isEqualTo("Hello Protobuf World !");
+    }
+
+    @Test
+    public void testCompression() {
+        Message message = compressionAPI.getMessage();
+        assertThat(message.getBody()).isEqualTo("Hello World !");
+        Message echo = compressionAPI.echo(new Message("Hello compressed World !", "computer"));
+        assertThat(echo.getBody()).isEqualTo("Hello compressed World !");
+        EndpointMetrics endpointMetrics = feignMetrics.getEndpointMetrics(CompressionAPI.class);
+        assertThat(endpointMetrics.getResponseCompressionRatio()).isGreaterThan(0);
+        assertThat(endpointMetrics.getRequestCompressionRatio()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testIdentityEncodedResponseIsDecoded() {
+        Message message = compressionAPI.getIdentityMessage();
+        assertThat(message.getBody()).isEqualTo("Hello World !");
+    }
+
+    @Test
+    public void testCompressionWithDefaultEngine() {
+        Message message = defaultCompressionAPI.getMessage();
+        assertThat(message.getBody()).isEqualTo("Hello World !");
+        // The request body must be compressed once, by the addon and not again by the engine
+        Message echo = defaultCompressionAPI.echo(new Message("Hello compressed World !", "computer"));
+        assertThat(echo.getBody()).isEqualTo("Hello compressed World !");
+        EndpointMetrics endpointMetrics = feignMetrics.getEndpointMetrics(DefaultCompressionAPI.class);
+        assertThat(endpointMetrics.getResponseCompressionRatio()).isGreaterThan(0);
+        assertThat(endpointMetrics.getRequestCompressionRatio()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testFreshResponseIsServedFromCache() {
+        int callCount = TestResource.getCachedCallCount();
+        assertThat(cachingAPI.getCachedMessage().getBody()).isEqualTo("Hello World !");
+        assertThat(cachingAPI.getCachedMessage().getBody()).isEqualTo("Hello World !");
+        assertThat(TestResource.getCachedCallCount()).isLessThanOrEqualTo(callCount + 1);
+    }
+
+    @Test
+    public void testStaleResponseIsRevalidated() {
+        int notModifiedCount = TestResource.getNotModifiedCount();
+        assertThat(cachingAPI.getRevalidatedMessage().getBody()).isEqualTo("Hello World !");
+        assertThat(cachingAPI.getRevalidatedMessage().getBody()).isEqualTo("Hello World !");
+        assertThat(TestResource.getNotModifiedCount()).isGreaterThan(notModifiedCount);
+    }
+
+    @Test
+    public void testConcurrentIdenticalRequestsAreCoalesced() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Message>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(executorService.submit(coalescingAPI::getSlowMessage));
+            }
+            for (Future<Message> future : futures) {
+                assertThat(future.get().getBody()).isEqualTo("Hello World !");
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        assertThat(feignMetrics.getEndpointMetrics(CoalescingAPI.class).getCoalescedRequestCount()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testCallsAreCollapsedIntoBulkCall() throws Exception {
+        int bulkCallCount = TestResource.getBulkCallCount();
+        List<CompletableFuture<Message>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(collapsingAPI.getMessage(i));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThat(futures.get(i).get().getBody()).isEqualTo("Message " + i);
+        }
+        assertThat(TestResource.getBulkCallCount()).isEqualTo(bulkCallCount + 1);
+    }
+
+    @Test
+    public void testStreamStreaming() {
+        try (Stream<Message> messages = streamingAPI.streamMessages(1000)) {
+            assertThat(messages.filter(m -> m.getAuthor().equals("computer")).count()).isEqualTo(1000);
+        }
+    }
+
+    @Test
+    public void testIteratorStreaming() {
+        try (CloseableIterator<Message> messages = streamingAPI.iterateMessages(10)) {
+            assertThat(messages.next().getBody()).isEqualTo("Message 0");
+            assertThat(messages.next().getBody()).isEqualTo("Message 1");
+        }
+        assertThat(streamingAPI.getMessage().getBody()).isEqualTo("Hello World !");
+    }
+
+    @Test
+    public void testSingleValueStreamingReleasesTheResponse() throws Exception {
+        // The pool holds a single connection so a response that is not released blocks the next call
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            for (int i = 0; i < 3; i++) {
+                Future<Long> count = executorService.submit(() -> pooledStreamingAPI.streamMessage().count());
+                assertThat(count.get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+                Future<Message> message = executorService.submit(() -> {
+                    CloseableIterator<Message> messages = pooledStreamingAPI.iterateMessage();
+                    Message next = messages.next();
+                    assertThat(messages.hasNext()).isFalse();
+                    return next;
+                });
+                assertThat(message.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("Hello World !");
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     public void testTargetableNominalCall() {
         Message message = targetableAPI.getMessage();
@@ -204,11 +698,102 @@ public abstract class AbstractFeignIT {
         catch (Exception e){
             //Configuration to 4 attempts
             assertThat(RetryErrorDecoder.getCallCount()).isEqualTo(4);
+            assertThat(feignMetrics.getEndpointMetrics(RetryTestAPI.class).getRetryCount()).isGreaterThanOrEqualTo(3);
             exceptionThrown=true;
         }
         assertThat(exceptionThrown).isTrue();
     }
 
+    @Test
+    public void retriesAreBoundedByTheRetryBudget() {
+        for (int i = 0; i < 5; i++) {
+            try {
+                retryBudgetAPI.getFailure();
+                fail("should have failed");
+            } catch (RetryableException e) {
+                assertThat(e.status()).isEqualTo(503);
+            }
+        }
+        // The budget starts with 10 retries and gets nothing back from calls with a zero ratio
+        EndpointMetrics endpointMetrics = feignMetrics.getEndpointMetrics(RetryBudgetAPI.class);
+        assertThat(endpointMetrics.getRetryCount()).isEqualTo(10);
+        assertThat(endpointMetrics.getRetryBudgetExhaustedCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void callsAreBoundedByTheirDeadline() {
+        try {
+            deadlineAPI.getSlowMessage();
+            fail("should have timed out");
+        } catch (RetryableException e) {
+            // The read timeout is shortened to the deadline, shorter than the server delay
+            assertThat(e.getCause()).isInstanceOf(SocketTimeoutException.class);
+        }
+        // The call is not retried after its deadline
+        assertThat(feignMetrics.getEndpointMetrics(DeadlineAPI.class).getMethodMetrics()
+                .get("DeadlineAPI#getSlowMessage()").getRetryCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void deadlineIsPropagatedToTheServer() {
+        try (Deadline.Scope ignored = Deadline.after(5, TimeUnit.SECONDS).attach()) {
+            long remaining = Long.parseLong(deadlineAPI.getDeadline().getBody());
+            assertThat(remaining).isGreaterThan(0);
+            assertThat(remaining).isLessThanOrEqualTo(5000);
+        }
+        assertThat(Deadline.current()).isNull();
+        assertThat(deadlineAPI.getDeadline().getBody()).isNull();
+    }
+
+    @Test
+    public void deadlineIsPropagatedThroughHystrixThreads() {
+        try (Deadline.Scope ignored = Deadline.after(5, TimeUnit.SECONDS).attach()) {
+            long remaining = Long.parseLong(hystrixDeadlineAPI.getDeadline().getBody());
+            assertThat(remaining).isGreaterThan(0);
+            assertThat(remaining).isLessThanOrEqualTo(5000);
+        }
+        assertThat(hystrixDeadlineAPI.getDeadline().getBody()).isNull();
+    }
+
+    @Test
+    public void methodsOverrideTheEndpointOptions() {
+        // The endpoint would retry five times and wait for the slow response
+        try {
+            methodOptionsAPI.getSlowMessage();
+            fail("should have timed out");
+        } catch (RetryableException e) {
+            assertThat(e.getCause()).isInstanceOf(SocketTimeoutException.class);
+        }
+        try {
+            methodOptionsAPI.getConfiguredSlowMessage();
+            fail("should have timed out");
+        } catch (RetryableException e) {
+            assertThat(e.getCause()).isInstanceOf(SocketTimeoutException.class);
+        }
+        EndpointMetrics endpointMetrics = feignMetrics.getEndpointMetrics(MethodOptionsAPI.class);
+        assertThat(endpointMetrics.getMethodMetrics().get("MethodOptionsAPI#getSlowMessage()").getRetryCount())
+                .isEqualTo(0);
+        assertThat(endpointMetrics.getMethodMetrics().get("MethodOptionsAPI#getConfiguredSlowMessage()")
+                .getRetryCount()).isEqualTo(0);
+        assertThat(methodOptionsAPI.getMessage().getBody()).isEqualTo("Hello World !");
+    }
+
+    @Test
+    public void callsOverTheRateLimitWaitOrAreRejected() {
+        // The second call waits for the method rate limit, or is immediate if the limit has been refilled meanwhile
+        assertThat(rateLimitedAPI.getThrottledMessage().getBody()).isEqualTo("Hello World !");
+        assertThat(rateLimitedAPI.getThrottledMessage().getBody()).isEqualTo("Hello World !");
+        assertThat(rateLimitedAPI.getMessage().getBody()).isEqualTo("Hello World !");
+
+        // The fourth call is over the endpoint rate limit and fails fast to the fallback
+        Message message = rateLimitedAPI.getMessage();
+        assertThat(message.getBody()).isEqualTo("Fallback response");
+        assertThat(message.getAuthor()).isEqualTo("RejectedExecutionException");
+
+        EndpointMetrics endpointMetrics = feignMetrics.getEndpointMetrics(RateLimitedAPI.class);
+        assertThat(endpointMetrics.getRateLimitedCallCount()).isEqualTo(1);
+    }
+
     /**
      * Test for retry global configuration.
      * The retry feature is de-activated globally, expecting only one call
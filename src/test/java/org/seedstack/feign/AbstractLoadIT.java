@@ -0,0 +1,329 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.feign.fixtures.apis.DefaultLoadAPI;
+import org.seedstack.feign.fixtures.apis.Http2LoadAPI;
+import org.seedstack.feign.fixtures.apis.HystrixLoadAPI;
+import org.seedstack.feign.fixtures.apis.LoadAPI;
+import org.seedstack.feign.fixtures.apis.PooledLoadAPI;
+import org.seedstack.feign.fixtures.apis.RetryLoadAPI;
+import org.seedstack.seed.Configuration;
+import org.seedstack.seed.Logging;
+import org.seedstack.seed.testing.junit4.SeedITRunner;
+import org.seedstack.seed.undertow.LaunchWithUndertow;
+import org.slf4j.Logger;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Load tests driving Feign endpoints concurrently against the embedded server, one per client engine, Hystrix mode
+ * and retry configuration. They only run with {@code -Dfeign.load.enabled=true} and can be tuned with the
+ * {@code feign.load.concurrency}, {@code feign.load.duration}, {@code feign.load.warmup} (in seconds),
+ * {@code feign.load.payloadSize} (in bytes) and {@code feign.load.latency} (injected server latency in milliseconds)
+ * system properties. Results are written to {@code target/load-results} and checked against the thresholds stored in
+ * {@code load-thresholds.properties}.
+ */
+@RunWith(SeedITRunner.class)
+@LaunchWithUndertow
+public abstract class AbstractLoadIT {
+    private static final boolean ENABLED = Boolean.getBoolean("feign.load.enabled");
+    private static final int CONCURRENCY = Integer.getInteger("feign.load.concurrency", 32);
+    private static final int DURATION = Integer.getInteger("feign.load.duration", 10);
+    private static final int WARMUP = Integer.getInteger("feign.load.warmup", 3);
+    private static final int PAYLOAD_SIZE = Integer.getInteger("feign.load.payloadSize", 1024);
+    private static final int LATENCY = Integer.getInteger("feign.load.latency", 5);
+    // Hystrix thread pools have 10 threads by default, further concurrent calls are rejected
+    private static final int HYSTRIX_CONCURRENCY = 10;
+    private static final double RETRY_FAILURE_RATE = 0.05;
+    private static final String THRESHOLDS = "load-thresholds.properties";
+    @Logging
+    private Logger logger;
+    @Configuration("runtime.web.baseUrl")
+    private URL baseUrl;
+    @Inject
+    private DefaultLoadAPI defaultLoadAPI;
+    @Inject
+    private PooledLoadAPI pooledLoadAPI;
+    @Inject
+    private Http2LoadAPI http2LoadAPI;
+    @Inject
+    private HystrixLoadAPI hystrixLoadAPI;
+    @Inject
+    private RetryLoadAPI retryLoadAPI;
+    private final Properties thresholds = new Properties();
+
+    @Before
+    public void setUp() throws IOException {
+        assumeTrue("Load tests are enabled with -Dfeign.load.enabled=true", ENABLED);
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(THRESHOLDS)) {
+            assertThat(inputStream).as("Load test thresholds").isNotNull();
+            thresholds.load(inputStream);
+        }
+    }
+
+    @Test
+    public void defaultEngineUnderLoad() throws Exception {
+        check(run("default-engine", defaultLoadAPI, CONCURRENCY, 0));
+    }
+
+    @Test
+    public void pooledEngineUnderLoad() throws Exception {
+        check(run("pooled-engine", pooledLoadAPI, CONCURRENCY, 0));
+    }
+
+    @Test
+    public void http2EngineUnderLoad() throws Exception {
+        check(run("http2-engine", http2LoadAPI, CONCURRENCY, 0));
+    }
+
+    @Test
+    public void hystrixWrapperUnderLoad() throws Exception {
+        check(run("hystrix", hystrixLoadAPI, Math.min(CONCURRENCY, HYSTRIX_CONCURRENCY), 0));
+    }
+
+    @Test
+    public void retriesUnderLoad() throws Exception {
+        check(run("retry", retryLoadAPI, CONCURRENCY, RETRY_FAILURE_RATE));
+    }
+
+    private LoadResult run(String scenario, LoadAPI loadAPI, int concurrency, double failureRate) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrency);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            long start = System.nanoTime();
+            long measureStart = start + TimeUnit.SECONDS.toNanos(WARMUP);
+            long end = measureStart + TimeUnit.SECONDS.toNanos(DURATION);
+            List<Future<Worker>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executorService.submit(() -> {
+                    Worker worker = new Worker();
+                    startLatch.await();
+                    worker.run(loadAPI, failureRate, measureStart, end);
+                    return worker;
+                }));
+            }
+            startLatch.countDown();
+
+            LoadResult result = new LoadResult(scenario, baseUrl.getProtocol(), concurrency);
+            for (Future<Worker> future : futures) {
+                result.add(future.get());
+            }
+            result.complete();
+            logger.info("Load test results: {}", result);
+            write(result);
+            return result;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void check(LoadResult result) {
+        assertThat(result.getThroughput())
+                .as("%s throughput (calls/s)", result.getName())
+                .isGreaterThanOrEqualTo(threshold(result, "minThroughput"));
+        assertThat(result.getP99())
+                .as("%s p99 latency (ms)", result.getName())
+                .isLessThanOrEqualTo(threshold(result, "maxP99"));
+        assertThat(result.getP999())
+                .as("%s p99.9 latency (ms)", result.getName())
+                .isLessThanOrEqualTo(threshold(result, "maxP999"));
+        assertThat(result.getErrorRate())
+                .as("%s error rate", result.getName())
+                .isLessThanOrEqualTo(threshold(result, "maxErrorRate"));
+    }
+
+    private double threshold(LoadResult result, String name) {
+        // The most specific threshold wins: protocol and scenario, scenario, then all scenarios
+        for (String key : Arrays.asList(
+                result.getProtocol() + "." + result.getScenario() + "." + name,
+                result.getScenario() + "." + name,
+                "all." + name)) {
+            String value = thresholds.getProperty(key);
+            if (value != null) {
+                return Double.parseDouble(value);
+            }
+        }
+        throw new IllegalStateException("Missing load test threshold " + name + " in " + THRESHOLDS);
+    }
+
+    private void write(LoadResult result) throws IOException {
+        File directory = new File("target/load-results");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File(directory, result.getName() + ".json"), result);
+    }
+
+    private static class Worker {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        private void run(LoadAPI loadAPI, double failureRate, long measureStart, long end) {
+            long now = System.nanoTime();
+            while (now < end) {
+                boolean failed = false;
+                try {
+                    loadAPI.getMessage(PAYLOAD_SIZE, LATENCY, failureRate);
+                } catch (RuntimeException e) {
+                    failed = true;
+                }
+                long callEnd = System.nanoTime();
+                if (now >= measureStart) {
+                    if (failed) {
+                        errors++;
+                    } else {
+                        record(callEnd - now);
+                    }
+                }
+                now = callEnd;
+            }
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+
+    public static class LoadResult {
+        private final String scenario;
+        private final String protocol;
+        private final int concurrency;
+        private final List<long[]> latencies = new ArrayList<>();
+        private long calls;
+        private long errors;
+        private double throughput;
+        private double p50;
+        private double p99;
+        private double p999;
+        private double max;
+
+        private LoadResult(String scenario, String protocol, int concurrency) {
+            this.scenario = scenario;
+            this.protocol = protocol;
+            this.concurrency = concurrency;
+        }
+
+        private void add(Worker worker) {
+            latencies.add(Arrays.copyOf(worker.latencies, worker.count));
+            calls += worker.count + worker.errors;
+            errors += worker.errors;
+        }
+
+        private void complete() {
+            long[] sorted = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            throughput = (double) sorted.length / DURATION;
+            p50 = percentile(sorted, 50);
+            p99 = percentile(sorted, 99);
+            p999 = percentile(sorted, 99.9);
+            max = sorted.length > 0 ? toMillis(sorted[sorted.length - 1]) : 0;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return toMillis(sorted[Math.max(0, index)]);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000d;
+        }
+
+        public String getName() {
+            return protocol + "-" + scenario;
+        }
+
+        public String getScenario() {
+            return scenario;
+        }
+
+        public String getProtocol() {
+            return protocol;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public int getPayloadSize() {
+            return PAYLOAD_SIZE;
+        }
+
+        public int getLatency() {
+            return LATENCY;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getErrorRate() {
+            return calls == 0 ? 0 : (double) errors / calls;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public double getP999() {
+            return p999;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s concurrency=%d calls=%d errors=%d throughput=%.1f/s p50=%.2fms p99=%.2fms "
+                            + "p99.9=%.2fms max=%.2fms", getName(), concurrency, calls, errors, throughput, p50, p99,
+                    p999, max);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.fixtures;
+
+import feign.hystrix.FallbackFactory;
+import org.seedstack.feign.fixtures.apis.RateLimitedAPI;
+
+public class RateLimitedFallbackFactory implements FallbackFactory<RateLimitedAPI> {
+    @Override
+    public RateLimitedAPI create(Throwable cause) {
+        return new RateLimitedAPI() {
+            @Override
+            public Message getMessage() {
+                return new Message("Fallback response", cause.getClass().getSimpleName());
+            }
+
+            @Override
+            public Message getThrottledMessage() {
+                return new Message("Fallback response", cause.getClass().getSimpleName());
+            }
+        };
+    }
+}
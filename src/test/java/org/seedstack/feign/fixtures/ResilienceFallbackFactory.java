@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.fixtures;
+
+import feign.hystrix.FallbackFactory;
+import org.seedstack.feign.fixtures.apis.ResilienceAPI;
+
+public class ResilienceFallbackFactory implements FallbackFactory<ResilienceAPI> {
+    @Override
+    public ResilienceAPI create(Throwable cause) {
+        return new ResilienceAPI() {
+            @Override
+            public Message getMessage() {
+                return new Message("Fallback response", cause.getClass().getSimpleName());
+            }
+
+            @Override
+            public Message getFailure() {
+                return new Message("Fallback failure response", cause.getClass().getSimpleName());
+            }
+        };
+    }
+}
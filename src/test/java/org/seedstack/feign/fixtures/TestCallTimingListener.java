@@ -0,0 +1,20 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.fixtures;
+
+import org.seedstack.feign.CallTiming;
+import org.seedstack.feign.CallTimingListener;
+
+public class TestCallTimingListener implements CallTimingListener {
+    public static volatile CallTiming lastCallTiming;
+
+    @Override
+    public void onCallTiming(CallTiming callTiming) {
+        lastCallTiming = callTiming;
+    }
+}
@@ -7,9 +7,14 @@
  */
 package org.seedstack.feign.fixtures;
 
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -19,13 +24,28 @@ import feign.Util;
 import org.seedstack.seed.Logging;
 import org.slf4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @Path("/feign")
 public class TestResource {
+    private static final AtomicInteger cachedCallCount = new AtomicInteger();
+    private static final AtomicInteger notModifiedCount = new AtomicInteger();
+    private static final AtomicInteger bulkCallCount = new AtomicInteger();
+    private static final Map<Integer, String> loadBodies = new ConcurrentHashMap<>();
     @Logging
     private Logger logger;
 
@@ -43,6 +63,153 @@ public class TestResource {
         return new Message("Hello World !", "computer");
     }
 
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/messages")
+    public List<Message> messages(@QueryParam("count") int count) {
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(new Message("Message " + i, "computer"));
+        }
+        return messages;
+    }
+
+    @GET
+    @Path("/compressed-message")
+    public Response compressedSay(@HeaderParam("Accept-Encoding") String acceptEncoding) throws IOException {
+        byte[] body = "{\"body\":\"Hello World !\",\"author\":\"computer\"}".getBytes(Util.UTF_8);
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            return Response.ok(body, MediaType.APPLICATION_JSON).build();
+        }
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+            outputStream.write(body);
+        }
+        return Response.ok(byteArrayOutputStream.toByteArray(), MediaType.APPLICATION_JSON)
+                .header("Content-Encoding", "gzip")
+                .build();
+    }
+
+    @GET
+    @Path("/identity-message")
+    public Response identitySay() {
+        return Response.ok("{\"body\":\"Hello World !\",\"author\":\"computer\"}".getBytes(Util.UTF_8),
+                MediaType.APPLICATION_JSON)
+                .header("Content-Encoding", "identity")
+                .build();
+    }
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Path("/compressed-echo")
+    public Response compressedEcho(@HeaderParam("Content-Encoding") String contentEncoding, byte[] body)
+            throws IOException {
+        if (!"gzip".equals(contentEncoding)) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Expected a gzip request body").build();
+        }
+        return Response.ok(Util.toByteArray(new GZIPInputStream(new ByteArrayInputStream(body))),
+                MediaType.APPLICATION_JSON).build();
+    }
+
+    @POST
+    @Path("/binary-echo")
+    public Response binaryEcho(@HeaderParam("Content-Type") String contentType, byte[] body) {
+        return Response.ok(body, contentType).build();
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/cached-message")
+    public Response cachedSay() {
+        cachedCallCount.incrementAndGet();
+        return Response.ok(new Message("Hello World !", "computer"))
+                .header("Cache-Control", "max-age=60")
+                .build();
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/revalidated-message")
+    public Response revalidatedSay(@HeaderParam("If-None-Match") String ifNoneMatch) {
+        if ("\"v1\"".equals(ifNoneMatch)) {
+            notModifiedCount.incrementAndGet();
+            return Response.notModified().header("ETag", "\"v1\"").build();
+        }
+        return Response.ok(new Message("Hello World !", "computer"))
+                .header("Cache-Control", "no-cache")
+                .header("ETag", "\"v1\"")
+                .build();
+    }
+
+    public static int getCachedCallCount() {
+        return cachedCallCount.get();
+    }
+
+    public static int getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    public static int getBulkCallCount() {
+        return bulkCallCount.get();
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/slow-message")
+    public Message slowSay() throws InterruptedException {
+        Thread.sleep(500);
+        return new Message("Hello World !", "computer");
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/slow/message")
+    public Message verySlowSay() throws InterruptedException {
+        Thread.sleep(2000);
+        return new Message("Hello World !", "computer");
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/deadline")
+    public Message deadline(@HeaderParam("X-Deadline") String deadline) {
+        return new Message(deadline, "computer");
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/messages/{id}")
+    public Message message(@PathParam("id") int id) {
+        return new Message("Message " + id, "computer");
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/bulk-messages")
+    public List<Message> bulkMessages(@QueryParam("ids") List<Integer> ids) {
+        bulkCallCount.incrementAndGet();
+        List<Message> messages = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            messages.add(new Message("Message " + id, "computer"));
+        }
+        return messages;
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/load-message")
+    public Response loadSay(@QueryParam("size") int size, @QueryParam("latency") int latency,
+            @QueryParam("failureRate") double failureRate) throws InterruptedException {
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).header("Retry-After", "0").build();
+        }
+        String body = loadBodies.computeIfAbsent(size, k -> String.join("", Collections.nCopies(k, "x")));
+        return Response.ok(new Message(body, "computer"), MediaType.APPLICATION_JSON).build();
+    }
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/timeout")
@@ -0,0 +1,26 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.fixtures;
+
+import org.seedstack.feign.fixtures.apis.VirtualHystrixAPI;
+
+public class VirtualHystrixFallback implements VirtualHystrixAPI {
+    public static volatile Thread lastThread;
+
+    @Override
+    public Message getMessage() {
+        lastThread = Thread.currentThread();
+        return new Message("Fallback response", "fallback");
+    }
+
+    @Override
+    public Message getError() {
+        lastThread = Thread.currentThread();
+        return new Message("Fallback response", "fallback");
+    }
+}
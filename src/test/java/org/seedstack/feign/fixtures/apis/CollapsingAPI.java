@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.fixtures.apis;
+
+import feign.Param;
+import feign.RequestLine;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.seedstack.feign.Collapsed;
+import org.seedstack.feign.FeignApi;
+import org.seedstack.feign.fixtures.Message;
+
+@FeignApi
+public interface CollapsingAPI {
+
+    @Collapsed(bulkMethod = "getMessages", window = 200)
+    @RequestLine("GET /messages/{id}")
+    CompletableFuture<Message> getMessage(@Param("id") int id);
+
+    @RequestLine("GET /bulk-messages?ids={ids}")
+    List<Message> getMessages(@Param("ids") List<Integer> ids);
+
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.fixtures.apis;
+
+import feign.Headers;
+import feign.RequestLine;
+import org.seedstack.feign.CloseableIterator;
+import org.seedstack.feign.FeignApi;
+import org.seedstack.feign.fixtures.Message;
+
+import java.util.stream.Stream;
+
+@FeignApi
+@Headers("Accept: application/json")
+public interface PooledStreamingAPI {
+
+    @RequestLine("GET /message")
+    Stream<Message> streamMessage();
+
+    @RequestLine("GET /message")
+    CloseableIterator<Message> iterateMessage();
+
+}
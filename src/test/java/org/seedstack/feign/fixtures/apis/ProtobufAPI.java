@@ -0,0 +1,20 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.fixtures.apis;
+
+import com.google.protobuf.StringValue;
+import feign.RequestLine;
+import org.seedstack.feign.FeignApi;
+
+@FeignApi
+public interface ProtobufAPI {
+
+    @RequestLine("POST /binary-echo")
+    StringValue echo(StringValue value);
+
+}
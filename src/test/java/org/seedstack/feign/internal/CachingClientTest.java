@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CachingClientTest {
+    private static final long RESPONSE_TIME = 1_600_000_000_000L;
+
+    @Test
+    public void maxAgeIsRelativeToTheResponseTime() {
+        assertThat(CachingClient.freshUntil(headers("Cache-Control", "public, max-age=60"), RESPONSE_TIME))
+                .isEqualTo(RESPONSE_TIME + 60_000);
+    }
+
+    @Test
+    public void ageIsDeducedFromTheFreshness() {
+        Map<String, Collection<String>> headers = headers("Cache-Control", "max-age=60");
+        headers.put("Age", Collections.singletonList("10"));
+        assertThat(CachingClient.freshUntil(headers, RESPONSE_TIME)).isEqualTo(RESPONSE_TIME + 50_000);
+    }
+
+    @Test
+    public void maxAgeTakesPrecedenceOverExpires() {
+        Map<String, Collection<String>> headers = headers("Cache-Control", "max-age=60");
+        headers.put("Expires", Collections.singletonList(httpDate(RESPONSE_TIME + 3_600_000)));
+        assertThat(CachingClient.freshUntil(headers, RESPONSE_TIME)).isEqualTo(RESPONSE_TIME + 60_000);
+    }
+
+    @Test
+    public void expiresIsRelativeToTheServerDate() {
+        // The server clock is one hour late: only the difference between its dates matters
+        long serverTime = RESPONSE_TIME - 3_600_000;
+        Map<String, Collection<String>> headers = headers("Date", httpDate(serverTime));
+        headers.put("Expires", Collections.singletonList(httpDate(serverTime + 120_000)));
+        assertThat(CachingClient.freshUntil(headers, RESPONSE_TIME)).isEqualTo(RESPONSE_TIME + 120_000);
+    }
+
+    @Test
+    public void expiresWithoutDateIsAbsolute() {
+        assertThat(CachingClient.freshUntil(headers("Expires", httpDate(RESPONSE_TIME + 30_000)), RESPONSE_TIME))
+                .isEqualTo(RESPONSE_TIME + 30_000);
+    }
+
+    @Test
+    public void invalidExpiresMeansExpired() {
+        assertThat(CachingClient.freshUntil(headers("Expires", "0"), RESPONSE_TIME)).isEqualTo(0);
+    }
+
+    @Test
+    public void noCacheMustBeRevalidated() {
+        assertThat(CachingClient.freshUntil(headers("Cache-Control", "no-cache, max-age=60"), RESPONSE_TIME))
+                .isEqualTo(0);
+    }
+
+    @Test
+    public void responsesWithoutFreshnessInformationAreStale() {
+        assertThat(CachingClient.freshUntil(new HashMap<>(), RESPONSE_TIME)).isEqualTo(0);
+    }
+
+    @Test
+    public void headerNamesAreCaseInsensitive() {
+        assertThat(CachingClient.freshUntil(headers("cache-control", "MAX-AGE=\"5\""), RESPONSE_TIME))
+                .isEqualTo(RESPONSE_TIME + 5_000);
+    }
+
+    @Test
+    public void headerValuesAreJoined() {
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("vary", Arrays.asList("Accept", "Accept-Encoding"));
+        assertThat(CachingClient.joinedHeaderValues(headers, "Vary")).isEqualTo("Accept,Accept-Encoding");
+        assertThat(CachingClient.joinedHeaderValues(headers, "Age")).isEmpty();
+    }
+
+    @Test
+    public void responseIsClosedWhenBufferingFails() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream failingBody = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        Request request = Request.create(Request.HttpMethod.GET, "http://localhost/message", new HashMap<>(), null,
+                Util.UTF_8, null);
+        try (ResponseCache responseCache = new ResponseCache(1024, null, 0)) {
+            CachingClient cachingClient = new CachingClient((req, options) -> Response.builder()
+                    .status(200)
+                    .headers(headers("Cache-Control", "max-age=60"))
+                    .request(req)
+                    .body(failingBody, null)
+                    .build(), responseCache, 1024);
+            assertThatThrownBy(() -> cachingClient.execute(request, new Request.Options()))
+                    .isInstanceOf(IOException.class);
+        }
+        assertThat(closed.get()).isTrue();
+    }
+
+    private static Map<String, Collection<String>> headers(String name, String value) {
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put(name, Collections.singletonList(value));
+        return headers;
+    }
+
+    private static String httpDate(long epochMillis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.junit.Test;
+import org.seedstack.feign.FeignConfig;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+    private long now = 1000;
+
+    @Test
+    public void staysClosedUntilTheMinimumNumberOfCalls() {
+        CircuitBreaker circuitBreaker = circuitBreaker(config());
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onResult(FAST, true);
+        }
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.CLOSED);
+        circuitBreaker.onResult(FAST, true);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.OPEN);
+    }
+
+    @Test
+    public void opensWhenTheFailureRateReachesTheThreshold() {
+        CircuitBreaker circuitBreaker = circuitBreaker(config());
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, true);
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, true);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.CLOSED);
+        circuitBreaker.onResult(FAST, true);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.OPEN);
+    }
+
+    @Test
+    public void opensWhenTheSlowCallRateReachesTheThreshold() {
+        CircuitBreaker circuitBreaker = circuitBreaker(config().setSlowCallRateThreshold(50));
+        circuitBreaker.onResult(SLOW, false);
+        circuitBreaker.onResult(SLOW, false);
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, false);
+        circuitBreaker.onResult(FAST, false);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.CLOSED);
+        circuitBreaker.onResult(SLOW, false);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.OPEN);
+    }
+
+    @Test
+    public void oldOutcomesLeaveTheSlidingWindow() {
+        CircuitBreaker circuitBreaker = circuitBreaker(config()
+                .setSlidingWindowSize(4)
+                .setMinimumNumberOfCalls(4)
+                .setFailureRateThreshold(75));
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onResult(FAST, false);
+        }
+        circuitBreaker.onResult(FAST, true);
+        circuitBreaker.onResult(FAST, true);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.CLOSED);
+        // Three failures out of the last four calls, but out of seven calls overall
+        circuitBreaker.onResult(FAST, true);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.OPEN);
+    }
+
+    @Test
+    public void rejectsCallsUntilTheWaitDurationHasElapsed() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        now += TimeUnit.MILLISECONDS.toNanos(999);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        now += TimeUnit.MILLISECONDS.toNanos(1);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.HALF_OPEN);
+    }
+
+    @Test
+    public void halfOpenCircuitLetsALimitedNumberOfTrialCallsThrough() {
+        CircuitBreaker circuitBreaker = halfOpenCircuitBreaker();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        // Rejected calls do not consume the permits given back by calls that were not executed
+        circuitBreaker.releasePermission();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    public void successfulTrialCallsCloseTheCircuit() {
+        CircuitBreaker circuitBreaker = halfOpenCircuitBreaker();
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.onResult(FAST, false);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.HALF_OPEN);
+        circuitBreaker.onResult(FAST, false);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.CLOSED);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    public void failedTrialCallsOpenTheCircuitAgain() {
+        CircuitBreaker circuitBreaker = halfOpenCircuitBreaker();
+        circuitBreaker.onResult(FAST, true);
+        circuitBreaker.onResult(FAST, false);
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.OPEN);
+        // The wait starts over from the new opening
+        now += TimeUnit.MILLISECONDS.toNanos(500);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    public void outcomesOfCallsPermittedBeforeOpeningAreIgnored() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.onResult(FAST, false);
+        }
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.OPEN);
+    }
+
+    private CircuitBreaker openCircuitBreaker() {
+        CircuitBreaker circuitBreaker = circuitBreaker(config().setPermittedCallsInHalfOpenState(2));
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.onResult(FAST, true);
+        }
+        assertThat(circuitBreaker.getStatus()).isEqualTo(CircuitBreaker.Status.OPEN);
+        return circuitBreaker;
+    }
+
+    private CircuitBreaker halfOpenCircuitBreaker() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        circuitBreaker.releasePermission();
+        return circuitBreaker;
+    }
+
+    private CircuitBreaker circuitBreaker(FeignConfig.CircuitBreakerConfig config) {
+        return new CircuitBreaker(config, () -> now);
+    }
+
+    private static FeignConfig.CircuitBreakerConfig config() {
+        return new FeignConfig.CircuitBreakerConfig()
+                .setSlidingWindowSize(10)
+                .setMinimumNumberOfCalls(5)
+                .setFailureRateThreshold(50)
+                .setSlowCallRateThreshold(100)
+                .setSlowCallDurationThreshold(100)
+                .setWaitDurationInOpenState(1000);
+    }
+}
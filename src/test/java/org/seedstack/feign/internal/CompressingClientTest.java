@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.Test;
+import org.seedstack.feign.FeignConfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompressingClientTest {
+    @Test
+    public void responseIsClosedWhenTheCompressedBodyIsTruncated() {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayInputStream truncatedBody = new ByteArrayInputStream(new byte[]{0x1f}) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Encoding", Collections.singletonList("gzip"));
+        Request request = Request.create(Request.HttpMethod.GET, "http://localhost/message", new HashMap<>(), null,
+                Util.UTF_8, null);
+        CompressingClient compressingClient = new CompressingClient((req, options) -> Response.builder()
+                .status(200)
+                .headers(headers)
+                .request(req)
+                .body(truncatedBody, 1)
+                .build(), new FeignConfig.CompressionConfig(), new EndpointMetricsImpl(), Object.class, false);
+        assertThatThrownBy(() -> compressingClient.execute(request, new Request.Options()))
+                .isInstanceOf(IOException.class);
+        assertThat(closed.get()).isTrue();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.junit.Test;
+import org.seedstack.feign.FeignConfig;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimiterTest {
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+    private final EndpointMetricsImpl endpointMetrics = new EndpointMetricsImpl();
+
+    @Test
+    public void permitsAreTakenUpToTheLimit() {
+        ConcurrencyLimiter limiter = limiter(aimd().setInitialLimit(2));
+        assertThat(limiter.tryAcquire()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isEqualTo(-1);
+        limiter.release(1, RTT, false);
+        assertThat(limiter.tryAcquire()).isEqualTo(2);
+    }
+
+    @Test
+    public void aimdIncreasesTheLimitWhenItIsUsed() {
+        ConcurrencyLimiter limiter = limiter(aimd().setInitialLimit(4));
+        limiter.tryAcquire();
+        limiter.release(1, RTT, false);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        limiter.tryAcquire();
+        limiter.release(2, RTT, false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        assertThat(endpointMetrics.getConcurrencyLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void aimdBacksOffOnDropsAndTimeouts() {
+        ConcurrencyLimiter limiter = limiter(aimd().setInitialLimit(20).setBackoffRatio(0.5).setTimeout(100));
+        limiter.tryAcquire();
+        limiter.release(1, RTT, true);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        limiter.tryAcquire();
+        limiter.release(1, TimeUnit.MILLISECONDS.toNanos(101), false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        assertThat(endpointMetrics.getConcurrencyLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void limitStaysWithinItsBounds() {
+        ConcurrencyLimiter limiter = limiter(aimd().setInitialLimit(3).setMinLimit(2).setMaxLimit(3)
+                .setBackoffRatio(0.1));
+        limiter.tryAcquire();
+        limiter.release(3, RTT, false);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        limiter.tryAcquire();
+        limiter.release(1, RTT, true);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void gradientGrowsWhileLatencyIsStableAndShrinksWhenItRises() {
+        ConcurrencyLimiter limiter = limiter(new FeignConfig.LimiterConfig()
+                .setAlgorithm(FeignConfig.LimitAlgorithm.GRADIENT)
+                .setInitialLimit(20)
+                .setRttTolerance(1)
+                .setSmoothing(1));
+        limiter.tryAcquire();
+        limiter.release(20, RTT, false);
+        int grownLimit = limiter.getLimit();
+        assertThat(grownLimit).isGreaterThan(20);
+
+        limiter.tryAcquire();
+        limiter.release(grownLimit, RTT * 4, false);
+        assertThat(limiter.getLimit()).isLessThan(grownLimit);
+        assertThat(endpointMetrics.getConcurrencyLimit()).isEqualTo(limiter.getLimit());
+    }
+
+    @Test
+    public void gradientIgnoresLatenciesWhenTheLimitIsNotUsed() {
+        ConcurrencyLimiter limiter = limiter(new FeignConfig.LimiterConfig()
+                .setAlgorithm(FeignConfig.LimitAlgorithm.GRADIENT)
+                .setInitialLimit(20));
+        limiter.tryAcquire();
+        limiter.release(1, RTT, false);
+        limiter.tryAcquire();
+        limiter.release(1, RTT * 100, false);
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    private ConcurrencyLimiter limiter(FeignConfig.LimiterConfig limiterConfig) {
+        return new ConcurrencyLimiter(limiterConfig, endpointMetrics);
+    }
+
+    private static FeignConfig.LimiterConfig aimd() {
+        return new FeignConfig.LimiterConfig().setAlgorithm(FeignConfig.LimitAlgorithm.AIMD);
+    }
+}
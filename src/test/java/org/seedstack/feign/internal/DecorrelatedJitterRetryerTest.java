@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import feign.Request;
+import feign.RetryableException;
+import org.junit.Test;
+import org.seedstack.feign.FeignConfig;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DecorrelatedJitterRetryerTest {
+    @Test
+    public void retriesWithinTheRemainingTime() {
+        DecorrelatedJitterRetryer retryer = retryer(new FeignConfig.RetryConfig().setPeriod(1).setMaxPeriod(1));
+        assertThatCode(() -> retryer.continueOrPropagate(exception(null), 1000)).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void givesUpWhenTheBackoffOutlastsTheRemainingTime() {
+        DecorrelatedJitterRetryer retryer = retryer(new FeignConfig.RetryConfig().setPeriod(500).setMaxPeriod(500));
+        assertThatThrownBy(() -> retryer.continueOrPropagate(exception(null), 100))
+                .isInstanceOf(RetryableException.class);
+    }
+
+    @Test
+    public void givesUpWhenRetryAfterOutlastsTheRemainingTime() {
+        DecorrelatedJitterRetryer retryer = retryer(new FeignConfig.RetryConfig().setPeriod(1).setMaxPeriod(10_000));
+        Date retryAfter = new Date(System.currentTimeMillis() + 5_000);
+        assertThatThrownBy(() -> retryer.continueOrPropagate(exception(retryAfter), 1000))
+                .isInstanceOf(RetryableException.class);
+    }
+
+    private static DecorrelatedJitterRetryer retryer(FeignConfig.RetryConfig retryConfig) {
+        return new DecorrelatedJitterRetryer(retryConfig, new TokenBudget(1, 10), new EndpointMetricsImpl());
+    }
+
+    private static RetryableException exception(Date retryAfter) {
+        return new RetryableException(503, "Service unavailable", Request.HttpMethod.GET, retryAfter,
+                Request.create(Request.HttpMethod.GET, "http://localhost/message", Collections.emptyMap(),
+                        null, null, null));
+    }
+}
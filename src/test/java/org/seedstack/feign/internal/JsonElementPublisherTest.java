@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Request;
+import feign.Response;
+import feign.codec.DecodeException;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JsonElementPublisherTest {
+    private static final Executor DIRECT = Runnable::run;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TrackedBody body;
+
+    @Test
+    public void elementsAreEmittedOnDemand() {
+        RecordingSubscriber subscriber = subscribe(publisher("[1, 2, 3]", DIRECT));
+        assertThat(subscriber.elements).isEmpty();
+        subscriber.subscription.request(2);
+        assertThat(subscriber.elements).containsExactly(1, 2);
+        assertThat(subscriber.completed).isFalse();
+        subscriber.subscription.request(1);
+        assertThat(subscriber.elements).containsExactly(1, 2, 3);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    public void completionDoesNotWaitForAnotherRequest() {
+        RecordingSubscriber subscriber = subscribe(publisher("[1, 2, 3]", DIRECT));
+        subscriber.subscription.request(3);
+        assertThat(subscriber.elements).containsExactly(1, 2, 3);
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    public void nullElementsAreSkipped() {
+        RecordingSubscriber subscriber = subscribe(publisher("[1, null, 2]", DIRECT));
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.elements).containsExactly(1, 2);
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    public void singleValueIsEmittedAsOneElement() {
+        RecordingSubscriber subscriber = subscribe(publisher("7", DIRECT));
+        subscriber.subscription.request(5);
+        assertThat(subscriber.elements).containsExactly(7);
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    public void nonPositiveRequestSignalsAnError() {
+        RecordingSubscriber subscriber = subscribe(publisher("[1, 2]", DIRECT));
+        subscriber.subscription.request(0);
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+        assertThat(subscriber.elements).isEmpty();
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    public void decodingErrorSignalsAnErrorAndClosesTheResponse() {
+        RecordingSubscriber subscriber = subscribe(publisher("[1, \"a\"", DIRECT));
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.elements).containsExactly(1);
+        assertThat(subscriber.error).isInstanceOf(DecodeException.class);
+        assertThat(subscriber.completed).isFalse();
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    public void cancellationClosesTheResponse() {
+        RecordingSubscriber subscriber = subscribe(publisher("[1, 2, 3]", DIRECT));
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+        assertThat(subscriber.elements).containsExactly(1);
+        assertThat(subscriber.completed).isFalse();
+        assertThat(subscriber.error).isNull();
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    public void rejectedExecutionSignalsAnError() {
+        RecordingSubscriber subscriber = subscribe(publisher("[1]", command -> {
+            throw new RejectedExecutionException("rejected");
+        }));
+        subscriber.subscription.request(1);
+        assertThat(subscriber.error).isInstanceOf(RejectedExecutionException.class);
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    public void onlyOneSubscriberIsAccepted() {
+        JsonElementPublisher<Integer> publisher = publisher("[1]", DIRECT);
+        subscribe(publisher);
+        RecordingSubscriber second = subscribe(publisher);
+        assertThat(second.subscription).isNotNull();
+        assertThat(second.error).isInstanceOf(IllegalStateException.class);
+    }
+
+    private JsonElementPublisher<Integer> publisher(String json, Executor executor) {
+        body = new TrackedBody(json.getBytes(StandardCharsets.UTF_8));
+        Response response = Response.builder()
+                .status(200)
+                .request(Request.create(Request.HttpMethod.GET, "http://localhost/elements",
+                        Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+                .headers(Collections.emptyMap())
+                .body(body, null)
+                .build();
+        return new JsonElementPublisher<>(new JsonElementIterator<>(response, objectMapper,
+                objectMapper.constructType(Integer.class)), executor);
+    }
+
+    private static RecordingSubscriber subscribe(JsonElementPublisher<Integer> publisher) {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        return subscriber;
+    }
+
+    private static class TrackedBody extends ByteArrayInputStream {
+        private boolean closed;
+
+        private TrackedBody(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber<Integer> {
+        private final List<Integer> elements = new ArrayList<>();
+        private Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer element) {
+            elements.add(element);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getPercentile(99, TimeUnit.NANOSECONDS)).isEqualTo(0);
+        assertThat(histogram.getMean(TimeUnit.NANOSECONDS)).isEqualTo(0);
+        assertThat(histogram.getMax(TimeUnit.NANOSECONDS)).isEqualTo(0);
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 32; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getPercentile(50, TimeUnit.NANOSECONDS)).isEqualTo(15);
+        assertThat(histogram.getPercentile(100, TimeUnit.NANOSECONDS)).isEqualTo(31);
+        assertThat(histogram.getMean(TimeUnit.NANOSECONDS)).isEqualTo(15.5);
+    }
+
+    @Test
+    public void percentilesAreWithinTheRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertThat(histogram.getCount()).isEqualTo(100_000);
+        assertThat(histogram.getPercentile(50, TimeUnit.NANOSECONDS)).isCloseTo(50_000_000, within(1_600_000.0));
+        assertThat(histogram.getPercentile(99, TimeUnit.NANOSECONDS)).isCloseTo(99_000_000, within(3_200_000.0));
+        assertThat(histogram.getPercentile(100, TimeUnit.NANOSECONDS)).isEqualTo(100_000_000);
+    }
+
+    @Test
+    public void percentilesNeverExceedTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        assertThat(histogram.getPercentile(50, TimeUnit.NANOSECONDS)).isEqualTo(1000);
+        assertThat(histogram.getPercentile(100, TimeUnit.NANOSECONDS)).isEqualTo(1000);
+    }
+
+    @Test
+    public void valuesAreConvertedToTheRequestedUnit() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(2));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(4));
+        assertThat(histogram.getMax(TimeUnit.MILLISECONDS)).isEqualTo(4);
+        assertThat(histogram.getMean(TimeUnit.MILLISECONDS)).isEqualTo(3);
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertThat(histogram.getCount()).isEqualTo(1);
+        assertThat(histogram.getMax(TimeUnit.NANOSECONDS)).isEqualTo(0);
+    }
+
+    @Test
+    public void eachValueFallsInTheBucketBoundingIt() {
+        long[] values = {31, 32, 33, 63, 64, 1000, 123_456_789, 1L << 42, (1L << 43) - 1};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(LatencyHistogram.bucketUpperBound(index)).isGreaterThanOrEqualTo(value);
+            assertThat(LatencyHistogram.bucketUpperBound(index - 1)).isLessThan(value);
+        }
+    }
+
+    @Test
+    public void valuesBeyondTheLastBucketAreRecordedInIt() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(1L << 50);
+        assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.bucketIndex(1L << 50));
+        assertThat(histogram.getPercentile(50, TimeUnit.NANOSECONDS))
+                .isEqualTo(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+}
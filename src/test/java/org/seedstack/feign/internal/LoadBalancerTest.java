@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.junit.Test;
+import org.seedstack.feign.FeignConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadBalancerTest {
+    private static final String A = "http://a.example.com/api";
+    private static final String B = "http://b.example.com/api";
+    private long now = 1000;
+
+    @Test
+    public void roundRobinInterleavesInstancesByWeight() {
+        LoadBalancer loadBalancer = loadBalancer(FeignConfig.LoadBalancingStrategy.ROUND_ROBIN, 2, 1);
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            urls.add(loadBalancer.choose().getUrl());
+        }
+        assertThat(urls).containsExactly(A, B, A, A, B, A);
+    }
+
+    @Test
+    public void leastOutstandingAvoidsBusyInstances() {
+        LoadBalancer loadBalancer = loadBalancer(FeignConfig.LoadBalancingStrategy.LEAST_OUTSTANDING, 1, 1);
+        LoadBalancer.Instance busy = loadBalancer.findInstance(A + "/items");
+        busy.start();
+        for (int i = 0; i < 10; i++) {
+            assertThat(loadBalancer.choose().getUrl()).isEqualTo(B);
+        }
+        busy.end(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(busy.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void powerOfTwoChoicesPrefersTheLowestLatency() {
+        LoadBalancer loadBalancer = loadBalancer(FeignConfig.LoadBalancingStrategy.POWER_OF_TWO_CHOICES, 1, 1);
+        record(loadBalancer.findInstance(A), 100);
+        record(loadBalancer.findInstance(B), 2);
+        for (int i = 0; i < 10; i++) {
+            assertThat(loadBalancer.choose().getUrl()).isEqualTo(B);
+        }
+    }
+
+    @Test
+    public void latencyPeaksDecayWithTime() {
+        LoadBalancer loadBalancer = loadBalancer(FeignConfig.LoadBalancingStrategy.POWER_OF_TWO_CHOICES, 1, 1);
+        LoadBalancer.Instance a = loadBalancer.findInstance(A);
+        record(a, 100);
+        record(loadBalancer.findInstance(B), 2);
+        record(a, 1);
+        // No time has passed: the peak of A is still remembered
+        assertThat(loadBalancer.choose().getUrl()).isEqualTo(B);
+
+        now += TimeUnit.SECONDS.toNanos(100);
+        record(a, 1);
+        for (int i = 0; i < 10; i++) {
+            assertThat(loadBalancer.choose().getUrl()).isEqualTo(A);
+        }
+    }
+
+    @Test
+    public void otherInstanceIsChosenForSecondAttempts() {
+        for (FeignConfig.LoadBalancingStrategy strategy : FeignConfig.LoadBalancingStrategy.values()) {
+            LoadBalancer loadBalancer = loadBalancer(strategy, 5, 1);
+            LoadBalancer.Instance a = loadBalancer.findInstance(A);
+            for (int i = 0; i < 10; i++) {
+                assertThat(loadBalancer.chooseOther(a).getUrl()).isEqualTo(B);
+            }
+        }
+    }
+
+    @Test
+    public void instancesAreFoundByTheirLongestUrlPrefix() {
+        LoadBalancer loadBalancer = new LoadBalancer(new FeignConfig.LoadBalancingConfig()
+                .addInstance(new FeignConfig.InstanceConfig().setUrl("http://a.example.com/"))
+                .addInstance(new FeignConfig.InstanceConfig().setUrl("http://a.example.com/api/")), () -> now);
+        assertThat(loadBalancer.findInstance("http://a.example.com/api/items").getUrl())
+                .isEqualTo("http://a.example.com/api");
+        assertThat(loadBalancer.findInstance("http://a.example.com/apis").getUrl())
+                .isEqualTo("http://a.example.com");
+        assertThat(loadBalancer.findInstance("http://b.example.com/api")).isNull();
+        assertThat(loadBalancer.getUrls()).isEqualTo("http://a.example.com,http://a.example.com/api");
+    }
+
+    private LoadBalancer loadBalancer(FeignConfig.LoadBalancingStrategy strategy, int weightA, int weightB) {
+        return new LoadBalancer(new FeignConfig.LoadBalancingConfig()
+                .setStrategy(strategy)
+                .setDecayTime(10000)
+                .addInstance(new FeignConfig.InstanceConfig().setUrl(A).setWeight(weightA))
+                .addInstance(new FeignConfig.InstanceConfig().setUrl(B).setWeight(weightB)), () -> now);
+    }
+
+    private static void record(LoadBalancer.Instance instance, long latencyMillis) {
+        instance.start();
+        instance.end(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+    }
+}
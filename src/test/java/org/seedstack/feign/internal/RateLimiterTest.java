@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.junit.Test;
+import org.seedstack.feign.FeignConfig;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+    private static final long NO_TIMEOUT = Long.MAX_VALUE;
+    private long now = 1000;
+
+    @Test
+    public void burstUpToTheLimitIsAllowed() {
+        RateLimiter rateLimiter = rateLimiter(FeignConfig.RateLimitMode.FAIL_FAST);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(0);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(0);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(-1);
+    }
+
+    @Test
+    public void permitsAreRefilledOverThePeriod() {
+        RateLimiter rateLimiter = rateLimiter(FeignConfig.RateLimitMode.FAIL_FAST);
+        rateLimiter.reserve(NO_TIMEOUT);
+        rateLimiter.reserve(NO_TIMEOUT);
+        now += TimeUnit.MILLISECONDS.toNanos(499);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(-1);
+        now += TimeUnit.MILLISECONDS.toNanos(1);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(0);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(-1);
+    }
+
+    @Test
+    public void idlePeriodsDoNotAccumulateMorePermitsThanTheLimit() {
+        RateLimiter rateLimiter = rateLimiter(FeignConfig.RateLimitMode.FAIL_FAST);
+        now += TimeUnit.SECONDS.toNanos(10);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(0);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(0);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(-1);
+    }
+
+    @Test
+    public void blockingModeReservesPermitsWithinItsTimeout() {
+        RateLimiter rateLimiter = rateLimiter(FeignConfig.RateLimitMode.BLOCK);
+        rateLimiter.reserve(NO_TIMEOUT);
+        rateLimiter.reserve(NO_TIMEOUT);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+        // The next permit would be available in one second, beyond the timeout of the limiter
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(-1);
+    }
+
+    @Test
+    public void callersDoNotWaitBeyondTheirOwnTimeout() {
+        RateLimiter rateLimiter = rateLimiter(FeignConfig.RateLimitMode.BLOCK);
+        rateLimiter.reserve(NO_TIMEOUT);
+        rateLimiter.reserve(NO_TIMEOUT);
+        assertThat(rateLimiter.reserve(TimeUnit.MILLISECONDS.toNanos(100))).isEqualTo(-1);
+        assertThat(rateLimiter.reserve(TimeUnit.MILLISECONDS.toNanos(500))).isEqualTo(
+                TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void cancelledReservationsAreGivenBack() {
+        RateLimiter rateLimiter = rateLimiter(FeignConfig.RateLimitMode.BLOCK);
+        rateLimiter.reserve(NO_TIMEOUT);
+        rateLimiter.reserve(NO_TIMEOUT);
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+        rateLimiter.cancel();
+        assertThat(rateLimiter.reserve(NO_TIMEOUT)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    private RateLimiter rateLimiter(FeignConfig.RateLimitMode mode) {
+        return new RateLimiter(new FeignConfig.RateLimitConfig()
+                .setLimit(2)
+                .setPeriod(1000)
+                .setMode(mode)
+                .setTimeout(600), () -> now);
+    }
+}
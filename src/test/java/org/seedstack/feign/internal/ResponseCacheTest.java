@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheTest {
+    @Test
+    public void eldestResponsesAreEvictedFirst() throws IOException {
+        long weight = cachedResponse("a").weight();
+        try (ResponseCache responseCache = new ResponseCache(weight * 2, null, 0)) {
+            responseCache.put("a", cachedResponse("a"));
+            responseCache.put("b", cachedResponse("b"));
+            responseCache.put("c", cachedResponse("c"));
+            assertThat(responseCache.get("a")).isNull();
+            assertThat(responseCache.get("b")).isNotNull();
+            assertThat(responseCache.get("c")).isNotNull();
+        }
+    }
+
+    @Test
+    public void requestedResponsesAreGivenASecondChance() throws IOException {
+        long weight = cachedResponse("a").weight();
+        try (ResponseCache responseCache = new ResponseCache(weight * 2, null, 0)) {
+            responseCache.put("a", cachedResponse("a"));
+            responseCache.put("b", cachedResponse("b"));
+            assertThat(responseCache.get("a")).isNotNull();
+            responseCache.put("c", cachedResponse("c"));
+            assertThat(responseCache.get("a")).isNotNull();
+            assertThat(responseCache.get("b")).isNull();
+            assertThat(responseCache.get("c")).isNotNull();
+        }
+    }
+
+    @Test
+    public void replacedResponsesAreNotCountedTwice() throws IOException {
+        long weight = cachedResponse("a").weight();
+        try (ResponseCache responseCache = new ResponseCache(weight * 2, null, 0)) {
+            for (int i = 0; i < 10; i++) {
+                responseCache.put("a", cachedResponse("a"));
+            }
+            responseCache.put("b", cachedResponse("b"));
+            assertThat(responseCache.get("a")).isNotNull();
+            assertThat(responseCache.get("b")).isNotNull();
+        }
+    }
+
+    private static CachedResponse cachedResponse(String key) {
+        return new CachedResponse(key, 200, "OK", Collections.emptyMap(), new byte[16], Collections.emptyMap(), 0);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2013-2021, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.feign.internal;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBudgetTest {
+    @Test
+    public void budgetStartsFull() {
+        TokenBudget budget = new TokenBudget(0.1, 3);
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    public void depositsRefillTheBudgetByTheRatio() {
+        TokenBudget budget = new TokenBudget(0.1, 1);
+        assertThat(budget.tryWithdraw()).isTrue();
+        for (int i = 0; i < 9; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.tryWithdraw()).isFalse();
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    public void depositsAreCappedAtTheMaximumTokens() {
+        TokenBudget budget = new TokenBudget(1, 2);
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    public void zeroRatioOnlyAllowsTheInitialBurst() {
+        TokenBudget budget = new TokenBudget(0, 1);
+        assertThat(budget.tryWithdraw()).isTrue();
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+}